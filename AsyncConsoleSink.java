@@ -0,0 +1,131 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes diagnostics to a console stream from a background thread, so the
+ * thread reporting only queues the message. Messages are written in batches
+ * through a buffered writer that is flushed once the queue is empty.
+ *
+ * The queue is bounded: when it is full, messages are dropped and counted
+ * rather than slowing the caller down, and the count is written with the
+ * next batch.
+ */
+public class AsyncConsoleSink implements DiagnosticSink {
+
+    private static final int QUEUE_CAPACITY = 8192;
+
+    private static final class Entry {
+        final LocalTime time = LocalTime.now().truncatedTo(ChronoUnit.MILLIS);
+        final Level level;
+        final String source;
+        final String message;
+
+        Entry(Level level, String source, String message) {
+            this.level = level;
+            this.source = source;
+            this.message = message;
+        }
+    }
+
+    private final Level threshold;
+    private final Writer out;
+    private final ArrayBlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Object flushLock = new Object();
+    private Thread writer;
+
+    /**
+     * Creates a sink writing to standard error.
+     *
+     * @param threshold the lowest level written.
+     */
+    public AsyncConsoleSink(Level threshold) {
+        this(threshold, System.err);
+    }
+
+    public AsyncConsoleSink(Level threshold, OutputStream stream) {
+        this.threshold = threshold;
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 14);
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    @Override
+    public void report(Level level, String source, String message) {
+        if (!isEnabled(level)) return;
+        startWriter();
+        if (!queue.offer(new Entry(level, source, message))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Writes every queued message now, on the calling thread.
+     */
+    @Override
+    public void flush() {
+        drain(new ArrayList<>());
+    }
+
+    private synchronized void startWriter() {
+        if (writer != null) return;
+        writer = new Thread(this::writeLoop, "diagnostics");
+        writer.setDaemon(true);
+        writer.start();
+        // Daemon threads die with the JVM; write what is left at exit
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "diagnostics-flush"));
+    }
+
+    private void writeLoop() {
+        ArrayList<Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Entry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                return;
+            }
+            drain(batch);
+        }
+    }
+
+    private void drain(ArrayList<Entry> batch) {
+        synchronized (flushLock) {
+            queue.drainTo(batch);
+            try {
+                long lost = dropped.getAndSet(0);
+                if (lost > 0) {
+                    out.write("[diagnostics] " + lost + " message(s) dropped, queue full\n");
+                }
+                for (Entry entry : batch) {
+                    out.write(entry.time.toString());
+                    out.write(' ');
+                    out.write(entry.level.name());
+                    out.write(" [");
+                    out.write(entry.source);
+                    out.write("] ");
+                    out.write(entry.message);
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                // Nowhere left to report it
+            }
+            batch.clear();
+        }
+    }
+}
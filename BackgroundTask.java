@@ -0,0 +1,115 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Runs long inventory work on a SwingWorker thread behind a small modal
+ * progress dialog, so the window keeps painting while it runs. Only the final
+ * result is handed back to the event dispatch thread.
+ *
+ * The work reports progress through progress(fraction) and, if cancellable,
+ * polls isCancelRequested() and stops early; the dialog stays up until it does,
+ * so partial results are never published while the work is still running.
+ */
+public class BackgroundTask<T> extends SwingWorker<T, Void> {
+
+    /**
+     * The work to run off the event dispatch thread.
+     */
+    public interface Work<T> {
+        T run(BackgroundTask<T> task) throws Exception;
+    }
+
+    private final Work<T> work;
+    private final Consumer<T> onDone;
+    private final JDialog dialog;
+    private volatile boolean cancelRequested;
+
+    private BackgroundTask(Window parent, String title, boolean cancellable, Work<T> work, Consumer<T> onDone) {
+        this.work = work;
+        this.onDone = onDone;
+
+        dialog = new JDialog(parent, title, Dialog.ModalityType.APPLICATION_MODAL);
+        dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        dialog.setLayout(new BorderLayout(10, 10));
+
+        JLabel label = new JLabel(title + "...");
+        label.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+        JProgressBar bar = new JProgressBar(0, 100);
+        bar.setIndeterminate(true);
+        bar.setStringPainted(false);
+        dialog.add(label, BorderLayout.NORTH);
+        dialog.add(bar, BorderLayout.CENTER);
+
+        if (cancellable) {
+            JButton cancelButton = new JButton("Cancel");
+            cancelButton.addActionListener(e -> {
+                cancelRequested = true;
+                cancelButton.setEnabled(false);
+                label.setText("Cancelling...");
+            });
+            dialog.add(cancelButton, BorderLayout.SOUTH);
+        }
+
+        addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                bar.setIndeterminate(false);
+                bar.setStringPainted(true);
+                bar.setValue((Integer) e.getNewValue());
+            }
+        });
+
+        dialog.setSize(320, cancellable ? 130 : 100);
+        dialog.setLocationRelativeTo(parent);
+    }
+
+    /**
+     * Starts the work and blocks, inside the dialog's event loop, until it has finished
+     * and onDone has run. Must be called on the event dispatch thread.
+     *
+     * @param parent      window to centre the progress dialog on; may be null.
+     * @param title       what is being done, e.g. "Importing cards".
+     * @param cancellable whether to show a Cancel button.
+     * @param work        the work; runs on a background thread.
+     * @param onDone      receives the result on the event dispatch thread; not called if the work threw.
+     */
+    public static <T> void run(Window parent, String title, boolean cancellable, Work<T> work, Consumer<T> onDone) {
+        BackgroundTask<T> task = new BackgroundTask<>(parent, title, cancellable, work, onDone);
+        task.execute();
+        // done() cannot run before the modal loop starts, since it is queued on this thread
+        task.dialog.setVisible(true);
+    }
+
+    /**
+     * Reports how far the work has got.
+     *
+     * @param fraction from 0 to 1.
+     */
+    public void progress(double fraction) {
+        setProgress((int) Math.max(0, Math.min(100, fraction * 100)));
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    @Override
+    protected T doInBackground() throws Exception {
+        return work.run(this);
+    }
+
+    @Override
+    protected void done() {
+        dialog.dispose();
+        try {
+            onDone.accept(get());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            JOptionPane.showMessageDialog(dialog.getOwner(), dialog.getTitle() + " failed: " + cause.getMessage(),
+                    dialog.getTitle(), JOptionPane.ERROR_MESSAGE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a script of inventory commands without menus, for nightly jobs:
+ * java Main --batch commands.txt (or --batch - to read standard input).
+ *
+ * One command per line; arguments are separated by spaces and may be
+ * double-quoted, with "" for a quote. Blank lines and lines starting with #
+ * are skipped. Money is in dollars, e.g. 12.50.
+ * <pre>
+ * add-card NAME RARITY VARIANT BASE_VALUE     add-copy NAME
+ * set-count NAME COUNT                        sell-card NAME
+ * locate NAME                                 import FILE
+ * money
+ * create-binder NAME TYPE                     delete-binder NAME
+ * move-to-binder CARD BINDER                  return-from-binder BINDER CARD
+ * trade BINDER OUTGOING NAME RARITY VARIANT BASE_VALUE [confirm]
+ * sell-binder NAME [PRICE]
+ * create-deck NAME TYPE                       delete-deck NAME
+ * move-to-deck CARD DECK                      return-from-deck DECK CARD
+ * sell-deck NAME                              save
+ * </pre>
+ * Each command's result is written to a buffered output, failures marked with
+ * the line number. At the end a table shows, per command, how often it ran,
+ * how often it failed and the time it took.
+ */
+public class BatchRunner {
+
+    private final InventoryService service;
+    private final PrintWriter out;
+    private final LinkedHashMap<String, Timing> timings = new LinkedHashMap<>();
+    private int failures;
+
+    /**
+     * Time spent on one kind of command.
+     */
+    private static final class Timing {
+        long runs;
+        long failed;
+        long totalNanos;
+        long maxNanos;
+
+        void add(long nanos, boolean ok) {
+            runs++;
+            if (!ok) failed++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+    }
+
+    public BatchRunner(InventoryService service, PrintWriter out) {
+        this.service = service;
+        this.out = out;
+    }
+
+    /**
+     * Runs a script file, or standard input for "-", against the saved inventory and saves it at the end.
+     *
+     * @return the process exit code: 0 if every command succeeded, 1 if any failed, 2 if the script could not be read.
+     */
+    public static int runScript(String script) {
+        Diagnostics.quietUnlessConfigured();
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16), false);
+        InventoryService service = InventoryService.openDefault();
+        for (String warning : service.getStartupWarnings()) {
+            out.println("Warning: " + warning);
+        }
+
+        BatchRunner runner = new BatchRunner(service, out);
+        int code;
+        try (BufferedReader in = "-".equals(script)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+            runner.run(in);
+            code = runner.failures > 0 ? 1 : 0;
+        } catch (IOException | InvalidPathException e) {
+            out.println("Could not read script " + script + ": " + e.getMessage());
+            code = 2;
+        }
+
+        OperationResult saved = service.save();
+        if (!saved.isSuccess()) {
+            out.println(saved);
+            code = Math.max(code, 1);
+        }
+        OperationResult closed = service.close();
+        if (!closed.isSuccess()) {
+            out.println(closed);
+        }
+        runner.printSummary();
+        out.flush();
+        return code;
+    }
+
+    /**
+     * Runs every command read from in.
+     */
+    public void run(BufferedReader in) throws IOException {
+        long start = System.nanoTime();
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+
+            List<String> args = tokenize(trimmed);
+            String command = args.get(0).toLowerCase();
+            long begin = System.nanoTime();
+            OperationResult result;
+            try {
+                result = execute(command, args);
+            } catch (IllegalArgumentException e) {
+                result = OperationResult.failed(e.getMessage());
+            }
+            long nanos = System.nanoTime() - begin;
+
+            boolean ok = result.isSuccess();
+            timings.computeIfAbsent(command, c -> new Timing()).add(nanos, ok);
+            if (ok) {
+                out.println(result.getMessage());
+            } else {
+                failures++;
+                out.println("line " + lineNumber + ": FAILED " + command + ": " + result.getMessage());
+            }
+        }
+        timings.computeIfAbsent("(script)", c -> new Timing()).add(System.nanoTime() - start, true);
+    }
+
+    private OperationResult execute(String command, List<String> a) {
+        switch (command) {
+            case "add-card":
+                expect(a, 5);
+                return service.addCard(a.get(1), a.get(2), a.get(3), dollars(a.get(4)));
+            case "add-copy":
+                expect(a, 2);
+                return service.addCopy(a.get(1));
+            case "set-count":
+                expect(a, 3);
+                return service.setCardCount(a.get(1), integer(a.get(2)));
+            case "sell-card":
+                expect(a, 2);
+                return service.sellCard(a.get(1));
+            case "locate":
+                expect(a, 2);
+                return service.locateCard(a.get(1));
+            case "import":
+                expect(a, 2);
+                return service.importCards(Paths.get(a.get(1)));
+            case "money":
+                expect(a, 1);
+                return OperationResult.ok("Total money: $" + Money.format(service.getMoneyCents()),
+                        service.getMoneyCents());
+            case "create-binder":
+                expect(a, 3);
+                return service.createBinder(a.get(1), a.get(2));
+            case "delete-binder":
+                expect(a, 2);
+                return service.deleteBinder(a.get(1));
+            case "move-to-binder":
+                expect(a, 3);
+                return service.moveToBinder(a.get(1), a.get(2));
+            case "return-from-binder":
+                expect(a, 3);
+                return service.returnFromBinder(a.get(1), a.get(2));
+            case "trade": {
+                if (a.size() != 7 && a.size() != 8) {
+                    throw new IllegalArgumentException("Usage: trade BINDER OUTGOING NAME RARITY VARIANT BASE_VALUE [confirm]");
+                }
+                boolean confirmed = a.size() == 8 && "confirm".equalsIgnoreCase(a.get(7));
+                OperationResult result = service.trade(a.get(1), a.get(2), a.get(3), a.get(4), a.get(5),
+                        dollars(a.get(6)), confirmed);
+                return result.needsConfirmation()
+                        ? OperationResult.failed(result.getMessage() + " Add 'confirm' to accept.") : result;
+            }
+            case "sell-binder":
+                if (a.size() != 2 && a.size() != 3) {
+                    throw new IllegalArgumentException("Usage: sell-binder NAME [PRICE]");
+                }
+                return service.sellBinder(a.get(1), a.size() == 3 ? dollars(a.get(2)) : -1);
+            case "create-deck":
+                expect(a, 3);
+                return service.createDeck(a.get(1), a.get(2));
+            case "delete-deck":
+                expect(a, 2);
+                return service.deleteDeck(a.get(1));
+            case "move-to-deck":
+                expect(a, 3);
+                return service.moveToDeck(a.get(1), a.get(2));
+            case "return-from-deck":
+                expect(a, 3);
+                return service.returnFromDeck(a.get(1), a.get(2));
+            case "sell-deck":
+                expect(a, 2);
+                return service.sellDeck(a.get(1));
+            case "save":
+                expect(a, 1);
+                return service.save();
+            default:
+                throw new IllegalArgumentException("Unknown command.");
+        }
+    }
+
+    /**
+     * Prints the per-command timing table, slowest total first.
+     */
+    public void printSummary() {
+        ArrayList<Map.Entry<String, Timing>> rows = new ArrayList<>(timings.entrySet());
+        rows.sort((x, y) -> Long.compare(y.getValue().totalNanos, x.getValue().totalNanos));
+        out.println();
+        out.printf("%-20s %8s %8s %12s %12s %12s%n", "Command", "Runs", "Failed", "Total ms", "Mean us", "Max us");
+        for (Map.Entry<String, Timing> row : rows) {
+            Timing t = row.getValue();
+            out.printf("%-20s %8d %8d %12.2f %12.1f %12.1f%n", row.getKey(), t.runs, t.failed,
+                    t.totalNanos / 1e6, t.totalNanos / 1e3 / t.runs, t.maxNanos / 1e3);
+        }
+        out.println(failures == 0 ? "All commands succeeded." : failures + " command(s) failed.");
+    }
+
+    private static void expect(List<String> args, int size) {
+        if (args.size() != size) {
+            throw new IllegalArgumentException("Expected " + (size - 1) + " argument(s) but found " + (args.size() - 1) + ".");
+        }
+    }
+
+    private static long dollars(String text) {
+        try {
+            return Money.parse(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+    }
+
+    private static int integer(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + text);
+        }
+    }
+
+    /**
+     * Splits a line at spaces, keeping double-quoted arguments together.
+     */
+    static List<String> tokenize(String line) {
+        ArrayList<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        token.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+}
@@ -1,13 +1,37 @@
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Scanner;
-
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A named set of up to MAX_CARDS cards taken out of the collection.
+ * Mutators and getters synchronize on the binder, so the capacity and
+ * restriction checks of addCard hold when several clerks fill one binder;
+ * hold the binder's monitor to make several calls as one step.
+ * Each copy is its own Card sharing the catalog's CardDefinition, since the
+ * capacity counts copies and moves take out one particular copy.
+ */
 public abstract class Binder {
     protected String name;
     protected ArrayList<Card> cards;
     protected final int MAX_CARDS = 20;
 
+    // The same cards in name order, kept in step with cards for listing
+    private final SortedCards byName = new SortedCards();
+
+    // Running totals over cards, updated on every add and remove
+    private long totalValueCents;
+    private final int[] rarityCounts = new int[Rarity.values().length];
+    private final int[] variantCounts = new int[Variant.values().length];
+
+    // Bumped on every change to the cards, so transactions can tell the binder changed under them
+    private long version;
+
+    // Set once the binder is deleted or sold; transactions that touch it are then rejected
+    private boolean removed;
+
+    // Where changes are reported; nowhere until the binder is part of an inventory
+    private volatile InventoryEvents events = InventoryEvents.NONE;
+
     public Binder(String name) {
         this.name = name;
         this.cards = new ArrayList<>();
@@ -16,365 +40,223 @@ public abstract class Binder {
     public abstract boolean canBeSold();
     public abstract boolean isCardAllowed(Card card);
     public abstract String getRestrictionMessage(Card card);
-    public abstract double calculateSellPrice();
+    public abstract long calculateSellPriceCents();
     public abstract boolean canTrade();
 
-    public boolean addCard(Card newCard) {
-        if (cards.size() >= MAX_CARDS) {
-            System.out.println("Binder is full. Cannot add more cards.");
-            return false;
-        }
-        if (!isCardAllowed(newCard)) {
-            System.out.println(getRestrictionMessage(newCard));
-            return false;
-        }
-        cards.add(newCard);
-        return true;
+    /**
+     * @return mask of the rarities isCardAllowed may accept, by ordinal; used to
+     *         narrow down candidates through the collection's bitmap indexes.
+     */
+    public int allowedRarities() {
+        return CardBitmaps.ALL;
     }
 
-    public Card removeCardByName(String cardName) {
-        for (int i = 0; i < cards.size(); i++) {
-            if (cards.get(i).getName().equalsIgnoreCase(cardName)) {
-                return cards.remove(i);
-            }
-        }
-        return null;
+    /**
+     * @return mask of the variants isCardAllowed may accept, by ordinal; see allowedRarities().
+     */
+    public int allowedVariants() {
+        return CardBitmaps.ALL;
     }
 
-    public boolean removeCard(Card card) {
-        return this.cards.remove(card);
+    /**
+     * @return the sell price in dollars; see calculateSellPriceCents().
+     */
+    public double calculateSellPrice() {
+        return Money.toDollars(calculateSellPriceCents());
     }
 
-    public ArrayList<Card> returnAllCards() {
-        ArrayList<Card> temp = new ArrayList<>(cards);
-        cards.clear();
-        return temp;
+    /**
+     * @return the sum of the actual values of the cards in this binder, in cents.
+     */
+    public synchronized long getTotalValueCents() {
+        return totalValueCents;
     }
 
-    public ArrayList<Card> getCards() {
-        return new ArrayList<>(cards);
+    /**
+     * @return a number that changes whenever a card is added to or removed from this binder.
+     */
+    public synchronized long getVersion() {
+        return version;
     }
 
-    public int getCardCount() {
-        return cards.size();
+    /**
+     * Reports this binder's changes to an inventory's events, e.g. when a service takes it over.
+     */
+    void attachTo(InventoryEvents events) {
+        this.events = events;
     }
 
-    public String getName() {
-        return this.name;
+    InventoryEvents getEvents() {
+        return events;
     }
 
-    public void setName(String name) {
-        this.name = name;
+    /**
+     * Marks the binder as deleted or sold and bumps its version. Done under the
+     * binder's monitor, so it never falls between a transaction's checks and
+     * its changes.
+     */
+    synchronized void markRemoved() {
+        removed = true;
+        version++;
     }
 
-    public void viewBinder() {
-        System.out.println("---- Binder: " + name + " ----");
-        ArrayList<Card> sorted = new ArrayList<>(cards);
-        Collections.sort(sorted, Comparator.comparing(Card::getName, String.CASE_INSENSITIVE_ORDER));
-
-        double totalValue = 0;
-        for (int i = 0; i < sorted.size(); i++) {
-            Card card = sorted.get(i);
-            System.out.println("[" + (i + 1) + "] " + card.getName());
-            System.out.println("Rarity:  " + card.getRarity());
-            System.out.println("Variant: " + card.getVariant());
-            System.out.println("Value:   $" + String.format("%.2f", card.getActualValue()));
-            System.out.println();
-            totalValue += card.getActualValue();
-        }
-
-        if (sorted.isEmpty()) {
-            System.out.println("This binder is currently empty.");
-        } else {
-            System.out.println("Total binder value: $" + String.format("%.2f", totalValue));
-        }
+    /**
+     * @return true once the binder has been deleted or sold.
+     */
+    public synchronized boolean isRemoved() {
+        return removed;
     }
 
-    public static void openBinderMenu(ArrayList<Binder> binders, ArrayList<Card> collection, Collector collector, Scanner scanner) {
-        boolean inBinders = true;
-
-        while (inBinders) {
-            System.out.println("\n--- Binders Menu ---");
-            System.out.println("1. Create a binder");
-            System.out.println("2. Manage a binder");
-            System.out.println("3. Delete a binder");
-            System.out.println("4. Trade a card");
-            System.out.println("5. Sell a binder");
-            System.out.println("6. Go back");
-            System.out.print("Choose an option: ");
-
-            String input = scanner.nextLine().trim();
-
-            switch (input) {
-                case "1":
-                    createBinder(binders, scanner);
-                    break;
-                case "2":
-                    manageBinder(binders, collection, scanner);
-                    break;
-                case "3":
-                    deleteBinder(binders, collection, scanner);
-                    break;
-                case "4":
-                    tradeCard(binders, collection, scanner);
-                    break;
-                case "5":
-                    sellBinder(binders, collector, scanner);
-                    break;
-                case "6":
-                    inBinders = false;
-                    break;
-                default:
-                    System.out.println("Invalid option.");
-            }
-        }
+    /**
+     * @return how many cards in this binder have the given rarity.
+     */
+    public synchronized int getRarityCount(Rarity rarity) {
+        return rarityCounts[rarity.ordinal()];
     }
 
-    private static void createBinder(ArrayList<Binder> binders, Scanner scanner) {
-        System.out.print("Enter binder name: ");
-        String name = scanner.nextLine().trim();
-
-        if (findBinder(binders, name) != null) {
-            System.out.println("Binder with that name already exists.");
-            return;
-        }
+    /**
+     * @return how many cards in this binder have the given variant.
+     */
+    public synchronized int getVariantCount(Variant variant) {
+        return variantCounts[variant.ordinal()];
+    }
 
-        System.out.println("Choose binder type:");
-        System.out.println("1. Non-Curated Binder");
-        System.out.println("2. Pauper Binder");
-        System.out.println("3. Rares Binder");
-        System.out.println("4. Luxury Binder");
-        System.out.println("5. Collector Binder");
-        System.out.print("Enter option: ");
-        String typeInput = scanner.nextLine().trim();
-
-        Binder newBinder = null;
-        switch (typeInput) {
-            case "1": newBinder = new NonCuratedBinder(name); break;
-            case "2": newBinder = new PauperBinder(name); break;
-            case "3": newBinder = new RaresBinder(name); break;
-            case "4": newBinder = new LuxuryBinder(name); break;
-            case "5": newBinder = new CollectorBinder(name); break;
-            default:
-                System.out.println("Invalid binder type.");
-                return;
+    /**
+     * Adds a card to the running totals, or takes it out when sign is -1.
+     */
+    private void track(Card card, int sign) {
+        version++;
+        if (sign > 0) {
+            byName.add(card);
+        } else {
+            byName.remove(card);
         }
-
-        binders.add(newBinder);
-        System.out.println(newBinder.getClass().getSimpleName() + " created.");
+        totalValueCents += sign * card.getActualValueCents();
+        rarityCounts[card.getRarityType().ordinal()] += sign;
+        variantCounts[card.getVariantType().ordinal()] += sign;
     }
 
-    private static void manageBinder(ArrayList<Binder> binders, ArrayList<Card> collection, Scanner scanner) {
-        if (binders.isEmpty()) {
-            System.out.println("No binders available.");
-            return;
+    public synchronized boolean addCard(Card newCard) {
+        BinderAddEvent event = new BinderAddEvent();
+        event.begin();
+        boolean added = !isFull() && isCardAllowed(newCard);
+        if (added) {
+            cards.add(newCard);
+            track(newCard, 1);
+            events.binderCardAdded(this, newCard);
+        } else if (Diagnostics.isEnabled(DiagnosticSink.Level.DEBUG)) {
+            Diagnostics.debug("Binder", "'" + name + "' refused '" + newCard.getName() + "': "
+                    + (isFull() ? "binder is full" : getRestrictionMessage(newCard)));
         }
-
-        Binder binder = selectBinderFromList(binders, scanner);
-        if (binder == null) return;
-
-        boolean managing = true;
-        while (managing) {
-            System.out.println("\n--- Managing Binder: " + binder.getName() + " ---");
-            System.out.println("1. Add card");
-            System.out.println("2. Remove card");
-            System.out.println("3. View binder");
-            System.out.println("4. Go back");
-            System.out.print("Choose an option: ");
-            String input = scanner.nextLine().trim();
-
-            switch (input) {
-                case "1":
-                    ArrayList<Card> available = new ArrayList<>();
-                    for (Card c : collection) {
-                        if (c.getCount() > 0) available.add(c);
-                    }
-
-                    if (available.isEmpty()) {
-                        System.out.println("No cards to add.");
-                        break;
-                    }
-
-                    for (int i = 0; i < available.size(); i++) {
-                        Card c = available.get(i);
-                        System.out.println((i + 1) + ". " + c.getName() + " (Count: " + c.getCount() + ")");
-                    }
-                    System.out.print("Enter card number to add: ");
-                    try {
-                        int index = Integer.parseInt(scanner.nextLine().trim()) - 1;
-                        if (index >= 0 && index < available.size()) {
-                            Card selected = available.get(index);
-                            if (binder.addCard(selected)) {
-                                selected.decreaseCount();
-                                System.out.println("Card added.");
-                            }
-                        } else {
-                            System.out.println("Invalid number.");
-                        }
-                    } catch (NumberFormatException e) {
-                        System.out.println("Invalid input.");
-                    }
-                    break;
-
-                case "2":
-                    ArrayList<Card> cards = binder.getCards();
-                    if (cards.isEmpty()) {
-                        System.out.println("Binder is empty.");
-                        break;
-                    }
-
-                    for (int i = 0; i < cards.size(); i++) {
-                        System.out.println((i + 1) + ". " + cards.get(i).getName());
-                    }
-                    System.out.print("Enter number to remove: ");
-                    try {
-                        int index = Integer.parseInt(scanner.nextLine().trim()) - 1;
-                        if (index >= 0 && index < cards.size()) {
-                            Card removed = cards.get(index);
-                            binder.removeCard(removed);
-                            Card existing = findCard(collection, removed.getName());
-                            if (existing != null) existing.increaseCount();
-                            else collection.add(removed);
-                            System.out.println("Card returned to collection.");
-                        } else {
-                            System.out.println("Invalid number.");
-                        }
-                    } catch (NumberFormatException e) {
-                        System.out.println("Invalid input.");
-                    }
-                    break;
-
-                case "3":
-                    binder.viewBinder();
-                    break;
-
-                case "4":
-                    managing = false;
-                    break;
-
-                default:
-                    System.out.println("Invalid option.");
-            }
+        if (event.shouldCommit()) {
+            event.binder = name;
+            event.cardName = newCard.getName();
+            event.valueDeltaCents = added ? newCard.getActualValueCents() : 0;
+            event.added = added;
+            event.commit();
         }
+        return added;
     }
 
-    private static void deleteBinder(ArrayList<Binder> binders, ArrayList<Card> collection, Scanner scanner) {
-        Binder binder = selectBinderFromList(binders, scanner);
-        if (binder == null) return;
-
-        ArrayList<Card> returned = binder.returnAllCards();
-        for (Card card : returned) {
-            Card existing = findCard(collection, card.getName());
-            if (existing != null) existing.increaseCount();
-            else collection.add(card);
-        }
-
-        binders.remove(binder);
-        System.out.println("Binder deleted and cards returned to collection.");
+    /**
+     * Puts a card back into the binder without the capacity and restriction checks,
+     * e.g. when loading a snapshot.
+     */
+    synchronized void restoreCard(Card card) {
+        cards.add(card);
+        track(card, 1);
     }
 
-    private static void tradeCard(ArrayList<Binder> binders, ArrayList<Card> collection, Scanner scanner) {
-        ArrayList<Binder> tradeableBinders = new ArrayList<>();
-        for (Binder b : binders) {
-            if (b.canTrade()) {
-                tradeableBinders.add(b);
+    public synchronized Card removeCardByName(String cardName) {
+        for (int i = 0; i < cards.size(); i++) {
+            if (cards.get(i).getName().equalsIgnoreCase(cardName)) {
+                Card removed = cards.remove(i);
+                track(removed, -1);
+                events.binderCardRemoved(this, removed);
+                return removed;
             }
         }
+        return null;
+    }
 
-        if (tradeableBinders.isEmpty()) {
-            System.out.println("No binders support trading.");
-            return;
-        }
-
-        System.out.println("Select a binder to trade from:");
-        for (int i = 0; i < tradeableBinders.size(); i++) {
-            System.out.println((i + 1) + ". " + tradeableBinders.get(i).getName());
+    public synchronized boolean removeCard(Card card) {
+        if (!this.cards.remove(card)) {
+            return false;
         }
+        track(card, -1);
+        events.binderCardRemoved(this, card);
+        return true;
+    }
 
-        System.out.print("Enter binder number: ");
-        try {
-            int index = Integer.parseInt(scanner.nextLine().trim()) - 1;
-            if (index >= 0 && index < tradeableBinders.size()) {
-                Binder selected = tradeableBinders.get(index);
-                TradeManager.initiateTrade(selected, collection, scanner);
-            } else {
-                System.out.println("Invalid selection.");
-            }
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid input.");
+    public synchronized ArrayList<Card> returnAllCards() {
+        ArrayList<Card> temp = new ArrayList<>(cards);
+        cards.clear();
+        byName.clear();
+        version++;
+        totalValueCents = 0;
+        Arrays.fill(rarityCounts, 0);
+        Arrays.fill(variantCounts, 0);
+        for (Card card : temp) {
+            events.binderCardRemoved(this, card);
         }
+        return temp;
     }
 
-    private static void sellBinder(ArrayList<Binder> binders, Collector collector, Scanner scanner) {
-        Binder binder = selectBinderFromList(binders, scanner);
-        if (binder == null) return;
+    public synchronized ArrayList<Card> getCards() {
+        return new ArrayList<>(cards);
+    }
 
-        if (!binder.canBeSold()) {
-            System.out.println("This binder cannot be sold.");
-            return;
-        }
+    /**
+     * @return the cards in this binder ordered by name, ignoring case; a copy of a
+     *         view kept sorted as cards come and go, so nothing is sorted here.
+     */
+    public synchronized ArrayList<Card> getCardsByName() {
+        return byName.toList();
+    }
 
-        if (binder instanceof LuxuryBinder) {
-            LuxuryBinder luxury = (LuxuryBinder) binder;
-            System.out.print("Enter custom sell price (must be ≥ total value): ");
-            try {
-                double price = Double.parseDouble(scanner.nextLine().trim());
-                boolean success = luxury.setCustomPrice(price);
-                if (!success) {
-                    System.out.println("Sale cancelled due to invalid custom price.");
-                    return;
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid price. Sale cancelled.");
-                return;
-            }
+    /**
+     * @return the first card in this binder with the given name, ignoring case, or null.
+     */
+    public synchronized Card findCard(String cardName) {
+        for (Card card : cards) {
+            if (card.getName().equalsIgnoreCase(cardName)) return card;
         }
+        return null;
+    }
 
-        double salePrice = binder.calculateSellPrice();
-        collector.addMoney(salePrice);
-        binders.remove(binder);
-        System.out.println("Binder sold for $" + String.format("%.2f", salePrice));
+    public synchronized boolean isFull() {
+        return cards.size() >= MAX_CARDS;
     }
 
-    private static Binder selectBinderFromList(ArrayList<Binder> binders, Scanner scanner) {
-        if (binders.isEmpty()) {
-            System.out.println("No binders available.");
-            return null;
-        }
+    public synchronized int getCardCount() {
+        return cards.size();
+    }
 
-        for (int i = 0; i < binders.size(); i++) {
-            System.out.println((i + 1) + ". " + binders.get(i).getName());
-        }
+    public String getName() {
+        return this.name;
+    }
 
-        System.out.print("Enter binder number: ");
-        try {
-            int index = Integer.parseInt(scanner.nextLine().trim()) - 1;
-            if (index >= 0 && index < binders.size()) {
-                return binders.get(index);
-            } else {
-                System.out.println("Invalid selection.");
-            }
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid input.");
-        }
-        return null;
+    public void setName(String name) {
+        this.name = name;
     }
 
-    private static Card findCard(ArrayList<Card> collection, String name) {
-        for (Card c : collection) {
-            if (c.getName().equalsIgnoreCase(name)) {
-                return c;
-            }
+    public synchronized void viewBinder() {
+        System.out.println("---- Binder: " + name + " ----");
+        ArrayList<Card> sorted = byName.toList();
+
+        for (int i = 0; i < sorted.size(); i++) {
+            Card card = sorted.get(i);
+            System.out.println("[" + (i + 1) + "] " + card.getName());
+            System.out.println("Rarity:  " + card.getRarity());
+            System.out.println("Variant: " + card.getVariant());
+            System.out.println("Value:   $" + Money.format(card.getActualValueCents()));
+            System.out.println();
         }
-        return null;
-    }
 
-    private static Binder findBinder(ArrayList<Binder> binders, String name) {
-        for (Binder b : binders) {
-            if (b.getName().equalsIgnoreCase(name)) {
-                return b;
-            }
+        if (sorted.isEmpty()) {
+            System.out.println("This binder is currently empty.");
+        } else {
+            System.out.println("Total binder value: $" + Money.format(totalValueCents));
         }
-        return null;
     }
 }
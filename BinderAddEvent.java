@@ -0,0 +1,32 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for Binder.addCard, spanning the checks and the update
+ * of the binder's totals; time spent waiting for the binder's lock shows up as
+ * the JDK's own monitor events. See TradeEvent for how the cost is kept near zero
+ * when no recording is running.
+ */
+@Name("tcis.BinderAdd")
+@Label("Binder Card Added")
+@Category("Trading Card Inventory")
+@Description("A card put into a binder, or refused by it")
+@StackTrace(false)
+public class BinderAddEvent extends jdk.jfr.Event {
+
+    @Label("Binder")
+    String binder;
+
+    @Label("Card")
+    String cardName;
+
+    @Label("Value Delta (cents)")
+    @Description("Change in the binder's total card value")
+    long valueDeltaCents;
+
+    @Label("Added")
+    boolean added;
+}
@@ -1,24 +1,22 @@
 import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.List;
 
 public class BinderGUI extends JDialog {
-    private final ArrayList<Binder> binders;
-    private final Collector collector;
+    private final InventoryService service;
     private final Runnable onBinderChanged;
 
-    public BinderGUI(JFrame parent, ArrayList<Binder> binders, Collector collector, Runnable onBinderChanged) {
+    public BinderGUI(JFrame parent, InventoryService service, Runnable onBinderChanged) {
         super(parent, "Manage Binders", true);
-        this.binders = binders;
-        this.collector = collector;
+        this.service = service;
         this.onBinderChanged = onBinderChanged;
 
         setSize(500, 400);
         setLocationRelativeTo(parent);
         setLayout(new GridLayout(6, 1, 10, 10));
 
-        addButton("Create Binder", () -> showCreateBinderDialog(this, binders, onBinderChanged));
+        addButton("Create Binder", () -> showCreateBinderDialog(this, service, onBinderChanged));
         addButton("Manage Binder", this::manageBinder);
         addButton("Delete Binder", this::deleteBinder);
         addButton("Trade Card", this::tradeCard);
@@ -32,20 +30,18 @@ public class BinderGUI extends JDialog {
         add(button);
     }
 
-    public static void showBinderMenu(JFrame parent, ArrayList<Binder> binders, Collector collector, Runnable onBinderChanged) {
-        BinderGUI dialog = new BinderGUI(parent, binders, collector, onBinderChanged);
+    public static void showBinderMenu(JFrame parent, InventoryService service, Runnable onBinderChanged) {
+        BinderGUI dialog = new BinderGUI(parent, service, onBinderChanged);
         dialog.setVisible(true);
     }
 
-    public static void showCreateBinderDialog(Component parent, ArrayList<Binder> binders, Runnable onBinderChanged) {
+    public static void showCreateBinderDialog(Component parent, InventoryService service, Runnable onBinderChanged) {
         String name = JOptionPane.showInputDialog(parent, "Enter binder name:");
         if (name == null || name.trim().isEmpty()) return;
 
-        for (Binder b : binders) {
-            if (b.getName().equalsIgnoreCase(name)) {
-                JOptionPane.showMessageDialog(parent, "Binder with that name already exists.");
-                return;
-            }
+        if (service.findBinder(name.trim()) != null) {
+            JOptionPane.showMessageDialog(parent, "Binder with that name already exists.");
+            return;
         }
 
         String[] types = {"Non-Curated Binder", "Pauper Binder", "Rares Binder", "Luxury Binder", "Collector Binder"};
@@ -53,25 +49,20 @@ public class BinderGUI extends JDialog {
                 JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE,
                 null, types, types[0]);
 
-        Binder newBinder = switch (choice) {
-            case 0 -> new NonCuratedBinder(name);
-            case 1 -> new PauperBinder(name);
-            case 2 -> new RaresBinder(name);
-            case 3 -> new LuxuryBinder(name);
-            case 4 -> new CollectorBinder(name);
-            default -> null;
-        };
-
-        if (newBinder != null) {
-            binders.add(newBinder);
-            JOptionPane.showMessageDialog(parent, newBinder.getClass().getSimpleName() + " created.");
-            if (onBinderChanged != null) {
-                onBinderChanged.run(); 
-            }
+        if (choice < 0) return;
+
+        OperationResult result = service.createBinder(name, InventoryService.BINDER_TYPES[choice]);
+        JOptionPane.showMessageDialog(parent, result.getMessage());
+        if (result.isSuccess() && onBinderChanged != null) {
+            onBinderChanged.run();
         }
     }
 
     private Binder selectBinder() {
+        return selectBinder(service.getBinders(), "Select Binder");
+    }
+
+    private Binder selectBinder(List<Binder> binders, String title) {
         if (binders.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No binders available.");
             return null;
@@ -79,33 +70,25 @@ public class BinderGUI extends JDialog {
 
         String[] binderNames = binders.stream().map(Binder::getName).toArray(String[]::new);
         String selected = (String) JOptionPane.showInputDialog(this, "Select a binder:",
-                "Select Binder", JOptionPane.PLAIN_MESSAGE, null, binderNames, binderNames[0]);
+                title, JOptionPane.PLAIN_MESSAGE, null, binderNames, binderNames[0]);
 
         if (selected == null) return null;
 
-        return binders.stream().filter(b -> b.getName().equalsIgnoreCase(selected)).findFirst().orElse(null);
+        return service.findBinder(selected);
     }
 
     private void manageBinder() {
         Binder binder = selectBinder();
         if (binder == null) return;
 
-        new ManageBinderGUI(this, binder, collector.getCollection().getCards());
+        new ManageBinderGUI(this, service, binder);
     }
 
     private void deleteBinder() {
         Binder binder = selectBinder();
         if (binder == null) return;
 
-        ArrayList<Card> returned = binder.returnAllCards();
-        for (Card card : returned) {
-            Card existing = collector.getCollection().findCardByName(card.getName());
-            if (existing != null) existing.increaseCount();
-            else collector.getCollection().getCards().add(card);
-        }
-
-        binders.remove(binder);
-        JOptionPane.showMessageDialog(this, "Binder deleted and cards returned to collection.");
+        JOptionPane.showMessageDialog(this, service.deleteBinder(binder.getName()).getMessage());
     }
 
     private void sellBinder() {
@@ -117,31 +100,26 @@ public class BinderGUI extends JDialog {
             return;
         }
 
+        long customPrice = -1;
         if (binder instanceof LuxuryBinder luxuryBinder) {
-            double baseValue = luxuryBinder.getCards().stream().mapToDouble(Card::getActualValue).sum();
+            long baseValue = luxuryBinder.getTotalValueCents();
             String priceStr = JOptionPane.showInputDialog(this,
-                    "Enter custom sell price (≥ $" + String.format("%.2f", baseValue) + "):");
+                    "Enter custom sell price (≥ $" + Money.format(baseValue) + "):");
+            if (priceStr == null) return;
             try {
-                double customPrice = Double.parseDouble(priceStr);
-                if (!luxuryBinder.setCustomPrice(customPrice)) {
-                    JOptionPane.showMessageDialog(this, "Invalid custom price.");
-                    return;
-                }
+                customPrice = Money.parse(priceStr);
             } catch (NumberFormatException e) {
                 JOptionPane.showMessageDialog(this, "Invalid input.");
                 return;
             }
         }
 
-        double price = binder.calculateSellPrice();
-        collector.addMoney(price);
-        binders.remove(binder);
-        JOptionPane.showMessageDialog(this, "Binder sold for $" + String.format("%.2f", price));
+        JOptionPane.showMessageDialog(this, service.sellBinder(binder.getName(), customPrice).getMessage());
     }
 
     private void tradeCard() {
         ArrayList<Binder> tradeables = new ArrayList<>();
-        for (Binder b : binders) {
+        for (Binder b : service.getBinders()) {
             if (b.canTrade()) tradeables.add(b);
         }
 
@@ -150,19 +128,9 @@ public class BinderGUI extends JDialog {
             return;
         }
 
-        String[] names = tradeables.stream().map(Binder::getName).toArray(String[]::new);
-        String selected = (String) JOptionPane.showInputDialog(this, "Select a binder:",
-                "Trade From", JOptionPane.PLAIN_MESSAGE, null, names, names[0]);
-
-        if (selected == null) return;
-
-        Binder chosen = tradeables.stream()
-                .filter(b -> b.getName().equalsIgnoreCase(selected))
-                .findFirst().orElse(null);
-
+        Binder chosen = selectBinder(tradeables, "Trade From");
         if (chosen != null) {
-            // Reuse console trade method temporarily
-            TradeManager.initiateTrade(chosen, collector.getCollection().getCards(), new Scanner(System.in));
+            new TradeGUI(this, service, chosen);
         }
     }
 }
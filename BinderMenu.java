@@ -0,0 +1,239 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Console menu for creating, managing, trading from and selling binders.
+ * All changes go through InventoryService; this class only reads input and prints results.
+ */
+public class BinderMenu {
+
+    /**
+     * Runs the binders menu until the user goes back.
+     *
+     * @param service the inventory to work on.
+     * @param scanner Scanner for user input.
+     */
+    public static void openBinderMenu(InventoryService service, Scanner scanner) {
+        boolean inBinders = true;
+
+        while (inBinders) {
+            System.out.println("\n--- Binders Menu ---");
+            System.out.println("1. Create a binder");
+            System.out.println("2. Manage a binder");
+            System.out.println("3. Delete a binder");
+            System.out.println("4. Trade a card");
+            System.out.println("5. Sell a binder");
+            System.out.println("6. Go back");
+            System.out.print("Choose an option: ");
+
+            String input = scanner.nextLine().trim();
+
+            switch (input) {
+                case "1":
+                    createBinder(service, scanner);
+                    break;
+                case "2":
+                    manageBinder(service, scanner);
+                    break;
+                case "3":
+                    deleteBinder(service, scanner);
+                    break;
+                case "4":
+                    tradeCard(service, scanner);
+                    break;
+                case "5":
+                    sellBinder(service, scanner);
+                    break;
+                case "6":
+                    inBinders = false;
+                    break;
+                default:
+                    System.out.println("Invalid option.");
+            }
+        }
+    }
+
+    private static void createBinder(InventoryService service, Scanner scanner) {
+        System.out.print("Enter binder name: ");
+        String name = scanner.nextLine().trim();
+
+        if (service.findBinder(name) != null) {
+            System.out.println("Binder with that name already exists.");
+            return;
+        }
+
+        System.out.println("Choose binder type:");
+        System.out.println("1. Non-Curated Binder");
+        System.out.println("2. Pauper Binder");
+        System.out.println("3. Rares Binder");
+        System.out.println("4. Luxury Binder");
+        System.out.println("5. Collector Binder");
+        System.out.print("Enter option: ");
+        String typeInput = scanner.nextLine().trim();
+
+        int type;
+        try {
+            type = Integer.parseInt(typeInput) - 1;
+        } catch (NumberFormatException e) {
+            type = -1;
+        }
+        if (type < 0 || type >= InventoryService.BINDER_TYPES.length) {
+            System.out.println("Invalid binder type.");
+            return;
+        }
+
+        System.out.println(service.createBinder(name, InventoryService.BINDER_TYPES[type]));
+    }
+
+    private static void manageBinder(InventoryService service, Scanner scanner) {
+        Binder binder = selectBinderFromList(service.getBinders(), scanner);
+        if (binder == null) return;
+
+        boolean managing = true;
+        while (managing) {
+            System.out.println("\n--- Managing Binder: " + binder.getName() + " ---");
+            System.out.println("1. Add card");
+            System.out.println("2. Remove card");
+            System.out.println("3. View binder");
+            System.out.println("4. Go back");
+            System.out.print("Choose an option: ");
+            String input = scanner.nextLine().trim();
+
+            switch (input) {
+                case "1":
+                    List<Card> available = service.getCollection().getCardsEligibleFor(binder);
+
+                    if (available.isEmpty()) {
+                        System.out.println("No cards in stock that this binder accepts.");
+                        break;
+                    }
+
+                    for (int i = 0; i < available.size(); i++) {
+                        Card c = available.get(i);
+                        System.out.println((i + 1) + ". " + c.getName() + " (Count: " + c.getCount() + ")");
+                    }
+                    System.out.print("Enter card number to add: ");
+                    try {
+                        int index = Integer.parseInt(scanner.nextLine().trim()) - 1;
+                        if (index >= 0 && index < available.size()) {
+                            System.out.println(service.moveToBinder(available.get(index).getName(), binder.getName()));
+                        } else {
+                            System.out.println("Invalid number.");
+                        }
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid input.");
+                    }
+                    break;
+
+                case "2":
+                    ArrayList<Card> cards = binder.getCards();
+                    if (cards.isEmpty()) {
+                        System.out.println("Binder is empty.");
+                        break;
+                    }
+
+                    for (int i = 0; i < cards.size(); i++) {
+                        System.out.println((i + 1) + ". " + cards.get(i).getName());
+                    }
+                    System.out.print("Enter number to remove: ");
+                    try {
+                        int index = Integer.parseInt(scanner.nextLine().trim()) - 1;
+                        if (index >= 0 && index < cards.size()) {
+                            System.out.println(service.returnFromBinder(binder.getName(), cards.get(index).getName()));
+                        } else {
+                            System.out.println("Invalid number.");
+                        }
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid input.");
+                    }
+                    break;
+
+                case "3":
+                    binder.viewBinder();
+                    break;
+
+                case "4":
+                    managing = false;
+                    break;
+
+                default:
+                    System.out.println("Invalid option.");
+            }
+        }
+    }
+
+    private static void deleteBinder(InventoryService service, Scanner scanner) {
+        Binder binder = selectBinderFromList(service.getBinders(), scanner);
+        if (binder == null) return;
+
+        System.out.println(service.deleteBinder(binder.getName()));
+    }
+
+    private static void tradeCard(InventoryService service, Scanner scanner) {
+        ArrayList<Binder> tradeableBinders = new ArrayList<>();
+        for (Binder b : service.getBinders()) {
+            if (b.canTrade()) {
+                tradeableBinders.add(b);
+            }
+        }
+
+        if (tradeableBinders.isEmpty()) {
+            System.out.println("No binders support trading.");
+            return;
+        }
+
+        System.out.println("Select a binder to trade from:");
+        Binder selected = selectBinderFromList(tradeableBinders, scanner);
+        if (selected != null) {
+            TradeManager.initiateTrade(service, selected, scanner);
+        }
+    }
+
+    private static void sellBinder(InventoryService service, Scanner scanner) {
+        Binder binder = selectBinderFromList(service.getBinders(), scanner);
+        if (binder == null) return;
+
+        if (!binder.canBeSold()) {
+            System.out.println("This binder cannot be sold.");
+            return;
+        }
+
+        long customPrice = -1;
+        if (binder instanceof LuxuryBinder) {
+            System.out.print("Enter custom sell price (must be ≥ total value): ");
+            try {
+                customPrice = Money.parse(scanner.nextLine());
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid price. Sale cancelled.");
+                return;
+            }
+        }
+
+        System.out.println(service.sellBinder(binder.getName(), customPrice));
+    }
+
+    private static Binder selectBinderFromList(List<Binder> binders, Scanner scanner) {
+        if (binders.isEmpty()) {
+            System.out.println("No binders available.");
+            return null;
+        }
+
+        for (int i = 0; i < binders.size(); i++) {
+            System.out.println((i + 1) + ". " + binders.get(i).getName());
+        }
+
+        System.out.print("Enter binder number: ");
+        try {
+            int index = Integer.parseInt(scanner.nextLine().trim()) - 1;
+            if (index >= 0 && index < binders.size()) {
+                return binders.get(index);
+            } else {
+                System.out.println("Invalid selection.");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid input.");
+        }
+        return null;
+    }
+}
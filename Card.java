@@ -1,128 +1,255 @@
+import java.util.concurrent.locks.Lock;
+
 /**
  * Represents a trading card with a name, rarity, variant, base value, and count.
  * Includes methods for value calculation, validation, and display formatting.
+ *
+ * The name, rarity, variant and values come from a shared CardDefinition, so
+ * a Card itself only adds the count; copies of one card in binders and decks
+ * cost a few fields each.
+ *
+ * Count changes are atomic, so clerks on several threads may take and return
+ * copies of the same card. A change and its event are made under the card
+ * name's lock, so listeners see the changes of one card in order.
  */
 public class Card {
 
-    private String name;
-    private String rarity;
-    private String variant;
-    private double baseValue;
+    private final CardDefinition definition;
     private int count;
 
-    private static final String[] VALID_RARITIES = {
-        "common", "uncommon", "rare", "legendary"
-    };
-
-    private static final String[] VALID_VARIANTS = {
-        "normal", "extended-art", "full-art", "alt-art"
-    };
+    // Set while the card is a row of a Collection's CardStore; the count then lives in the store
+    private volatile CardStore store;
+    private int row;
 
     public Card(String name, String rarity, String variant, double baseValue) {
-        rarity = rarity.toLowerCase();
-        variant = variant.toLowerCase();
+        this(name, parseRarity(rarity), parseVariant(variant), toCents(baseValue));
+    }
 
-        if (!isValidRarity(rarity)) {
-            throw new IllegalArgumentException("Invalid rarity: " + rarity);
-        }
+    /**
+     * Constructs a card with its base value given in cents.
+     */
+    public Card(String name, Rarity rarity, Variant variant, long baseValueCents) {
+        this(CardCatalog.intern(name, rarity, variant, baseValueCents), 1);
+    }
 
-        if (!isValidVariant(variant)) {
-            throw new IllegalArgumentException("Invalid variant: " + variant);
-        }
+    /**
+     * Constructs a card of a catalog definition, e.g. a copy of another card for a binder or deck.
+     */
+    public Card(CardDefinition definition, int count) {
+        this.definition = definition;
+        this.count = Math.max(0, count);
+    }
 
-        if (baseValue <= 0) {
+    /**
+     * Constructs the view of a CardStore row.
+     */
+    Card(CardStore store, int row) {
+        this.definition = store.getDefinition(row);
+        bind(store, row);
+    }
+
+    void bind(CardStore store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+
+    void moveTo(int row) {
+        this.row = row;
+    }
+
+    void unbind(int finalCount) {
+        this.count = finalCount;
+        this.store = null;
+    }
+
+    /**
+     * @return the store holding this card's count, or null if the card is not in a collection.
+     */
+    CardStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return the row this card is bound to in the given store, or -1 if it is not a row of it.
+     */
+    int rowIn(CardStore store) {
+        return this.store == store ? row : -1;
+    }
+
+    private static long toCents(double baseValue) {
+        if (!(baseValue > 0) || Double.isInfinite(baseValue)) {
             throw new IllegalArgumentException("Base value must be a positive number.");
         }
+        return Money.fromDollars(baseValue);
+    }
+
+    private static Rarity parseRarity(String rarity) {
+        Rarity parsed = Rarity.fromLabel(rarity);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Invalid rarity: " + rarity.toLowerCase());
+        }
+        return parsed;
+    }
 
-        this.name = name;
-        this.rarity = rarity;
-        this.variant = validateVariant(rarity, variant);
-        this.baseValue = baseValue;
-        this.count = 1;
+    private static Variant parseVariant(String variant) {
+        Variant parsed = Variant.fromLabel(variant);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Invalid variant: " + variant.toLowerCase());
+        }
+        return parsed;
     }
 
-    private String validateVariant(String rarity, String variant) {
-        if (rarity.equals("common") || rarity.equals("uncommon")) {
-            return "normal";
+    static Variant validateVariant(Rarity rarity, Variant variant) {
+        if (!rarity.isPremium()) {
+            return Variant.NORMAL;
         }
         return variant;
     }
 
     public static boolean isValidRarity(String rarity) {
-        for (String r : VALID_RARITIES) {
-            if (r.equals(rarity)) {
-                return true;
-            }
-        }
-        return false;
+        return Rarity.fromLabel(rarity) != null;
     }
 
     public static boolean isValidVariant(String variant) {
-        for (String v : VALID_VARIANTS) {
-            if (v.equals(variant)) {
-                return true;
-            }
-        }
-        return false;
+        return Variant.fromLabel(variant) != null;
+    }
+
+    /**
+     * @return the shared name, rarity, variant and values of this card.
+     */
+    public CardDefinition getDefinition() {
+        return definition;
     }
 
     public double getActualValue() {
-        switch (variant) {
-            case "extended-art":
-                return baseValue * 1.5;
-            case "full-art":
-                return baseValue * 2.0;
-            case "alt-art":
-                return baseValue * 3.0;
-            default:
-                return baseValue;
-        }
+        return Money.toDollars(getActualValueCents());
+    }
+
+    /**
+     * @return the actual value in cents; computed once when the card is created.
+     */
+    public long getActualValueCents() {
+        return definition.getActualValueCents();
     }
 
     public void increaseCount() {
-        count++;
+        addToCount(1);
     }
 
     public void decreaseCount() {
-        if (count > 0) {
-            count--;
+        tryDecreaseCount();
+    }
+
+    /**
+     * Takes one copy if there is one left, as a single atomic step.
+     *
+     * @return true if a copy was taken, false if the count was already zero.
+     */
+    public boolean tryDecreaseCount() {
+        return addToCount(-1) > 0;
+    }
+
+    /**
+     * @return the count before the change.
+     */
+    private int addToCount(int delta) {
+        CardStore s = store;
+        if (s != null) {
+            Lock stripe = s.stripeFor(definition.getName());
+            stripe.lock();
+            try {
+                int oldCount = s.addCount(this, delta);
+                if (oldCount >= 0) {
+                    int newCount = s.countOf(this);
+                    if (oldCount != newCount) {
+                        s.events().countChanged(this, oldCount, newCount);
+                    }
+                    return oldCount;
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+        // Not in a store, or removed from it just now
+        synchronized (this) {
+            int oldCount = count;
+            count = (int) Math.max(0, Math.min(Integer.MAX_VALUE, (long) oldCount + delta));
+            return oldCount;
         }
     }
 
     public void setCount(int newCount) {
-        this.count = Math.max(0, newCount);
+        newCount = Math.max(0, newCount);
+        CardStore s = store;
+        if (s != null) {
+            Lock stripe = s.stripeFor(definition.getName());
+            stripe.lock();
+            try {
+                int oldCount = s.exchangeCount(this, newCount);
+                if (oldCount >= 0) {
+                    if (oldCount != newCount) {
+                        s.events().countChanged(this, oldCount, newCount);
+                    }
+                    return;
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+        synchronized (this) {
+            this.count = newCount;
+        }
     }
 
     public int getCount() {
-        return count;
+        CardStore s = store;
+        if (s != null) {
+            int n = s.countOf(this);
+            if (n >= 0) return n;
+        }
+        synchronized (this) {
+            return count;
+        }
     }
 
     public String getName() {
-        return name;
+        return definition.getName();
     }
 
     public String getRarity() {
-        return rarity;
+        return definition.getRarity().getLabel();
     }
 
     public String getVariant() {
-        return variant;
+        return definition.getVariant().getLabel();
+    }
+
+    public Rarity getRarityType() {
+        return definition.getRarity();
+    }
+
+    public Variant getVariantType() {
+        return definition.getVariant();
     }
 
     public double getBaseValue() {
-        return baseValue;
+        return Money.toDollars(definition.getBaseValueCents());
+    }
+
+    public long getBaseValueCents() {
+        return definition.getBaseValueCents();
     }
 
     public void displayCardDetails() {
         String border = "+---------------------------+";
         System.out.println(border);
-        System.out.printf("| %-25s |\n", name.toUpperCase());
+        System.out.printf("| %-25s |\n", getName().toUpperCase());
         System.out.println(border);
-        System.out.printf("| Rarity  : %-14s |\n", capitalize(rarity));
-        System.out.printf("| Variant : %-14s |\n", capitalize(variant));
-        System.out.printf("| Base $  : $%-13.2f |\n", baseValue);
-        System.out.printf("| Value   : $%-13.2f |\n", getActualValue());
-        System.out.printf("| Count   : %-14d |\n", count);
+        System.out.printf("| Rarity  : %-14s |\n", capitalize(getRarity()));
+        System.out.printf("| Variant : %-14s |\n", capitalize(getVariant()));
+        System.out.printf("| Base $  : $%-13s |\n", Money.format(getBaseValueCents()));
+        System.out.printf("| Value   : $%-13s |\n", Money.format(getActualValueCents()));
+        System.out.printf("| Count   : %-14d |\n", getCount());
         System.out.println(border);
     }
 
@@ -133,8 +260,7 @@ public class Card {
 
     @Override
     public String toString() {
-        return name + " [" + rarity + ", " + variant + "] | Base: $" + String.format("%.2f", baseValue)
-            + " | Value: $" + String.format("%.2f", getActualValue()) + " | Count: " + count;
+        return definition + " | Value: $" + Money.format(getActualValueCents()) + " | Count: " + getCount();
     }
 
     /**
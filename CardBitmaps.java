@@ -0,0 +1,196 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Bitmap indexes over the rows of a CardStore: one bitmap per rarity, per
+ * variant and per value band, and one for rows with a count above zero.
+ * Bit r of a bitmap is set when row r has that property, so a filter such as
+ * "in stock, rare or legendary, special variant" is an AND of ORs over words,
+ * 64 rows at a time, instead of a look at every row.
+ *
+ * The bitmaps are plain word arrays, not compressed: rows are dense, since
+ * removal moves the last row into the gap, so each bitmap costs one bit per
+ * row and compression would not save anything.
+ *
+ * CardStore keeps them in step with its rows. Rarity, variant and band bits
+ * only change while the store's write lock is held; in-stock bits change with
+ * the counts, under the read lock and the card name's lock, and are updated
+ * with atomic word operations since neighbouring rows share a word.
+ */
+public class CardBitmaps {
+
+    /** Value bands, by actual value: below $1, $1-$5, $5-$20, $20-$100, $100-$500, $500 and up. */
+    private static final long[] BAND_LIMITS = {100, 500, 2_000, 10_000, 50_000};
+
+    public static final int BANDS = BAND_LIMITS.length + 1;
+
+    /** Mask that accepts every rarity, variant or band. */
+    public static final int ALL = -1;
+
+    private static final VarHandle WORD = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[][] rarity = new long[Rarity.values().length][];
+    private final long[][] variant = new long[Variant.values().length][];
+    private final long[][] band = new long[BANDS][];
+    private long[] inStock;
+
+    CardBitmaps(int rows) {
+        int words = wordsFor(rows);
+        for (int i = 0; i < rarity.length; i++) rarity[i] = new long[words];
+        for (int i = 0; i < variant.length; i++) variant[i] = new long[words];
+        for (int i = 0; i < band.length; i++) band[i] = new long[words];
+        inStock = new long[words];
+    }
+
+    /**
+     * @return the band holding an actual value, from 0 to BANDS - 1.
+     */
+    public static int bandOf(long actualValueCents) {
+        int b = 0;
+        while (b < BAND_LIMITS.length && actualValueCents >= BAND_LIMITS[b]) b++;
+        return b;
+    }
+
+    /**
+     * @return the mask of the bands that may hold values from min to max cents, inclusive.
+     */
+    public static int bandsBetween(long minCents, long maxCents) {
+        if (minCents > maxCents) return 0;
+        int mask = 0;
+        for (int b = bandOf(minCents); b <= bandOf(maxCents); b++) mask |= 1 << b;
+        return mask;
+    }
+
+    public static int mask(Rarity... rarities) {
+        int mask = 0;
+        for (Rarity r : rarities) mask |= 1 << r.ordinal();
+        return mask;
+    }
+
+    public static int mask(Variant... variants) {
+        int mask = 0;
+        for (Variant v : variants) mask |= 1 << v.ordinal();
+        return mask;
+    }
+
+    private static int wordsFor(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    /**
+     * Makes room for the given number of rows. Called under the write lock.
+     */
+    void grow(int rows) {
+        int words = wordsFor(rows);
+        if (words <= inStock.length) return;
+        for (int i = 0; i < rarity.length; i++) rarity[i] = Arrays.copyOf(rarity[i], words);
+        for (int i = 0; i < variant.length; i++) variant[i] = Arrays.copyOf(variant[i], words);
+        for (int i = 0; i < band.length; i++) band[i] = Arrays.copyOf(band[i], words);
+        inStock = Arrays.copyOf(inStock, words);
+    }
+
+    /**
+     * Sets the bits of a new row. Called under the write lock.
+     */
+    void add(int row, Rarity rarity, Variant variant, long actualValueCents, boolean stocked) {
+        int w = row >>> 6;
+        long bit = 1L << row;
+        this.rarity[rarity.ordinal()][w] |= bit;
+        this.variant[variant.ordinal()][w] |= bit;
+        band[bandOf(actualValueCents)][w] |= bit;
+        if (stocked) inStock[w] |= bit;
+    }
+
+    /**
+     * Moves the bits of row from into row to, clearing from. Called under the write lock.
+     */
+    void move(int from, int to) {
+        clear(to);
+        int fw = from >>> 6;
+        long fbit = 1L << from;
+        long tbit = 1L << to;
+        for (long[] bits : rarity) moveBit(bits, fw, fbit, to >>> 6, tbit);
+        for (long[] bits : variant) moveBit(bits, fw, fbit, to >>> 6, tbit);
+        for (long[] bits : band) moveBit(bits, fw, fbit, to >>> 6, tbit);
+        moveBit(inStock, fw, fbit, to >>> 6, tbit);
+    }
+
+    private static void moveBit(long[] bits, int fw, long fbit, int tw, long tbit) {
+        if ((bits[fw] & fbit) != 0) {
+            bits[fw] &= ~fbit;
+            bits[tw] |= tbit;
+        }
+    }
+
+    /**
+     * Clears every bit of a row. Called under the write lock.
+     */
+    void clear(int row) {
+        int w = row >>> 6;
+        long keep = ~(1L << row);
+        for (long[] bits : rarity) bits[w] &= keep;
+        for (long[] bits : variant) bits[w] &= keep;
+        for (long[] bits : band) bits[w] &= keep;
+        inStock[w] &= keep;
+    }
+
+    /**
+     * Marks a row as in stock or not, atomically with respect to the other rows of its word.
+     */
+    void setInStock(int row, boolean stocked) {
+        long bit = 1L << row;
+        if (stocked) {
+            WORD.getAndBitwiseOr(inStock, row >>> 6, bit);
+        } else {
+            WORD.getAndBitwiseAnd(inStock, row >>> 6, ~bit);
+        }
+    }
+
+    /**
+     * @return the number of rows in stock among the first rows rows.
+     */
+    int countInStock(int rows) {
+        int n = 0;
+        int words = wordsFor(rows);
+        for (int w = 0; w < words; w++) {
+            n += Long.bitCount((long) WORD.getOpaque(inStock, w) & lastWordMask(w, rows));
+        }
+        return n;
+    }
+
+    /**
+     * Selects the rows having one of the given rarities, one of the given variants
+     * and a value in one of the given bands, and optionally a count above zero.
+     * Masks have bit i set for ordinal or band i; ALL accepts everything.
+     *
+     * @param rows number of rows in the store.
+     * @return the selected rows as bitmap words.
+     */
+    long[] select(int rarities, int variants, int bands, boolean inStockOnly, int rows) {
+        int words = wordsFor(rows);
+        long[] result = new long[words];
+        for (int w = 0; w < words; w++) {
+            long bits = lastWordMask(w, rows);
+            if (inStockOnly) bits &= (long) WORD.getOpaque(inStock, w);
+            if (bits != 0 && rarities != ALL) bits &= any(rarity, rarities, w);
+            if (bits != 0 && variants != ALL) bits &= any(variant, variants, w);
+            if (bits != 0 && bands != ALL) bits &= any(band, bands, w);
+            result[w] = bits;
+        }
+        return result;
+    }
+
+    private static long any(long[][] bitmaps, int mask, int w) {
+        long bits = 0;
+        for (int i = 0; i < bitmaps.length; i++) {
+            if ((mask & (1 << i)) != 0) bits |= bitmaps[i][w];
+        }
+        return bits;
+    }
+
+    private static long lastWordMask(int w, int rows) {
+        int left = rows - (w << 6);
+        return left >= 64 ? -1L : (1L << left) - 1;
+    }
+}
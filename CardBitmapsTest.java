@@ -0,0 +1,161 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks the bitmap indexes of CardStore against a plain scan of the cards:
+ * after random adds, removes and count changes, every combination of rarity,
+ * variant, value band and stock filter must select exactly the matching cards.
+ * Then several threads change counts at once and the in-stock bits must still
+ * follow the counts. Exits with status 1 if a check fails.
+ *
+ * Usage: java CardBitmapsTest
+ */
+public class CardBitmapsTest {
+
+    private static int failures;
+
+    public static void main(String[] args) throws InterruptedException {
+        Collection collection = randomCollection(new Random(1), 20_000);
+        selectMatchesScan(collection);
+        bands();
+        concurrentCounts(collection);
+        eligibleForBinder();
+        System.out.println(failures == 0 ? "All bitmap checks passed." : failures + " bitmap checks failed.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Adds, removes and recounts cards at random, so rows are moved into the gaps removes leave.
+     */
+    private static Collection randomCollection(Random random, int steps) {
+        Collection collection = new Collection(new ArrayList<>());
+        Rarity[] rarities = Rarity.values();
+        Variant[] variants = Variant.values();
+        List<String> names = new ArrayList<>();
+        for (int step = 0; step < steps; step++) {
+            int op = random.nextInt(10);
+            if (op < 4 || names.isEmpty()) {
+                String name = "Card " + step;
+                collection.addCard(new Card(name, rarities[random.nextInt(rarities.length)],
+                        variants[random.nextInt(variants.length)], 1 + random.nextInt(100_000)));
+                names.add(name);
+            } else if (op < 5) {
+                String name = names.remove(random.nextInt(names.size()));
+                collection.removeCard(collection.findCardByName(name));
+            } else {
+                collection.findCardByName(names.get(random.nextInt(names.size()))).setCount(random.nextInt(3));
+            }
+        }
+        return collection;
+    }
+
+    private static void selectMatchesScan(Collection collection) {
+        CardStore store = collection.getStore();
+        int[] rarityMasks = {CardBitmaps.ALL, CardBitmaps.mask(Rarity.RARE, Rarity.LEGENDARY),
+                CardBitmaps.mask(Rarity.COMMON)};
+        int[] variantMasks = {CardBitmaps.ALL, ~CardBitmaps.mask(Variant.NORMAL)};
+        int[] bandMasks = {CardBitmaps.ALL, CardBitmaps.bandsBetween(500, 9_000)};
+        for (int rarities : rarityMasks) {
+            for (int variants : variantMasks) {
+                for (int bands : bandMasks) {
+                    for (boolean inStockOnly : new boolean[] {true, false}) {
+                        Set<Card> selected = identitySet(store.select(rarities, variants, bands, inStockOnly));
+                        Set<Card> expected = identitySet(List.of());
+                        for (Card card : collection.getCards()) {
+                            if ((!inStockOnly || card.getCount() > 0)
+                                    && has(rarities, card.getRarityType().ordinal())
+                                    && has(variants, card.getVariantType().ordinal())
+                                    && has(bands, CardBitmaps.bandOf(card.getActualValueCents()))) {
+                                expected.add(card);
+                            }
+                        }
+                        check(selected.equals(expected), "select(" + rarities + ", " + variants + ", " + bands + ", "
+                                + inStockOnly + ") gives " + selected.size() + " cards, expected " + expected.size());
+                    }
+                }
+            }
+        }
+        check(store.countInStock() == collection.getCardsInStock().size(), "countInStock matches getCardsInStock");
+    }
+
+    private static void bands() {
+        check(CardBitmaps.bandOf(1) == 0, "the cheapest value is in the first band");
+        check(CardBitmaps.bandOf(Long.MAX_VALUE) == CardBitmaps.BANDS - 1, "the dearest value is in the last band");
+        for (long low = 1; low < 100_000; low = low * 3 + 7) {
+            for (long high = low; high < 200_000; high = high * 2 + 1) {
+                int bands = CardBitmaps.bandsBetween(low, high);
+                if (!has(bands, CardBitmaps.bandOf(low)) || !has(bands, CardBitmaps.bandOf(high))) {
+                    check(false, "bandsBetween(" + low + ", " + high + ") covers both ends");
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void concurrentCounts(Collection collection) throws InterruptedException {
+        collection.enableConcurrency();
+        List<Card> cards = collection.getCards().subList(0, 64);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    Card card = cards.get(random.nextInt(cards.size()));
+                    if (random.nextBoolean()) card.tryDecreaseCount();
+                    else card.increaseCount();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Set<Card> inStock = identitySet(collection.getCardsInStock());
+        int wrong = 0;
+        for (Card card : collection.getCards()) {
+            if ((card.getCount() > 0) != inStock.contains(card)) wrong++;
+        }
+        check(wrong == 0, wrong + " cards have an in-stock bit that does not match their count");
+    }
+
+    private static void eligibleForBinder() {
+        InventoryService service = new InventoryService();
+        service.addCard("Plain", "common", null, 100);
+        service.addCard("Rare", "rare", "normal", 100);
+        service.addCard("Shiny", "rare", "full-art", 100);
+        service.addCard("Odd", "uncommon", null, 100);
+        service.createBinder("Collector", "collector");
+        service.createBinder("Pauper", "pauper");
+        for (Binder binder : service.getBinders()) {
+            Set<Card> eligible = identitySet(service.getCollection().getCardsEligibleFor(binder));
+            for (Card card : service.getCollection().getCards()) {
+                check(eligible.contains(card) == binder.isCardAllowed(card),
+                        binder.getName() + " eligibility of " + card.getName() + " matches isCardAllowed");
+            }
+        }
+    }
+
+    private static boolean has(int mask, int bit) {
+        return (mask >> bit & 1) == 1;
+    }
+
+    private static Set<Card> identitySet(List<Card> cards) {
+        Set<Card> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(cards);
+        return set;
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns card definitions, so every Card, Collection row, binder and deck
+ * entry with the same name, rarity, variant and base value refers to the
+ * same CardDefinition. Names are matched ignoring case, by the same collation
+ * key the CardStore orders names by, as everywhere else in the inventory; the
+ * shared definition keeps the spelling of the card that created it.
+ *
+ * Lookups are lock-free. The catalog only holds its definitions weakly: once no
+ * card, row, binder or deck refers to a definition it is dropped, so the catalog
+ * is as large as the cards currently held, not every card seen in this run.
+ */
+public final class CardCatalog {
+
+    private static final ConcurrentHashMap<Key, Entry> BY_KEY = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<CardDefinition> CLEARED = new ReferenceQueue<>();
+
+    private CardCatalog() {
+    }
+
+    /**
+     * Lookup key; holds the name's case-folded collation key, so "dragon" and "Dragon" match.
+     */
+    private static final class Key {
+        final String foldedName;
+        final Rarity rarity;
+        final Variant variant;
+        final long baseValueCents;
+
+        Key(String name, Rarity rarity, Variant variant, long baseValueCents) {
+            this.foldedName = SortedCards.collationKey(name);
+            this.rarity = rarity;
+            this.variant = variant;
+            this.baseValueCents = baseValueCents;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return rarity == k.rarity && variant == k.variant && baseValueCents == k.baseValueCents
+                    && foldedName.equals(k.foldedName);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = foldedName.hashCode();
+            h = 31 * h + rarity.ordinal();
+            h = 31 * h + variant.ordinal();
+            return 31 * h + Long.hashCode(baseValueCents);
+        }
+    }
+
+    /**
+     * Weak reference to a definition that remembers its key, so a cleared entry can be removed.
+     */
+    private static final class Entry extends WeakReference<CardDefinition> {
+        final Key key;
+
+        Entry(CardDefinition definition, Key key) {
+            super(definition, CLEARED);
+            this.key = key;
+        }
+    }
+
+    /**
+     * Returns the shared definition of a card, creating it if no live card uses it.
+     * Variants of non-premium rarities become normal, as for Card. A live definition
+     * whose name differs only in case is returned as is.
+     *
+     * @throws IllegalArgumentException if the base value is not positive.
+     */
+    public static CardDefinition intern(String name, Rarity rarity, Variant variant, long baseValueCents) {
+        CardDefinition.checkBaseValue(baseValueCents);
+        expungeCleared();
+        Key key = new Key(name, rarity, Card.validateVariant(rarity, variant), baseValueCents);
+        while (true) {
+            Entry entry = BY_KEY.get(key);
+            CardDefinition definition = entry == null ? null : entry.get();
+            if (definition != null) {
+                return definition;
+            }
+            definition = new CardDefinition(name, key.rarity, key.variant, key.baseValueCents);
+            Entry created = new Entry(definition, key);
+            boolean stored = entry == null
+                    ? BY_KEY.putIfAbsent(key, created) == null
+                    : BY_KEY.replace(key, entry, created);
+            if (stored) {
+                return definition;
+            }
+        }
+    }
+
+    private static void expungeCleared() {
+        Entry cleared;
+        while ((cleared = (Entry) CLEARED.poll()) != null) {
+            BY_KEY.remove(cleared.key, cleared);
+        }
+    }
+
+    /**
+     * @return the number of definitions in the catalog; cleared ones may still be counted until the next intern.
+     */
+    public static int size() {
+        expungeCleared();
+        return BY_KEY.size();
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.ArrayList;
+
+/**
+ * Checks CardCatalog and the card columns of CardStore: identical cards share
+ * one definition wherever they are held, whatever the case of their names,
+ * the row columns agree with the definition, and definitions no longer held
+ * by any card are released.
+ * Exits with status 1 if a check fails.
+ *
+ * Usage: java CardCatalogTest
+ */
+public class CardCatalogTest {
+
+    private static int failures;
+
+    public static void main(String[] args) throws InterruptedException {
+        sharing();
+        columns();
+        release();
+        System.out.println(failures == 0 ? "All catalog checks passed." : failures + " catalog checks failed.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void sharing() {
+        CardDefinition first = CardCatalog.intern("Dragon", Rarity.RARE, Variant.FULL_ART, 1_000);
+        check(first == CardCatalog.intern("Dragon", Rarity.RARE, Variant.FULL_ART, 1_000),
+                "the same card gives the same definition");
+        check(first == CardCatalog.intern("dragon", Rarity.RARE, Variant.FULL_ART, 1_000),
+                "names are compared ignoring case, as in the collection");
+        check(first.getName().equals("Dragon"), "the shared definition keeps the first spelling");
+        check(CardCatalog.intern("Goblin", Rarity.COMMON, Variant.ALT_ART, 50)
+                        == CardCatalog.intern("Goblin", Rarity.COMMON, Variant.NORMAL, 50),
+                "a common card's variant becomes normal");
+        try {
+            CardCatalog.intern("Free", Rarity.COMMON, Variant.NORMAL, 0);
+            check(false, "a base value of zero is refused");
+        } catch (IllegalArgumentException e) {
+            check(true, "a base value of zero is refused");
+        }
+
+        InventoryService service = new InventoryService();
+        service.addCard("Dragon", "rare", "full-art", 1_000);
+        service.setCardCount("Dragon", 3);
+        service.createBinder("Keep", "non-curated");
+        service.createDeck("Main", "normal");
+        service.moveToBinder("Dragon", "Keep");
+        service.moveToDeck("Dragon", "Main");
+        CardDefinition row = service.findCard("Dragon").getDefinition();
+        check(row == first, "the collection row uses the catalog's definition");
+        service.createBinder("Trades", "non-curated");
+        Binder trades = service.findBinder("Trades");
+        trades.addCard(new Card("dragon", Rarity.RARE, Variant.FULL_ART, 1_000));
+        check(trades.getCards().get(0).getDefinition() == row
+                        && service.locateCard("Dragon").getAmountCents() == 3,
+                "a copy spelled in lower case is found with the others");
+        check(service.findBinder("Keep").getCards().get(0).getDefinition() == row
+                        && service.findDeck("Main").getCards().get(0).getDefinition() == row,
+                "binder and deck copies share the row's definition");
+    }
+
+    private static void columns() {
+        Collection collection = new Collection(new ArrayList<>());
+        collection.addCard(new Card("Shiny", Rarity.LEGENDARY, Variant.ALT_ART, 2_500));
+        collection.addCard(new Card("Plain", Rarity.UNCOMMON, Variant.EXTENDED_ART, 300));
+        collection.restoreRow("Restored", Rarity.RARE, Variant.FULL_ART, 700, 2);
+        collection.removeCard(collection.findCardByName("Shiny"));
+        CardStore store = collection.getStore();
+        long total = 0;
+        for (int row = 0; row < store.size(); row++) {
+            CardDefinition definition = store.getDefinition(row);
+            check(definition.getName().equalsIgnoreCase(store.getName(row))
+                            && definition.getRarity() == store.getRarity(row)
+                            && definition.getVariant() == store.getVariant(row)
+                            && definition.getBaseValueCents() == store.getBaseValueCents(row)
+                            && definition.getActualValueCents() == store.getActualValueCents(row),
+                    "row " + row + " columns agree with its definition");
+            total += store.getActualValueCents(row) * store.getCount(row);
+        }
+        check(store.getVariant(collection.findCardByName("Plain").rowIn(store)) == Variant.NORMAL,
+                "an uncommon row's variant is normal");
+        check(collection.getTotalValueCents() == total, "total value adds up the value column");
+    }
+
+    /**
+     * Drops every reference to a definition and waits for the catalog to let it go.
+     */
+    private static void release() throws InterruptedException {
+        int before = CardCatalog.size();
+        for (int i = 0; i < 1_000; i++) {
+            CardCatalog.intern("Passing " + i, Rarity.COMMON, Variant.NORMAL, 100);
+        }
+        int after = CardCatalog.size();
+        for (int attempt = 0; attempt < 50 && after > before; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+            after = CardCatalog.size();
+        }
+        check(after <= before, "unused definitions are released, " + (after - before) + " left");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * The fixed identity of a card: name, rarity, variant and base value, with the
+ * actual value computed once. How many copies are owned is not part of it;
+ * that is kept by whoever holds the card (a Collection row, or a Card copy in
+ * a binder or deck).
+ *
+ * Definitions are interned by CardCatalog, so identical cards share one
+ * instance however many containers hold them, and two definitions are equal
+ * exactly when they are the same object.
+ */
+public final class CardDefinition {
+
+    private final String name;
+    private final Rarity rarity;
+    private final Variant variant;
+    private final long baseValueCents;
+    private final long actualValueCents;
+
+    CardDefinition(String name, Rarity rarity, Variant variant, long baseValueCents) {
+        this.name = name;
+        this.rarity = rarity;
+        this.variant = variant;
+        this.baseValueCents = baseValueCents;
+        this.actualValueCents = variant.applyTo(baseValueCents);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a base value is not positive.
+     */
+    static void checkBaseValue(long baseValueCents) {
+        if (baseValueCents <= 0) {
+            throw new IllegalArgumentException("Base value must be a positive number.");
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Rarity getRarity() {
+        return rarity;
+    }
+
+    public Variant getVariant() {
+        return variant;
+    }
+
+    public long getBaseValueCents() {
+        return baseValueCents;
+    }
+
+    public long getActualValueCents() {
+        return actualValueCents;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + rarity.getLabel() + ", " + variant.getLabel() + "] | Base: $" + Money.format(baseValueCents);
+    }
+}
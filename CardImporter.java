@@ -0,0 +1,342 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Bulk-loads cards into a Collection from a CSV or TSV file.
+ *
+ * Each row is name, rarity, variant, base value and an optional count, e.g.
+ * "Black Lotus,legendary,full-art,1200.00,2". The first line is skipped as a
+ * header if its fields are the column labels (name, rarity, variant, value,
+ * count) or it is not a valid card row; the report notes a skipped line. Fields
+ * may be double-quoted, with "" for a quote.
+ * The variant may be left blank for normal; common and uncommon cards are
+ * always normal, as in the Card constructor.
+ *
+ * The file is read on the calling thread in chunks of lines, which are parsed
+ * in parallel and then merged into the collection in file order. A name that
+ * is already in the collection, or repeats in the file, adds to that card's
+ * count in the same lookup that places it.
+ */
+public class CardImporter {
+
+    /** Lines per parse task. */
+    private static final int CHUNK_LINES = 8192;
+
+    /** The column labels a header line may use, in column order. */
+    private static final String[] COLUMNS = {"name", "rarity", "variant", "value", "count"};
+
+    private final int threads;
+
+    /**
+     * Creates an importer that parses on one thread per available processor.
+     */
+    public CardImporter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public CardImporter(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Imports every row of a file into the collection. Rows that fail validation
+     * are skipped and listed in the report; the rest are imported.
+     *
+     * @param file       a .csv or .tsv file; the delimiter is taken from the first line.
+     * @param collection the collection to add the cards to.
+     * @return counts, rejected rows and throughput.
+     * @throws IOException if the file cannot be read.
+     */
+    public ImportReport importFile(Path file, Collection collection) throws IOException {
+        return importFile(file, collection, fraction -> { }, () -> false);
+    }
+
+    /**
+     * Imports a file as above, reporting progress and stopping early when asked.
+     * Rows merged before a cancel stay in the collection; the report says so.
+     *
+     * @param progress  receives the fraction of the file read so far, from 0 to 1.
+     * @param cancelled polled between chunks; once true, no further rows are read.
+     */
+    public ImportReport importFile(Path file, Collection collection, DoubleConsumer progress,
+                                   BooleanSupplier cancelled) throws IOException {
+        long start = System.nanoTime();
+        long fileSize = Math.max(1, Files.size(file));
+        long charsRead = 0;
+        ImportReport report = new ImportReport();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "card-import");
+            t.setDaemon(true);
+            return t;
+        });
+        ArrayDeque<Future<ParsedChunk>> pending = new ArrayDeque<>();
+
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String first = in.readLine();
+            if (first == null) {
+                report.setElapsedNanos(System.nanoTime() - start);
+                return report;
+            }
+            if (first.startsWith("\uFEFF")) {
+                first = first.substring(1);
+            }
+            char delimiter = first.indexOf('\t') >= 0 ? '\t' : ',';
+            boolean header = isHeader(first, delimiter);
+
+            long lineNumber = 1;
+            String[] lines = new String[CHUNK_LINES];
+            int n = 0;
+            long chunkStart = 1;
+            if (!header) {
+                lines[n++] = first;
+            } else {
+                report.skipHeader(first);
+                chunkStart = 2;
+            }
+
+            charsRead += first.length() + 1;
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                lines[n++] = line;
+                charsRead += line.length() + 1;
+                if (n == CHUNK_LINES) {
+                    pending.add(pool.submit(parseTask(lines, n, chunkStart, delimiter)));
+                    lines = new String[CHUNK_LINES];
+                    n = 0;
+                    chunkStart = lineNumber + 1;
+                    // Bound the lines held in memory: merge the oldest chunk once the pool is saturated
+                    while (pending.size() > threads * 2) {
+                        merge(pending.poll(), collection, report);
+                    }
+                    progress.accept(Math.min(1.0, (double) charsRead / fileSize));
+                    if (cancelled.getAsBoolean()) {
+                        report.setCancelled();
+                        n = 0;
+                        break;
+                    }
+                }
+            }
+            if (n > 0) {
+                pending.add(pool.submit(parseTask(lines, n, chunkStart, delimiter)));
+            }
+            while (!pending.isEmpty()) {
+                merge(pending.poll(), collection, report);
+            }
+            progress.accept(1.0);
+        } finally {
+            for (Future<ParsedChunk> f : pending) {
+                f.cancel(true);
+            }
+            pool.shutdownNow();
+        }
+
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Decides whether the first line of a file is a header rather than a card:
+     * its fields are the column labels, or it does not parse as a card row.
+     * A card whose name merely starts with "name" is still imported.
+     */
+    static boolean isHeader(String line, char delimiter) {
+        String[] fields = new String[COLUMNS.length + 1];
+        int count = ParsedChunk.split(line, delimiter, fields);
+        if (count >= 4 && count <= COLUMNS.length) {
+            boolean labels = true;
+            for (int i = 0; i < count && labels; i++) {
+                labels = fields[i].trim().equalsIgnoreCase(COLUMNS[i]);
+            }
+            if (labels) {
+                return true;
+            }
+        }
+        if (line.isBlank()) {
+            return false;
+        }
+        return ParsedChunk.parse(new String[] {line}, 1, 1, delimiter).errors[0] != null;
+    }
+
+    private static Callable<ParsedChunk> parseTask(String[] lines, int n, long firstLine, char delimiter) {
+        return () -> ParsedChunk.parse(lines, n, firstLine, delimiter);
+    }
+
+    private static void merge(Future<ParsedChunk> future, Collection collection, ImportReport report) throws IOException {
+        ParsedChunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed: " + e.getCause(), e.getCause());
+        }
+
+        for (int i = 0; i < chunk.size; i++) {
+            if (chunk.names[i] == null && chunk.errors[i] == null) {
+                continue; // blank line
+            }
+            report.rowRead();
+            if (chunk.errors[i] != null) {
+                report.reject(chunk.firstLine + i, chunk.errors[i]);
+                continue;
+            }
+            int merged = collection.mergeRow(chunk.names[i], Rarity.fromOrdinal(chunk.rarities[i]),
+                    Variant.fromOrdinal(chunk.variants[i]), chunk.baseValues[i], chunk.counts[i]);
+            if (merged > 0) {
+                report.cardAdded();
+            } else if (merged == 0) {
+                report.rowMerged();
+            } else {
+                report.reject(chunk.firstLine + i, "'" + chunk.names[i]
+                        + "' is already in the collection with a different rarity, variant or value.");
+            }
+        }
+    }
+
+    /**
+     * The rows of one chunk, parsed into columns. A row has either a name or an
+     * error; a row with neither was blank.
+     */
+    private static final class ParsedChunk {
+        final long firstLine;
+        final int size;
+        final String[] names;
+        final byte[] rarities;
+        final byte[] variants;
+        final long[] baseValues;
+        final int[] counts;
+        final String[] errors;
+
+        private ParsedChunk(long firstLine, int size) {
+            this.firstLine = firstLine;
+            this.size = size;
+            this.names = new String[size];
+            this.rarities = new byte[size];
+            this.variants = new byte[size];
+            this.baseValues = new long[size];
+            this.counts = new int[size];
+            this.errors = new String[size];
+        }
+
+        static ParsedChunk parse(String[] lines, int n, long firstLine, char delimiter) {
+            ParsedChunk chunk = new ParsedChunk(firstLine, n);
+            String[] fields = new String[6];
+            for (int i = 0; i < n; i++) {
+                String line = lines[i];
+                if (line.isBlank()) continue;
+                int count = split(line, delimiter, fields);
+                chunk.errors[i] = chunk.parseRow(i, fields, count);
+            }
+            return chunk;
+        }
+
+        /**
+         * Validates one row with the rules of the Card constructor.
+         *
+         * @return null if the row is valid, otherwise the reason it was rejected.
+         */
+        private String parseRow(int i, String[] fields, int count) {
+            if (count < 4 || count > 5) {
+                return "Expected 4 or 5 fields but found " + count + ".";
+            }
+            String name = fields[0].trim();
+            if (name.isEmpty()) {
+                return "Card name is required.";
+            }
+            Rarity rarity = Rarity.fromLabel(fields[1].trim());
+            if (rarity == null) {
+                return "Invalid rarity: " + fields[1].trim();
+            }
+            String variantText = fields[2].trim();
+            Variant variant = variantText.isEmpty() ? Variant.NORMAL : Variant.fromLabel(variantText);
+            if (variant == null) {
+                return "Invalid variant: " + variantText;
+            }
+            long baseValue;
+            try {
+                baseValue = Money.parse(fields[3]);
+            } catch (NumberFormatException e) {
+                return "Invalid base value: " + fields[3].trim();
+            }
+            if (baseValue <= 0) {
+                return "Base value must be a positive number.";
+            }
+            int copies = 1;
+            if (count == 5 && !fields[4].isBlank()) {
+                try {
+                    copies = Integer.parseInt(fields[4].trim());
+                } catch (NumberFormatException e) {
+                    return "Invalid count: " + fields[4].trim();
+                }
+                if (copies < 1) {
+                    return "Count must be at least 1.";
+                }
+            }
+
+            names[i] = name;
+            rarities[i] = (byte) rarity.ordinal();
+            variants[i] = (byte) Card.validateVariant(rarity, variant).ordinal();
+            baseValues[i] = baseValue;
+            counts[i] = copies;
+            return null;
+        }
+
+        /**
+         * Splits a line into fields, honouring double quotes.
+         *
+         * @return the number of fields; only the first fields.length are stored.
+         */
+        private static int split(String line, char delimiter, String[] fields) {
+            int count = 0;
+            int pos = 0;
+            int len = line.length();
+            StringBuilder quoted = null;
+            while (true) {
+                String field;
+                if (pos < len && line.charAt(pos) == '"') {
+                    if (quoted == null) quoted = new StringBuilder();
+                    quoted.setLength(0);
+                    pos++;
+                    while (pos < len) {
+                        char c = line.charAt(pos++);
+                        if (c == '"') {
+                            if (pos < len && line.charAt(pos) == '"') {
+                                quoted.append('"');
+                                pos++;
+                            } else {
+                                break;
+                            }
+                        } else {
+                            quoted.append(c);
+                        }
+                    }
+                    int end = line.indexOf(delimiter, pos);
+                    field = quoted.toString();
+                    pos = end < 0 ? len : end;
+                } else {
+                    int end = line.indexOf(delimiter, pos);
+                    if (end < 0) end = len;
+                    field = line.substring(pos, end);
+                    pos = end;
+                }
+                if (count < fields.length) fields[count] = field;
+                count++;
+                if (pos >= len) return count;
+                pos++; // skip the delimiter
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks CardImporter on small files: quoting, header detection, blank variants,
+ * counts and merging of repeated names, rejected rows with their line
+ * numbers, and that a file spanning several parse chunks gives the same
+ * collection on one thread as on several. Uses temporary files; exits with
+ * status 1 if a check fails.
+ *
+ * Usage: java CardImporterTest
+ */
+public class CardImporterTest {
+
+    private static int failures;
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("tcis-import-test");
+        rows(dir);
+        headers(dir);
+        chunks(dir);
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+        System.out.println(failures == 0 ? "All import checks passed." : failures + " import checks failed.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void rows(Path dir) throws IOException {
+        Path file = dir.resolve("rows.csv");
+        Files.write(file, List.of(
+                "name,rarity,variant,value,count",
+                "Black Lotus,legendary,full-art,1200.00,2",
+                "\"Dragon, \"\"the\"\" Red\",rare,,12.50",
+                "goblin,common,full-art,0.75,3",
+                "GOBLIN,common,normal,0.75,1",
+                "Broken,mythic,normal,1.00",
+                "Free,common,normal,0"), StandardCharsets.UTF_8);
+
+        Collection collection = new Collection(new ArrayList<>());
+        ImportReport report = new CardImporter(2).importFile(file, collection);
+
+        check(report.getCardsAdded() == 3, "3 cards added, got " + report.getCardsAdded());
+        check(report.getRowsMerged() == 1, "the repeated name is merged");
+        check(report.getRowsRejected() == 2, "2 rows rejected, got " + report.getRowsRejected());
+        check(report.getRejections().size() == 2 && report.getRejections().get(0).getLine() == 6
+                && report.getRejections().get(1).getLine() == 7, "rejections name their lines");
+
+        Card lotus = collection.findCardByName("black lotus");
+        check(lotus != null && lotus.getCount() == 2 && lotus.getVariantType() == Variant.FULL_ART
+                && lotus.getBaseValueCents() == 120_000, "count, variant and value are read");
+        Card dragon = collection.findCardByName("Dragon, \"the\" Red");
+        check(dragon != null && dragon.getCount() == 1 && dragon.getVariantType() == Variant.NORMAL,
+                "a quoted name and a blank variant are read, count defaults to 1");
+        Card goblin = collection.findCardByName("goblin");
+        check(goblin != null && goblin.getCount() == 4 && goblin.getVariantType() == Variant.NORMAL,
+                "a common card is normal, and its repeat adds to the count");
+    }
+
+    private static void headers(Path dir) throws IOException {
+        Path file = dir.resolve("nameless.csv");
+        Files.write(file, List.of("Nameless Horror,common,,1.00,2", "Namer,rare,normal,3.00"), StandardCharsets.UTF_8);
+        Collection collection = new Collection(new ArrayList<>());
+        ImportReport report = new CardImporter(1).importFile(file, collection);
+        check(report.getRowsRead() == 2 && report.getSkippedHeader() == null,
+                "a first card whose name starts with \"name\" is not a header");
+        Card horror = collection.findCardByName("Nameless Horror");
+        check(horror != null && horror.getCount() == 2, "the first card is imported");
+
+        file = dir.resolve("labels.tsv");
+        Files.write(file, List.of("Name\tRarity\tVariant\tValue", "Imp\tcommon\t\t1.00"), StandardCharsets.UTF_8);
+        report = new CardImporter(1).importFile(file, new Collection(new ArrayList<>()));
+        check(report.getRowsRead() == 1 && report.getRowsRejected() == 0
+                && "Name\tRarity\tVariant\tValue".equals(report.getSkippedHeader())
+                && report.toString().contains("header"), "a line of column labels is skipped and reported");
+
+        file = dir.resolve("other.csv");
+        Files.write(file, List.of("card,kind,art,price", "Imp,common,,1.00"), StandardCharsets.UTF_8);
+        report = new CardImporter(1).importFile(file, new Collection(new ArrayList<>()));
+        check(report.getRowsRead() == 1 && "card,kind,art,price".equals(report.getSkippedHeader()),
+                "a first line that is not a card is skipped as a header");
+    }
+
+    private static void chunks(Path dir) throws IOException {
+        Path file = dir.resolve("chunks.tsv");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            // Every name appears three times, so merges cross chunk boundaries
+            lines.add("Card " + (i % 10_000) + "\tuncommon\t\t" + (1 + i % 97) + ".00\t1");
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        Collection serial = new Collection(new ArrayList<>());
+        Collection parallel = new Collection(new ArrayList<>());
+        new CardImporter(1).importFile(file, serial);
+        ImportReport report = new CardImporter(4).importFile(file, parallel);
+
+        check(report.getRowsRead() == 30_000 && report.getRowsRejected() > 0,
+                "names repeated with another value are rejected");
+        check(serial.size() == parallel.size() && serial.getTotalValueCents() == parallel.getTotalValueCents(),
+                "one and four threads give the same collection");
+        boolean same = true;
+        for (Card card : serial.getCards()) {
+            Card other = parallel.findCardByName(card.getName());
+            same &= other != null && other.getCount() == card.getCount()
+                    && other.getBaseValueCents() == card.getBaseValueCents();
+        }
+        check(same, "every card has the same count and value either way");
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
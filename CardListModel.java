@@ -0,0 +1,190 @@
+import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A list model of cards that follows inventory events instead of being rebuilt.
+ * Each card's position is kept in an identity map, so adding, removing and
+ * updating a card are O(1) and fire a single-row event. Removal moves the last
+ * card into the gap, so the order is insertion order until the first removal.
+ *
+ * Create one with inStock, eligibleFor, of(Binder) or of(Deck) and call dispose when the
+ * view closes so the model stops listening.
+ */
+public class CardListModel extends AbstractListModel<Card> {
+
+    private final ArrayList<Card> cards = new ArrayList<>();
+    private final IdentityHashMap<Card, Integer> index = new IdentityHashMap<>();
+    private InventoryEvents events;
+    private InventoryListener listener;
+
+    /**
+     * @return the cards of the collection with a count above zero, kept in step with the collection.
+     */
+    public static CardListModel inStock(Collection collection) {
+        return inStock(collection.getEvents(), collection.getCardsInStock(), card -> true);
+    }
+
+    /**
+     * @return the cards of the collection with a count above zero that a binder
+     *         accepts, kept in step with the collection.
+     */
+    public static CardListModel eligibleFor(Collection collection, Binder binder) {
+        return inStock(collection.getEvents(), collection.getCardsEligibleFor(binder), binder::isCardAllowed);
+    }
+
+    private static CardListModel inStock(InventoryEvents events, List<Card> initial, Predicate<Card> accepts) {
+        CardListModel model = new CardListModel();
+        for (Card card : initial) {
+            model.add(card);
+        }
+        model.listen(events, new InventoryListener() {
+            @Override
+            public void cardAdded(Card card) {
+                if (card.getCount() > 0 && accepts.test(card)) model.apply(() -> model.add(card));
+            }
+
+            @Override
+            public void cardRemoved(Card card) {
+                model.apply(() -> model.remove(card));
+            }
+
+            @Override
+            public void countChanged(Card card, int oldCount, int newCount) {
+                if (!accepts.test(card)) return;
+                model.apply(() -> {
+                    if (newCount <= 0) {
+                        model.remove(card);
+                    } else if (!model.contains(card)) {
+                        model.add(card);
+                    } else {
+                        model.changed(card);
+                    }
+                });
+            }
+        });
+        return model;
+    }
+
+    /**
+     * @return the cards in a binder, starting in name order, kept in step with the binder.
+     */
+    public static CardListModel of(Binder binder) {
+        CardListModel model = new CardListModel();
+        for (Card card : binder.getCardsByName()) {
+            model.add(card);
+        }
+        model.listen(binder.getEvents(), new InventoryListener() {
+            @Override
+            public void binderCardAdded(Binder b, Card card) {
+                if (b == binder) model.apply(() -> model.add(card));
+            }
+
+            @Override
+            public void binderCardRemoved(Binder b, Card card) {
+                if (b == binder) model.apply(() -> model.remove(card));
+            }
+        });
+        return model;
+    }
+
+    /**
+     * @return the cards in a deck, kept in step with the deck.
+     */
+    public static CardListModel of(Deck deck) {
+        CardListModel model = new CardListModel();
+        for (Card card : deck.getCards()) {
+            model.add(card);
+        }
+        model.listen(deck.getEvents(), new InventoryListener() {
+            @Override
+            public void deckCardAdded(Deck d, Card card) {
+                if (d == deck) model.apply(() -> model.add(card));
+            }
+
+            @Override
+            public void deckCardRemoved(Deck d, Card card) {
+                if (d == deck) model.apply(() -> model.remove(card));
+            }
+        });
+        return model;
+    }
+
+    private void listen(InventoryEvents events, InventoryListener listener) {
+        this.events = events;
+        this.listener = listener;
+        events.addListener(listener);
+    }
+
+    /**
+     * Runs a change now if on the event dispatch thread, otherwise queues it there,
+     * since model events may come from worker threads.
+     */
+    private void apply(Runnable change) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            change.run();
+        } else {
+            SwingUtilities.invokeLater(change);
+        }
+    }
+
+    /**
+     * Stops following inventory events.
+     */
+    public void dispose() {
+        if (listener != null) {
+            events.removeListener(listener);
+            listener = null;
+        }
+    }
+
+    public boolean contains(Card card) {
+        return index.containsKey(card);
+    }
+
+    public void add(Card card) {
+        if (index.containsKey(card)) return;
+        int i = cards.size();
+        cards.add(card);
+        index.put(card, i);
+        fireIntervalAdded(this, i, i);
+    }
+
+    public void remove(Card card) {
+        Integer i = index.remove(card);
+        if (i == null) return;
+        int last = cards.size() - 1;
+        Card moved = cards.remove(last);
+        if (i != last) {
+            cards.set(i, moved);
+            index.put(moved, i);
+        }
+        fireIntervalRemoved(this, last, last);
+        if (i != last) {
+            fireContentsChanged(this, i, i);
+        }
+    }
+
+    /**
+     * Repaints the row of a card whose details changed, e.g. its count.
+     */
+    public void changed(Card card) {
+        Integer i = index.get(card);
+        if (i != null) {
+            fireContentsChanged(this, i, i);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return cards.size();
+    }
+
+    @Override
+    public Card getElementAt(int i) {
+        return cards.get(i);
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index from a card to the binders and decks holding copies of it,
+ * with the number of copies in each, so "where are my copies of X" is a map
+ * lookup instead of a scan of every binder and deck.
+ *
+ * Kept up to date as an InventoryListener: Binder.addCard, removeCard and
+ * returnAllCards and Deck.addCard, removeCardByIndex and
+ * returnAllCardsToCollection all report their changes, under the container's
+ * lock, and a deleted or sold binder or deck is dropped. Cards are keyed by
+ * their interned CardDefinition.
+ */
+public class CardLocations implements InventoryListener {
+
+    private final ConcurrentHashMap<CardDefinition, ConcurrentHashMap<Binder, Integer>> binders = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CardDefinition, ConcurrentHashMap<Deck, Integer>> decks = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes the cards already in the given binders and decks, e.g. just loaded.
+     */
+    public CardLocations(Iterable<Binder> binders, Iterable<Deck> decks) {
+        for (Binder binder : binders) {
+            for (Card card : binder.getCards()) {
+                binderCardAdded(binder, card);
+            }
+        }
+        for (Deck deck : decks) {
+            for (Card card : deck.getCards()) {
+                deckCardAdded(deck, card);
+            }
+        }
+    }
+
+    /**
+     * @return the binders holding copies of a card, with how many each holds; empty if none.
+     */
+    public Map<Binder, Integer> bindersHolding(CardDefinition card) {
+        Map<Binder, Integer> held = binders.get(card);
+        return held == null ? Collections.emptyMap() : Collections.unmodifiableMap(held);
+    }
+
+    /**
+     * @return the decks holding a card, with how many copies each holds; empty if none.
+     */
+    public Map<Deck, Integer> decksHolding(CardDefinition card) {
+        Map<Deck, Integer> held = decks.get(card);
+        return held == null ? Collections.emptyMap() : Collections.unmodifiableMap(held);
+    }
+
+    /**
+     * @return true if any binder or deck holds a copy of the card.
+     */
+    public boolean isPlaced(CardDefinition card) {
+        return binders.containsKey(card) || decks.containsKey(card);
+    }
+
+    private static <C> void adjust(ConcurrentHashMap<CardDefinition, ConcurrentHashMap<C, Integer>> index,
+                                   C container, CardDefinition card, int delta) {
+        // compute on the outer map keeps the inner map and its removal consistent
+        index.compute(card, (key, held) -> {
+            if (held == null) {
+                if (delta < 0) return null;
+                held = new ConcurrentHashMap<>();
+            }
+            held.compute(container, (c, n) -> {
+                int copies = (n == null ? 0 : n) + delta;
+                return copies > 0 ? copies : null;
+            });
+            return held.isEmpty() ? null : held;
+        });
+    }
+
+    @Override
+    public void binderCardAdded(Binder binder, Card card) {
+        adjust(binders, binder, card.getDefinition(), 1);
+    }
+
+    @Override
+    public void binderCardRemoved(Binder binder, Card card) {
+        adjust(binders, binder, card.getDefinition(), -1);
+    }
+
+    @Override
+    public void binderRemoved(Binder binder) {
+        // A sold binder keeps its cards; a deleted one has already returned them
+        for (Card card : binder.getCards()) {
+            binderCardRemoved(binder, card);
+        }
+    }
+
+    @Override
+    public void deckCardAdded(Deck deck, Card card) {
+        adjust(decks, deck, card.getDefinition(), 1);
+    }
+
+    @Override
+    public void deckCardRemoved(Deck deck, Card card) {
+        adjust(decks, deck, card.getDefinition(), -1);
+    }
+
+    @Override
+    public void deckRemoved(Deck deck) {
+        for (Card card : deck.getCards()) {
+            deckCardRemoved(deck, card);
+        }
+    }
+}
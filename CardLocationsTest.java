@@ -0,0 +1,135 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks that CardLocations stays equal to a count over every binder and
+ * deck while random moves, deletes and sales run, and that each service
+ * only hears its own inventory's changes: another service's moves do not
+ * reach its index, and after close() its own do not either. Exits with
+ * status 1 if a check fails.
+ *
+ * Usage: java CardLocationsTest [--steps n]
+ */
+public class CardLocationsTest {
+
+    private static final int CARDS = 8;
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        int steps = 5_000;
+        if (args.length == 2 && args[0].equals("--steps")) {
+            steps = Integer.parseInt(args[1]);
+        } else if (args.length > 0) {
+            System.out.println("Usage: java CardLocationsTest [--steps n]");
+            return;
+        }
+
+        randomMoves(steps);
+        separateServices();
+        System.out.println(failures == 0 ? "All location checks passed." : failures + " location checks failed.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void randomMoves(int steps) {
+        InventoryService service = new InventoryService();
+        for (int i = 0; i < CARDS; i++) {
+            service.addCard("Card " + i, "common", null, 100 + i);
+            service.setCardCount("Card " + i, 6);
+        }
+        String[] binders = {"b0", "b1", "b2"};
+        String[] decks = {"d0", "d1"};
+        for (String binder : binders) service.createBinder(binder, "non-curated");
+        for (String deck : decks) service.createDeck(deck, "normal");
+
+        Random random = new Random(7);
+        for (int step = 0; step < steps; step++) {
+            String card = "Card " + random.nextInt(CARDS);
+            String binder = binders[random.nextInt(binders.length)];
+            String deck = decks[random.nextInt(decks.length)];
+            switch (random.nextInt(8)) {
+                case 0: case 1: service.moveToBinder(card, binder); break;
+                case 2: service.returnFromBinder(binder, card); break;
+                case 3: service.moveToDeck(card, deck); break;
+                case 4: service.returnFromDeck(deck, card); break;
+                case 5: service.addCopy(card); break;
+                case 6:
+                    service.deleteBinder(binder);
+                    service.createBinder(binder, "non-curated");
+                    break;
+                default:
+                    service.deleteDeck(deck);
+                    service.createDeck(deck, "normal");
+                    break;
+            }
+            if (step % 250 == 0 && !matchesContents(service)) {
+                check(false, "index matches the binders and decks after step " + step);
+                return;
+            }
+        }
+        check(matchesContents(service), "index matches the binders and decks at the end");
+    }
+
+    /**
+     * @return whether the index gives, for every card, exactly the copies found by looking in each container.
+     */
+    private static boolean matchesContents(InventoryService service) {
+        CardLocations locations = service.getLocations();
+        for (int i = 0; i < CARDS; i++) {
+            CardDefinition definition = service.findCard("Card " + i).getDefinition();
+            Map<Binder, Integer> inBinders = new HashMap<>();
+            for (Binder binder : service.getBinders()) {
+                for (Card card : binder.getCards()) {
+                    if (card.getDefinition() == definition) inBinders.merge(binder, 1, Integer::sum);
+                }
+            }
+            Map<Deck, Integer> inDecks = new HashMap<>();
+            for (Deck deck : service.getDecks()) {
+                for (Card card : deck.getCards()) {
+                    if (card.getDefinition() == definition) inDecks.merge(deck, 1, Integer::sum);
+                }
+            }
+            if (!inBinders.equals(locations.bindersHolding(definition))
+                    || !inDecks.equals(locations.decksHolding(definition))
+                    || locations.isPlaced(definition) != (!inBinders.isEmpty() || !inDecks.isEmpty())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void separateServices() {
+        InventoryService first = new InventoryService();
+        InventoryService second = new InventoryService();
+        for (InventoryService service : new InventoryService[] {first, second}) {
+            service.addCard("Dragon", "rare", "full-art", 1_000);
+            service.setCardCount("Dragon", 3);
+            service.createBinder("Keep", "non-curated");
+        }
+        CardDefinition dragon = first.findCard("Dragon").getDefinition();
+        check(dragon == second.findCard("Dragon").getDefinition(), "both services share the definition");
+
+        first.moveToBinder("Dragon", "Keep");
+        check(first.getLocations().bindersHolding(dragon).size() == 1, "the first service sees its move");
+        check(second.getLocations().bindersHolding(dragon).isEmpty(), "the second service does not");
+
+        first.close();
+        first.findBinder("Keep").addCard(new Card(dragon, 1));
+        check(first.getLocations().bindersHolding(dragon).get(first.findBinder("Keep")) == 1,
+                "a closed service no longer follows its binders");
+        second.moveToBinder("Dragon", "Keep");
+        check(second.getLocations().bindersHolding(dragon).get(second.findBinder("Keep")) == 1,
+                "the second service still follows its own");
+        second.close();
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
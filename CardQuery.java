@@ -0,0 +1,304 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/**
+ * A filtered, sorted page of the collection, e.g.
+ * <pre>
+ * collection.query().namePrefix("dra").rarities(Rarity.RARE).sortBy(CardQuery.Sort.VALUE_DESC)
+ *         .offset(20).limit(20).list();
+ * </pre>
+ * All filters must hold; none set means every card.
+ *
+ * A small planner picks where to read the rows from instead of scanning them:
+ * <ul>
+ * <li>a name prefix reads the matching range of the store's name order;</li>
+ * <li>a value range reads the matching range of the value order;</li>
+ * <li>otherwise rarity, variant and stock come from the bitmap indexes, and a
+ *     NAME or VALUE sort walks that order.</li>
+ * </ul>
+ * The bitmap filters are applied to every plan as one bit test per row. When
+ * the rows come out already in the requested order, reading stops once the
+ * page is full, so page N costs about offset + limit rows, not the whole
+ * collection. explain() describes the plan chosen.
+ */
+public class CardQuery {
+
+    /** Result order. */
+    public enum Sort {
+        /** Storage order: cheapest, but changes as cards are removed. */
+        NONE,
+        /** By name, ignoring case. */
+        NAME,
+        /** By actual value, cheapest first; ties by name. */
+        VALUE,
+        /** By actual value, dearest first; ties by name. */
+        VALUE_DESC,
+        /** By count, most copies first; ties by name. */
+        COUNT_DESC
+    }
+
+    private enum Path { NAME_RANGE, VALUE_RANGE, NAME_ORDER, VALUE_ORDER, BITMAP }
+
+    private final CardStore store;
+    private String prefix;
+    private int rarities = CardBitmaps.ALL;
+    private int variants = CardBitmaps.ALL;
+    private long minValue = Long.MIN_VALUE;
+    private long maxValue = Long.MAX_VALUE;
+    private int minCount;
+    private Sort sort = Sort.NONE;
+    private int offset;
+    private int limit = Integer.MAX_VALUE;
+
+    CardQuery(CardStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Keeps cards whose name starts with prefix, ignoring case.
+     */
+    public CardQuery namePrefix(String prefix) {
+        this.prefix = prefix == null || prefix.isEmpty() ? null : prefix;
+        return this;
+    }
+
+    public CardQuery rarities(Rarity... rarities) {
+        this.rarities = CardBitmaps.mask(rarities);
+        return this;
+    }
+
+    public CardQuery variants(Variant... variants) {
+        this.variants = CardBitmaps.mask(variants);
+        return this;
+    }
+
+    /**
+     * Keeps cards whose actual value is from minCents to maxCents, inclusive.
+     * A range with minCents above maxCents matches no card.
+     */
+    public CardQuery valueBetween(long minCents, long maxCents) {
+        this.minValue = minCents;
+        this.maxValue = maxCents;
+        return this;
+    }
+
+    /**
+     * Keeps cards with at least this many copies in the collection; 1 means in stock.
+     */
+    public CardQuery minCount(int minCount) {
+        this.minCount = minCount;
+        return this;
+    }
+
+    public CardQuery sortBy(Sort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    /**
+     * Skips the first offset matches.
+     */
+    public CardQuery offset(int offset) {
+        this.offset = Math.max(0, offset);
+        return this;
+    }
+
+    /**
+     * Returns at most limit matches.
+     */
+    public CardQuery limit(int limit) {
+        this.limit = Math.max(0, limit);
+        return this;
+    }
+
+    /**
+     * @return the requested page of matching cards.
+     */
+    public List<Card> list() {
+        return store.read(() -> run(offset, limit, false).cards);
+    }
+
+    /**
+     * @return how many cards match the filters, ignoring offset and limit.
+     */
+    public int count() {
+        return store.read(() -> run(0, Integer.MAX_VALUE, true).matched);
+    }
+
+    /**
+     * @return a short description of how the query will be run, e.g. "name range, bitmap filter, early stop".
+     */
+    public String explain() {
+        Path path = plan();
+        StringBuilder out = new StringBuilder();
+        switch (path) {
+            case NAME_RANGE: out.append("name range"); break;
+            case VALUE_RANGE: out.append("value range"); break;
+            case NAME_ORDER: out.append("name order"); break;
+            case VALUE_ORDER: out.append("value order"); break;
+            default: out.append("bitmap scan"); break;
+        }
+        if (path != Path.BITMAP && bitmapFilter()) out.append(", bitmap filter");
+        out.append(inOrder(path) ? ", early stop" : ", sort " + sort.name().toLowerCase());
+        return out.toString();
+    }
+
+    private boolean hasValueRange() {
+        return minValue != Long.MIN_VALUE || maxValue != Long.MAX_VALUE;
+    }
+
+    private boolean bitmapFilter() {
+        return rarities != CardBitmaps.ALL || variants != CardBitmaps.ALL || minCount > 0 || hasValueRange();
+    }
+
+    private Path plan() {
+        if (prefix != null) return Path.NAME_RANGE;
+        if (hasValueRange()) return Path.VALUE_RANGE;
+        if (sort == Sort.NAME) return Path.NAME_ORDER;
+        if (sort == Sort.VALUE || sort == Sort.VALUE_DESC) return Path.VALUE_ORDER;
+        return Path.BITMAP;
+    }
+
+    /**
+     * @return true if a path yields rows already in the requested order, so reading can stop early.
+     */
+    private boolean inOrder(Path path) {
+        switch (sort) {
+            case NONE: return true;
+            case NAME: return path == Path.NAME_RANGE || path == Path.NAME_ORDER;
+            case VALUE:
+            case VALUE_DESC: return path == Path.VALUE_RANGE || path == Path.VALUE_ORDER;
+            default: return false;
+        }
+    }
+
+    private static final class Page {
+        final ArrayList<Card> cards = new ArrayList<>();
+        int matched;
+    }
+
+    /**
+     * A match waiting to be sorted, with its count read once when it was
+     * collected: counts keep changing under the read lock in concurrent mode,
+     * and a comparator reading them live could contradict itself mid-sort.
+     */
+    private static final class Match {
+        final Card card;
+        final int count;
+
+        Match(Card card, int count) {
+            this.card = card;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Runs the plan under the store's read lock.
+     */
+    private Page run(int skip, int take, boolean countOnly) {
+        if (minValue > maxValue) {
+            return new Page();
+        }
+        Path path = plan();
+        boolean ordered = inOrder(path);
+        long[] allowed = bitmapFilter() ? store.selectRows(rarities, variants,
+                hasValueRange() ? CardBitmaps.bandsBetween(minValue, maxValue) : CardBitmaps.ALL, minCount > 0) : null;
+        Page page = new Page();
+        // Rows are collected in order when the path gives it, otherwise all matches are sorted first
+        ArrayList<Match> matches = ordered ? null : new ArrayList<>();
+
+        PrimitiveIterator.OfInt rows = null;
+        switch (path) {
+            case NAME_RANGE:
+                rows = store.rowsByName(prefix);
+                break;
+            case NAME_ORDER:
+                rows = store.rowsByName(null);
+                break;
+            case VALUE_RANGE:
+            case VALUE_ORDER:
+                rows = store.rowsByValue(minValue, maxValue, sort == Sort.VALUE_DESC);
+                break;
+            default:
+                break;
+        }
+
+        if (rows != null) {
+            while (rows.hasNext()) {
+                int row = rows.nextInt();
+                if (path == Path.NAME_RANGE && !store.getName(row).regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    break;
+                }
+                if (!matches(row, allowed)) continue;
+                if (!accept(page, matches, row, skip, take, countOnly)) break;
+            }
+        } else {
+            long[] words = allowed != null ? allowed : store.selectRows(CardBitmaps.ALL, CardBitmaps.ALL, CardBitmaps.ALL, false);
+            scan:
+            for (int w = 0; w < words.length; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if (!matches(row, null)) continue;
+                    if (!accept(page, matches, row, skip, take, countOnly)) break scan;
+                }
+            }
+        }
+
+        if (matches != null) {
+            matches.sort(comparator());
+            for (int i = skip; i < matches.size() && page.cards.size() < take; i++) {
+                page.cards.add(matches.get(i).card);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Counts a matching row and, when rows arrive in order, adds it to the page.
+     *
+     * @return false once the page is full and nothing more is needed.
+     */
+    private boolean accept(Page page, ArrayList<Match> matches, int row, int skip, int take, boolean countOnly) {
+        page.matched++;
+        if (countOnly) return true;
+        if (matches != null) {
+            matches.add(new Match(store.viewAt(row), store.getCount(row)));
+            return true;
+        }
+        if (page.matched > skip) {
+            page.cards.add(store.viewAt(row));
+        }
+        return page.cards.size() < take;
+    }
+
+    /**
+     * Checks the filters the chosen path has not already applied.
+     */
+    private boolean matches(int row, long[] allowed) {
+        if (allowed != null && (allowed[row >>> 6] & (1L << row)) == 0) return false;
+        if (hasValueRange()) {
+            long value = store.getActualValueCents(row);
+            if (value < minValue || value > maxValue) return false;
+        }
+        if (minCount > 1 && store.getCount(row) < minCount) return false;
+        return prefix == null || store.getName(row).regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    /**
+     * Orders matches by the requested sort. Names and values do not change while
+     * a row exists; counts are compared as captured in each Match.
+     */
+    private Comparator<Match> comparator() {
+        Comparator<Match> byName = Comparator.comparing(m -> m.card.getName(), String.CASE_INSENSITIVE_ORDER);
+        switch (sort) {
+            case NAME: return byName;
+            case VALUE: return Comparator.comparingLong((Match m) -> m.card.getActualValueCents()).thenComparing(byName);
+            case VALUE_DESC:
+                return Comparator.comparingLong((Match m) -> m.card.getActualValueCents()).reversed().thenComparing(byName);
+            case COUNT_DESC: return Comparator.comparingInt((Match m) -> m.count).reversed().thenComparing(byName);
+            default: return (a, b) -> 0;
+        }
+    }
+}
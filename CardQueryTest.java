@@ -0,0 +1,199 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Checks CardQuery against filtering and sorting every card by hand: random
+ * queries over a collection that keeps changing must give the same page and
+ * count whatever plan the planner picks. Also checks which plan is chosen for
+ * typical queries, that equal values stay in name order in both value
+ * sorts, and that an inverted value range is empty. Exits with status 1 if a
+ * check fails.
+ *
+ * Usage: java CardQueryTest
+ */
+public class CardQueryTest {
+
+    private static final String[] PREFIXES = {"Dra", "dr", "Bo", "x", "Z", "ab"};
+
+    private static final Comparator<Card> BY_NAME = Comparator.comparing(Card::getName, String.CASE_INSENSITIVE_ORDER);
+
+    private static int failures;
+
+    public static void main(String[] args) throws InterruptedException {
+        randomQueries(new Random(3));
+        plans();
+        ties();
+        emptyRange();
+        countSortWhileCounting();
+        System.out.println(failures == 0 ? "All query checks passed." : failures + " query checks failed.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void randomQueries(Random random) {
+        Collection collection = new Collection(new ArrayList<>());
+        Rarity[] rarities = Rarity.values();
+        Variant[] variants = Variant.values();
+        CardQuery.Sort[] sorts = CardQuery.Sort.values();
+        List<String> names = new ArrayList<>();
+        int wrong = 0;
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < 200; i++) {
+                String name = PREFIXES[random.nextInt(PREFIXES.length)] + (char) ('a' + random.nextInt(26))
+                        + random.nextInt(1000);
+                // Few distinct values, so many cards tie on value
+                Card card = new Card(name, rarities[random.nextInt(rarities.length)],
+                        variants[random.nextInt(variants.length)], 100 * (1 + random.nextInt(300)));
+                if (collection.addCard(card)) {
+                    names.add(name);
+                    card.setCount(random.nextInt(4));
+                }
+            }
+            for (int i = 0; i < 60; i++) {
+                collection.removeCard(collection.findCardByName(names.remove(random.nextInt(names.size()))));
+            }
+
+            for (int q = 0; q < 50; q++) {
+                String prefix = random.nextInt(3) == 0 ? PREFIXES[random.nextInt(PREFIXES.length)].toLowerCase() : null;
+                Rarity rarity = random.nextInt(3) == 0 ? rarities[random.nextInt(rarities.length)] : null;
+                Variant variant = random.nextInt(4) == 0 ? variants[random.nextInt(variants.length)] : null;
+                long min = random.nextInt(3) == 0 ? random.nextInt(50_000) : Long.MIN_VALUE;
+                long max = min != Long.MIN_VALUE ? min + random.nextInt(80_000) : Long.MAX_VALUE;
+                int minCount = random.nextInt(4) == 0 ? random.nextInt(3) : 0;
+                CardQuery.Sort sort = sorts[1 + random.nextInt(sorts.length - 1)];
+                int offset = random.nextInt(20);
+                int limit = 1 + random.nextInt(30);
+
+                CardQuery query = collection.query().namePrefix(prefix).minCount(minCount).sortBy(sort)
+                        .offset(offset).limit(limit);
+                if (rarity != null) query.rarities(rarity);
+                if (variant != null) query.variants(variant);
+                if (min != Long.MIN_VALUE) query.valueBetween(min, max);
+
+                List<Card> all = collection.getCards().stream()
+                        .filter(card -> prefix == null || card.getName().toLowerCase().startsWith(prefix))
+                        .filter(card -> rarity == null || card.getRarityType() == rarity)
+                        .filter(card -> variant == null || card.getVariantType() == variant)
+                        .filter(card -> card.getActualValueCents() >= min && card.getActualValueCents() <= max)
+                        .filter(card -> card.getCount() >= minCount)
+                        .sorted(expectedOrder(sort))
+                        .collect(Collectors.toList());
+                List<Card> expected = all.subList(Math.min(offset, all.size()), Math.min(offset + limit, all.size()));
+                if (!query.list().equals(expected) || query.count() != all.size()) {
+                    if (wrong++ < 5) {
+                        System.out.println("  " + query.explain() + ", prefix " + prefix + ", " + rarity + ", "
+                                + variant + ", " + min + ".." + max + ", count >= " + minCount + ", " + sort);
+                    }
+                }
+            }
+        }
+        check(wrong == 0, wrong + " of 2000 random queries differ from a full scan");
+    }
+
+    private static Comparator<Card> expectedOrder(CardQuery.Sort sort) {
+        switch (sort) {
+            case NAME: return BY_NAME;
+            case VALUE: return Comparator.comparingLong(Card::getActualValueCents).thenComparing(BY_NAME);
+            case VALUE_DESC:
+                return Comparator.comparingLong(Card::getActualValueCents).reversed().thenComparing(BY_NAME);
+            default: return Comparator.comparingInt(Card::getCount).reversed().thenComparing(BY_NAME);
+        }
+    }
+
+    private static void plans() {
+        Collection collection = new Collection(new ArrayList<>());
+        collection.addCard(new Card("Dragon", Rarity.RARE, Variant.NORMAL, 1_000));
+        check(collection.query().namePrefix("dr").sortBy(CardQuery.Sort.NAME).explain().startsWith("name range"),
+                "a name prefix reads the name order");
+        check(collection.query().valueBetween(100, 500).sortBy(CardQuery.Sort.VALUE_DESC).explain()
+                .startsWith("value range"), "a value range reads the value order");
+        check(collection.query().sortBy(CardQuery.Sort.VALUE).explain().startsWith("value order"),
+                "a value sort walks the value order");
+        check(collection.query().rarities(Rarity.RARE).explain().startsWith("bitmap scan"),
+                "a rarity filter alone scans the bitmaps");
+    }
+
+    private static void ties() {
+        Collection collection = new Collection(new ArrayList<>());
+        for (String name : new String[] {"delta", "Alpha", "charlie", "Bravo"}) {
+            collection.addCard(new Card(name, Rarity.COMMON, Variant.NORMAL, 500));
+        }
+        collection.addCard(new Card("Echo", Rarity.COMMON, Variant.NORMAL, 900));
+        collection.addCard(new Card("Foxtrot", Rarity.COMMON, Variant.NORMAL, 100));
+
+        check(names(collection.query().sortBy(CardQuery.Sort.VALUE).list())
+                        .equals("Foxtrot Alpha Bravo charlie delta Echo"),
+                "VALUE puts equal values in name order");
+        check(names(collection.query().sortBy(CardQuery.Sort.VALUE_DESC).list())
+                        .equals("Echo Alpha Bravo charlie delta Foxtrot"),
+                "VALUE_DESC keeps equal values in name order");
+        CardQuery page = collection.query().valueBetween(500, 900).sortBy(CardQuery.Sort.VALUE_DESC).offset(1).limit(2);
+        check(names(page.list()).equals("Alpha Bravo"),
+                "a descending value range pages through ties in name order");
+    }
+
+    private static void emptyRange() {
+        Collection collection = new Collection(new ArrayList<>());
+        collection.addCard(new Card("Dragon", Rarity.RARE, Variant.NORMAL, 1_000));
+        CardQuery query = collection.query().valueBetween(2_000, 500).sortBy(CardQuery.Sort.VALUE);
+        check(query.list().isEmpty() && query.count() == 0, "a value range with min above max matches nothing");
+    }
+
+    /**
+     * Sorts by count while other threads change counts; the sort must not find
+     * its comparator contradicting itself.
+     */
+    private static void countSortWhileCounting() throws InterruptedException {
+        Collection collection = new Collection(new ArrayList<>());
+        collection.enableConcurrency();
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Card card = new Card("Busy " + i, Rarity.COMMON, Variant.NORMAL, 100);
+            collection.addCard(card);
+            card.setCount(i % 7);
+            cards.add(card);
+        }
+        Thread[] clerks = new Thread[3];
+        AtomicBoolean stop = new AtomicBoolean();
+        for (int t = 0; t < clerks.length; t++) {
+            Random random = new Random(t);
+            clerks[t] = new Thread(() -> {
+                while (!stop.get()) {
+                    Card card = cards.get(random.nextInt(cards.size()));
+                    if (random.nextBoolean()) card.increaseCount();
+                    else card.tryDecreaseCount();
+                }
+            });
+            clerks[t].start();
+        }
+        int thrown = 0;
+        for (int i = 0; i < 200; i++) {
+            try {
+                collection.query().sortBy(CardQuery.Sort.COUNT_DESC).limit(50).list();
+            } catch (IllegalArgumentException e) {
+                thrown++;
+            }
+        }
+        stop.set(true);
+        for (Thread clerk : clerks) {
+            clerk.join();
+        }
+        check(thrown == 0, "sorting by count threw " + thrown + " times while counts changed");
+    }
+
+    private static String names(List<Card> cards) {
+        return cards.stream().map(Card::getName).collect(Collectors.joining(" "));
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
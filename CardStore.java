@@ -0,0 +1,797 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Column-oriented storage behind a Collection.
+ * Each card is a row spread over primitive arrays: a dictionary-coded name id,
+ * its rarity and variant ordinals, its base and actual value in cents, and its
+ * count, so scans and snapshots read plain columns. The row's CardDefinition is
+ * only looked up in the CardCatalog when a caller asks for it, as are Card
+ * objects, which then act as views of their row.
+ * Rows are removed by moving the last row into the gap, so row order is not stable.
+ * CardBitmaps indexes the rows by rarity, variant, value band and stock, for
+ * filtered selections that do not look at every row, and trees of the names'
+ * collation keys and of the actual values keep the rows in name order and in
+ * value order as they are added and removed.
+ *
+ * By default the store is for one thread. After enableConcurrency() several
+ * threads may use it: lookups, scans and count changes share a read lock and
+ * run in parallel, counts change through atomic updates, and only adding or
+ * removing rows takes the write lock. Name-keyed compound operations, such as
+ * find-then-add, lock one of STRIPES locks chosen by the name's hash.
+ * Row-indexed getters take no lock and are only stable while rows are not
+ * being added or removed.
+ */
+public class CardStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Number of name-keyed locks in concurrent mode; a power of two. */
+    static final int STRIPES = 64;
+
+    private static final VarHandle COUNT = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle VIEW = MethodHandles.arrayElementVarHandle(Card[].class);
+    private static final VarHandle DEFINITION = MethodHandles.arrayElementVarHandle(CardDefinition[].class);
+
+    // Where changes to the cards are reported; see Collection
+    private final InventoryEvents events;
+
+    // Guards the row layout and name dictionary; a no-op lock until enableConcurrency()
+    private ReadWriteLock layout = NoLock.INSTANCE;
+    private Lock[] stripes;
+
+    // Name dictionary: open-addressed table of id + 1 (0 = empty) probed by case-folded hash,
+    // id -> name, id -> collation key, id -> row holding it (-1 if none). Ids are never reused.
+    private int[] nameSlots = new int[INITIAL_CAPACITY * 2];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] collationKeys = new String[INITIAL_CAPACITY];
+    private int[] rowOfName = new int[INITIAL_CAPACITY];
+    private int nameCount;
+
+    // Row columns
+    private int[] nameId = new int[INITIAL_CAPACITY];
+    private byte[] rarity = new byte[INITIAL_CAPACITY];
+    private byte[] variant = new byte[INITIAL_CAPACITY];
+    private long[] baseValueCents = new long[INITIAL_CAPACITY];
+    private long[] actualValueCents = new long[INITIAL_CAPACITY];
+    private CardDefinition[] definitions = new CardDefinition[INITIAL_CAPACITY];
+    private int[] count = new int[INITIAL_CAPACITY];
+    private Card[] views = new Card[INITIAL_CAPACITY];
+    private final CardBitmaps bitmaps = new CardBitmaps(INITIAL_CAPACITY);
+    private int size;
+
+    // Collation key -> name id of every name that has a row; changed with the rows, under the write lock
+    private final TreeMap<String, Integer> nameOrder = new TreeMap<>();
+
+    // Actual value -> collation key -> name id of every row, kept like nameOrder
+    private final TreeMap<Long, TreeMap<String, Integer>> valueOrder = new TreeMap<>();
+
+    /**
+     * @param events where changes to the stored cards are reported.
+     */
+    CardStore(InventoryEvents events) {
+        this.events = events;
+    }
+
+    InventoryEvents events() {
+        return events;
+    }
+
+    /**
+     * Makes the store safe for use from several threads. Call it before the
+     * store is shared; it cannot be turned off.
+     */
+    synchronized void enableConcurrency() {
+        if (stripes != null) return;
+        Lock[] locks = new Lock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        stripes = locks;
+        layout = new ReentrantReadWriteLock();
+    }
+
+    public boolean isConcurrent() {
+        return stripes != null;
+    }
+
+    /**
+     * @return the lock serialising compound operations on a name; a no-op lock
+     *         unless the store is concurrent. Names equal ignoring case share a lock.
+     */
+    Lock stripeFor(String name) {
+        return stripeAt(stripeIndex(name));
+    }
+
+    /**
+     * @return the index of the lock for a name; code locking several names takes them in index order.
+     */
+    static int stripeIndex(String name) {
+        return foldedHash(name) & (STRIPES - 1);
+    }
+
+    Lock stripeAt(int index) {
+        Lock[] locks = stripes;
+        return locks == null ? NoLock.INSTANCE : locks[index];
+    }
+
+    /**
+     * @return number of rows (distinct cards) in the store.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the row of a card by name, ignoring case.
+     *
+     * @return the row, or -1 if no card has that name.
+     */
+    public int find(String name) {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            int id = findNameId(name);
+            return id < 0 ? -1 : rowOfName[id];
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Finds a card by name, ignoring case, and returns its view in one step,
+     * so the row cannot move in between.
+     *
+     * @return the card, or null if no card has that name.
+     */
+    public Card findCard(String name) {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            int id = findNameId(name);
+            int row = id < 0 ? -1 : rowOfName[id];
+            return row < 0 ? null : viewOf(row);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Appends a card as a new row. The card becomes the view of that row,
+     * so later count changes on it go to the count column.
+     *
+     * @return the new row, or -1 if a card with the same name is already stored.
+     */
+    int append(Card card) {
+        Lock write = layout.writeLock();
+        write.lock();
+        try {
+            int id = internName(card.getName());
+            if (rowOfName[id] >= 0) {
+                return -1;
+            }
+            CardDefinition definition = card.getDefinition();
+            int row = appendRow(id, definition.getRarity(), definition.getVariant(),
+                    definition.getBaseValueCents(), card.getCount());
+            definitions[row] = definition;
+            views[row] = card;
+            card.bind(this, row);
+            return row;
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Appends a row from its column values without creating a card view.
+     *
+     * @return the new row, or -1 if a card with the same name is already stored.
+     */
+    int appendRow(String name, Rarity rarity, Variant variant, long baseValueCents, int count) {
+        Lock write = layout.writeLock();
+        write.lock();
+        try {
+            int id = internName(name);
+            if (rowOfName[id] >= 0) {
+                return -1;
+            }
+            CardDefinition.checkBaseValue(baseValueCents);
+            return appendRow(id, rarity, Card.validateVariant(rarity, variant), baseValueCents, count);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Adds copies of a card with a single name probe: appends a row if the name is new,
+     * otherwise adds count to the existing row. Used by bulk imports; callers hold the
+     * name's lock. If anyone is listening, the card added or the count changed is
+     * reported after the write lock is released, with the card's view taken under it.
+     *
+     * @return the row holding the card shifted left by one, with the low bit set if the
+     *         row was created; or -1 if the name is stored with a different rarity,
+     *         variant or base value, or the count would overflow.
+     */
+    int mergeRow(String name, Rarity rarity, Variant variant, long baseValueCents, int count) {
+        Lock write = layout.writeLock();
+        write.lock();
+        int row;
+        boolean created;
+        Card card = null;
+        int newCount;
+        try {
+            int id = internName(name);
+            row = rowOfName[id];
+            created = row < 0;
+            if (created) {
+                CardDefinition.checkBaseValue(baseValueCents);
+                row = appendRow(id, rarity, Card.validateVariant(rarity, variant), baseValueCents, count);
+            } else {
+                if (this.rarity[row] != rarity.ordinal() || this.variant[row] != Card.validateVariant(rarity, variant).ordinal()
+                        || this.baseValueCents[row] != baseValueCents || this.count[row] > Integer.MAX_VALUE - count) {
+                    return -1;
+                }
+                this.count[row] += count;
+                bitmaps.setInStock(row, this.count[row] > 0);
+            }
+            newCount = this.count[row];
+            if (events.hasListeners()) {
+                // Rows may move once the lock is released; a view follows its row
+                card = viewOf(row);
+            }
+        } finally {
+            write.unlock();
+        }
+        if (card != null) {
+            if (created) events.cardAdded(card);
+            else events.countChanged(card, newCount - count, newCount);
+        }
+        return row << 1 | (created ? 1 : 0);
+    }
+
+    private int appendRow(int id, Rarity rarity, Variant variant, long baseValueCents, int count) {
+        if (size == nameId.length) {
+            growRows();
+        }
+        int row = size++;
+        this.nameId[row] = id;
+        this.rowOfName[id] = row;
+        nameOrder.put(collationKeys[id], id);
+        long actual = variant.applyTo(baseValueCents);
+        valueOrder.computeIfAbsent(actual, v -> new TreeMap<>()).put(collationKeys[id], id);
+        this.rarity[row] = (byte) rarity.ordinal();
+        this.variant[row] = (byte) variant.ordinal();
+        this.baseValueCents[row] = baseValueCents;
+        this.actualValueCents[row] = actual;
+        this.definitions[row] = null;
+        this.count[row] = count;
+        bitmaps.add(row, rarity, variant, actualValueCents[row], count > 0);
+        return row;
+    }
+
+    /**
+     * Removes a row, moving the last row into its place.
+     * The removed row's card view, if any, keeps its count and is detached.
+     */
+    void remove(int row) {
+        Lock write = layout.writeLock();
+        write.lock();
+        try {
+            removeRow(row);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Removes the row a card view is bound to, if it is still bound to this store.
+     *
+     * @return true if the card was removed.
+     */
+    boolean remove(Card card) {
+        Lock write = layout.writeLock();
+        write.lock();
+        try {
+            int row = card.rowIn(this);
+            if (row < 0) {
+                return false;
+            }
+            removeRow(row);
+            return true;
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private void removeRow(int row) {
+        Card removed = views[row];
+        if (removed != null) {
+            removed.unbind(count[row]);
+        }
+        rowOfName[nameId[row]] = -1;
+        nameOrder.remove(collationKeys[nameId[row]]);
+        TreeMap<String, Integer> sameValue = valueOrder.get(actualValueCents[row]);
+        sameValue.remove(collationKeys[nameId[row]]);
+        if (sameValue.isEmpty()) {
+            valueOrder.remove(actualValueCents[row]);
+        }
+
+        int last = --size;
+        if (row != last) {
+            nameId[row] = nameId[last];
+            rarity[row] = rarity[last];
+            variant[row] = variant[last];
+            baseValueCents[row] = baseValueCents[last];
+            actualValueCents[row] = actualValueCents[last];
+            definitions[row] = definitions[last];
+            count[row] = count[last];
+            views[row] = views[last];
+            rowOfName[nameId[row]] = row;
+            if (views[row] != null) {
+                views[row].moveTo(row);
+            }
+            bitmaps.move(last, row);
+        } else {
+            bitmaps.clear(last);
+        }
+        views[last] = null;
+        definitions[last] = null;
+    }
+
+    /**
+     * Returns the card view of a row, creating it on first use.
+     */
+    public Card view(int row) {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            return viewOf(row);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Creates a row's view at most once, even when readers race for it.
+     */
+    private Card viewOf(int row) {
+        Card card = (Card) VIEW.getAcquire(views, row);
+        if (card == null) {
+            Card created = new Card(this, row);
+            card = (Card) VIEW.compareAndExchangeRelease(views, row, null, created);
+            if (card == null) {
+                card = created;
+            }
+        }
+        return card;
+    }
+
+    public String getName(int row) {
+        return names[nameId[row]];
+    }
+
+    /**
+     * @return the shared definition of a row's card, looked up in the catalog on first use.
+     */
+    public CardDefinition getDefinition(int row) {
+        CardDefinition definition = (CardDefinition) DEFINITION.getAcquire(definitions, row);
+        if (definition == null) {
+            definition = CardCatalog.intern(getName(row), getRarity(row), getVariant(row), baseValueCents[row]);
+            DEFINITION.setRelease(definitions, row, definition);
+        }
+        return definition;
+    }
+
+    public Rarity getRarity(int row) {
+        return Rarity.fromOrdinal(rarity[row]);
+    }
+
+    public Variant getVariant(int row) {
+        return Variant.fromOrdinal(variant[row]);
+    }
+
+    public long getBaseValueCents(int row) {
+        return baseValueCents[row];
+    }
+
+    public long getActualValueCents(int row) {
+        return actualValueCents[row];
+    }
+
+    public int getCount(int row) {
+        return (int) COUNT.getOpaque(count, row);
+    }
+
+    /**
+     * @return the count of the row a card view is bound to, or -1 if it is no longer in this store.
+     */
+    int countOf(Card card) {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            int row = card.rowIn(this);
+            return row < 0 ? -1 : (int) COUNT.getVolatile(count, row);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Atomically adds delta to a card's count, stopping at zero and at Integer.MAX_VALUE.
+     * Callers hold the card name's lock, so the in-stock bit follows the count in order.
+     *
+     * @return the count before the change, or -1 if the card is no longer in this store.
+     */
+    int addCount(Card card, int delta) {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            int row = card.rowIn(this);
+            if (row < 0) {
+                return -1;
+            }
+            int old;
+            int updated;
+            do {
+                old = (int) COUNT.getVolatile(count, row);
+                updated = clampCount((long) old + delta);
+            } while (!COUNT.compareAndSet(count, row, old, updated));
+            if ((old > 0) != (updated > 0)) {
+                bitmaps.setInStock(row, updated > 0);
+            }
+            return old;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Atomically sets a card's count. Callers hold the card name's lock, as for addCount.
+     *
+     * @return the count before the change, or -1 if the card is no longer in this store.
+     */
+    int exchangeCount(Card card, int newCount) {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            int row = card.rowIn(this);
+            if (row < 0) {
+                return -1;
+            }
+            int old = (int) COUNT.getAndSet(count, row, newCount);
+            if ((old > 0) != (newCount > 0)) {
+                bitmaps.setInStock(row, newCount > 0);
+            }
+            return old;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    private static int clampCount(long n) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, n));
+    }
+
+    /**
+     * @return the value of every copy held, i.e. the sum of actual value times count, in cents.
+     */
+    public long totalValueCents() {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                int n = getCount(i);
+                if (n > 0) {
+                    total += actualValueCents[i] * n;
+                }
+            }
+            return total;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * @return number of rows whose count is above zero.
+     */
+    public int countInStock() {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            return bitmaps.countInStock(size);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * @return the cards whose count is above zero, in row order.
+     */
+    public List<Card> cardsInStock() {
+        return select(CardBitmaps.ALL, CardBitmaps.ALL, CardBitmaps.ALL, true);
+    }
+
+    /**
+     * Selects cards through the bitmap indexes; see CardBitmaps.select.
+     *
+     * @param rarities    mask of Rarity ordinals, or CardBitmaps.ALL.
+     * @param variants    mask of Variant ordinals, or CardBitmaps.ALL.
+     * @param bands       mask of value bands, or CardBitmaps.ALL; see CardBitmaps.bandOf.
+     * @param inStockOnly whether to keep only cards with a count above zero.
+     * @return the matching cards, in row order.
+     */
+    public List<Card> select(int rarities, int variants, int bands, boolean inStockOnly) {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            long[] words = bitmaps.select(rarities, variants, bands, inStockOnly, size);
+            ArrayList<Card> result = new ArrayList<>();
+            for (int w = 0; w < words.length; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    result.add(viewOf((w << 6) + Long.numberOfTrailingZeros(bits)));
+                }
+            }
+            return result;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * @return the names of the cards whose count is above zero, in row order.
+     */
+    public String[] namesInStock() {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            long[] words = bitmaps.select(CardBitmaps.ALL, CardBitmaps.ALL, CardBitmaps.ALL, true, size);
+            ArrayList<String> result = new ArrayList<>();
+            for (int w = 0; w < words.length; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    result.add(names[nameId[(w << 6) + Long.numberOfTrailingZeros(bits)]]);
+                }
+            }
+            return result.toArray(new String[0]);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Runs work under the read lock, so rows neither move nor disappear while
+     * it uses the row-level methods below. Used by CardQuery.
+     */
+    <T> T read(Supplier<T> work) {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            return work.get();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Returns a row's card view. Call within read().
+     */
+    Card viewAt(int row) {
+        return viewOf(row);
+    }
+
+    /**
+     * Selects rows through the bitmap indexes, as bitmap words. Call within read().
+     */
+    long[] selectRows(int rarities, int variants, int bands, boolean inStockOnly) {
+        return bitmaps.select(rarities, variants, bands, inStockOnly, size);
+    }
+
+    /**
+     * @return the rows whose names are not below from, ignoring case, in name order;
+     *         every row if from is null. Call within read(). The order is kept as rows
+     *         are added and removed, so this only finds the starting point, O(log n).
+     */
+    PrimitiveIterator.OfInt rowsByName(String from) {
+        Iterator<Integer> ids = (from == null ? nameOrder : nameOrder.tailMap(SortedCards.collationKey(from)))
+                .values().iterator();
+        return new PrimitiveIterator.OfInt() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                return rowOfName[ids.next()];
+            }
+        };
+    }
+
+    /**
+     * @return the rows whose actual value is within [min, max], by value and then by
+     *         name, ignoring case; dearest first if descending, with equal values still
+     *         in name order. Call within read(). Like the name order, the value order is
+     *         kept as rows are added and removed.
+     */
+    PrimitiveIterator.OfInt rowsByValue(long min, long max, boolean descending) {
+        NavigableMap<Long, TreeMap<String, Integer>> range = valueOrder.subMap(min, true, max, true);
+        Iterator<TreeMap<String, Integer>> groups = (descending ? range.descendingMap() : range).values().iterator();
+        return new PrimitiveIterator.OfInt() {
+            private Iterator<Integer> ids = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!ids.hasNext() && groups.hasNext()) {
+                    ids = groups.next().values().iterator();
+                }
+                return ids.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return rowOfName[ids.next()];
+            }
+        };
+    }
+
+    /**
+     * @return every row's card view, as a read-only copy taken under the read lock;
+     *         creates any views not made yet. Later adds and removes do not change it.
+     */
+    public List<Card> allCards() {
+        Lock read = layout.readLock();
+        read.lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                viewOf(i);
+            }
+            return List.copyOf(Arrays.asList(views).subList(0, size));
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Grows the columns and name dictionary so at least the given number of rows fit
+     * without further resizing, e.g. before loading a snapshot.
+     */
+    void ensureCapacity(int rows) {
+        Lock write = layout.writeLock();
+        write.lock();
+        try {
+            if (rows > nameId.length) {
+                resizeRows(rows);
+            }
+            if (rows > names.length) {
+                names = Arrays.copyOf(names, rows);
+                collationKeys = Arrays.copyOf(collationKeys, rows);
+                rowOfName = Arrays.copyOf(rowOfName, rows);
+            }
+            if (rows * 2 > nameSlots.length) {
+                rehashNames(Integer.highestOneBit(rows * 2 - 1) << 1);
+            }
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private int findNameId(String name) {
+        int mask = nameSlots.length - 1;
+        for (int slot = foldedHash(name) & mask; ; slot = (slot + 1) & mask) {
+            int entry = nameSlots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (names[entry - 1].equalsIgnoreCase(name)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private int internName(String name) {
+        int id = findNameId(name);
+        if (id >= 0) {
+            if (rowOfName[id] < 0) {
+                names[id] = name;
+            }
+            return id;
+        }
+        if (nameCount == names.length) {
+            names = Arrays.copyOf(names, nameCount * 2);
+            collationKeys = Arrays.copyOf(collationKeys, nameCount * 2);
+            rowOfName = Arrays.copyOf(rowOfName, nameCount * 2);
+        }
+        if ((nameCount + 1) * 2 > nameSlots.length) {
+            rehashNames(nameSlots.length * 2);
+        }
+        id = nameCount++;
+        names[id] = name;
+        collationKeys[id] = SortedCards.collationKey(name);
+        rowOfName[id] = -1;
+        insertNameSlot(id);
+        return id;
+    }
+
+    private void insertNameSlot(int id) {
+        int mask = nameSlots.length - 1;
+        int slot = foldedHash(names[id]) & mask;
+        while (nameSlots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        nameSlots[slot] = id + 1;
+    }
+
+    private void rehashNames(int slotCount) {
+        nameSlots = new int[slotCount];
+        for (int id = 0; id < nameCount; id++) {
+            insertNameSlot(id);
+        }
+    }
+
+    /**
+     * Hashes a name so that names equal under equalsIgnoreCase hash the same.
+     */
+    private static int foldedHash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < 128) {
+                h = 31 * h + (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c);
+            } else {
+                h = 31 * h + Character.toLowerCase(Character.toUpperCase(c));
+            }
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private void growRows() {
+        resizeRows(nameId.length * 2);
+    }
+
+    private void resizeRows(int capacity) {
+        nameId = Arrays.copyOf(nameId, capacity);
+        rarity = Arrays.copyOf(rarity, capacity);
+        variant = Arrays.copyOf(variant, capacity);
+        baseValueCents = Arrays.copyOf(baseValueCents, capacity);
+        actualValueCents = Arrays.copyOf(actualValueCents, capacity);
+        definitions = Arrays.copyOf(definitions, capacity);
+        bitmaps.grow(capacity);
+        count = Arrays.copyOf(count, capacity);
+        views = Arrays.copyOf(views, capacity);
+    }
+
+    /**
+     * Lock used until the store is made concurrent: every operation does nothing.
+     */
+    private static final class NoLock implements Lock, ReadWriteLock {
+        static final NoLock INSTANCE = new NoLock();
+
+        public Lock readLock() { return this; }
+        public Lock writeLock() { return this; }
+        public void lock() { }
+        public void lockInterruptibly() { }
+        public boolean tryLock() { return true; }
+        public boolean tryLock(long time, TimeUnit unit) { return true; }
+        public void unlock() { }
+        public Condition newCondition() { throw new UnsupportedOperationException(); }
+    }
+}
@@ -1,15 +1,20 @@
 import java.util.ArrayList;
-import java.util.Comparator;
-import javax.swing .*;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 /**
  * The Collection class manages the user's card collection.
  * It allows adding new cards, viewing, and managing card details.
  * Originally written as CollectionManager.
+ *
+ * Call enableConcurrency() before sharing a collection between threads. Adding,
+ * removing and returning a card then lock the card's name, so two clerks
+ * returning the same card cannot both add it.
  */
 public class Collection {
 
-    private ArrayList<Card> collection;
+    // Columnar rows holding the cards; its name dictionary doubles as the name index
+    private CardStore store;
 
     /**
      * Constructs a Collection manager with the given list of cards and scanner input.
@@ -18,148 +23,192 @@ public class Collection {
      */
 
     public Collection(ArrayList<Card> collection) {
-        this.collection = collection;
+        this(collection, new InventoryEvents());
     }
 
     /**
-     * Adds a new card to the collection using GUI prompts.
+     * Constructs a collection whose changes are reported to the given events, e.g. its collector's.
      */
-    public void addCardToCollection(MainGUI parentComponent) {
-        String name = JOptionPane.showInputDialog(parentComponent, "Enter card name:");
-        if (name == null || name.trim().isEmpty()) return;
-        name = name.trim();
-
-        Card existing = findCardByName(name);
-        if (existing != null) {
-            int option = JOptionPane.showConfirmDialog(
-                    parentComponent,
-                    "Card already exists. Increase count by 1?",
-                    "Duplicate Card",
-                    JOptionPane.YES_NO_OPTION
-            );
-            if (option == JOptionPane.YES_OPTION) {
-                existing.increaseCount();
-                JOptionPane.showMessageDialog(parentComponent, "Card count increased.");
+    Collection(ArrayList<Card> collection, InventoryEvents events) {
+        this.store = new CardStore(events);
+        for (Card card : collection) {
+            addCard(card);
+        }
+    }
+
+        /**
+         * Finds a card by its name, ignoring case.
+         */
+        public Card findCardByName(String name) {
+            return store.findCard(name);
+        }
+
+        /**
+         * Makes the collection safe to use from several threads; see CardStore.
+         * Call it before the collection is shared.
+         */
+        public void enableConcurrency() {
+            store.enableConcurrency();
+        }
+
+        /**
+         * Adds a card to the collection unless one with the same name is already present.
+         *
+         * @return true if added, false if the name is already taken.
+         */
+        public boolean addCard(Card card) {
+            Lock stripe = store.stripeFor(card.getName());
+            stripe.lock();
+            try {
+                if (store.append(card) < 0) {
+                    return false;
+                }
+                store.events().cardAdded(card);
+                return true;
+            } finally {
+                stripe.unlock();
             }
-            return;
-        }
-
-        String[] rarities = {"common", "uncommon", "rare", "legendary"};
-        String rarity = (String) JOptionPane.showInputDialog(
-                parentComponent,
-                "Select card rarity:",
-                "Card Rarity",
-                JOptionPane.QUESTION_MESSAGE,
-                null,
-                rarities,
-                rarities[0]
-        );
-
-        if (rarity == null) return;
-
-        String variant = "normal";
-        if (rarity.equals("rare") || rarity.equals("legendary")) {
-            String[] variants = {"normal", "extended-art", "full-art", "alt-art"};
-            variant = (String) JOptionPane.showInputDialog(
-                    parentComponent,
-                    "Select card variant:",
-                    "Card Variant",
-                    JOptionPane.QUESTION_MESSAGE,
-                    null,
-                    variants,
-                    variants[0]
-            );
-
-            if (variant == null) return; // user cancelled
-        }
-
-        double baseValue = 0;
-        boolean validValue = false;
-        while (!validValue) {
-            String valueStr = JOptionPane.showInputDialog(parentComponent, "Enter base value in dollars:");
-            if (valueStr == null) return;
+        }
+
+        /**
+         * Makes room for the given number of cards, e.g. before loading a snapshot.
+         */
+        void ensureCapacity(int rows) {
+            store.ensureCapacity(rows);
+        }
+
+        /**
+         * Adds a card row straight into the store, e.g. when loading a snapshot.
+         * Does nothing if a card with the same name is already present.
+         */
+        void restoreRow(String name, Rarity rarity, Variant variant, long baseValueCents, int count) {
+            store.appendRow(name, rarity, variant, baseValueCents, Math.max(0, count));
+        }
+
+        /**
+         * Adds count copies of a card in one name lookup, e.g. for a bulk import.
+         * A new name becomes a new card; a known name has its count increased.
+         *
+         * @return 1 if a new card was added, 0 if copies were added to an existing card, or -1
+         *         if the name is already used by a card with a different rarity, variant or base value.
+         */
+        int mergeRow(String name, Rarity rarity, Variant variant, long baseValueCents, int count) {
+            Lock stripe = store.stripeFor(name);
+            stripe.lock();
             try {
-                baseValue = Double.parseDouble(valueStr.trim());
-                validValue = true;
-            } catch (NumberFormatException e) {
-                JOptionPane.showMessageDialog(parentComponent, "Invalid number. Try again.");
+                int merged = store.mergeRow(name, rarity, variant, baseValueCents, count);
+                return merged < 0 ? -1 : merged & 1;
+            } finally {
+                stripe.unlock();
             }
         }
 
-        // Create card
-        try {
-            Card newCard = new Card(name, rarity, variant, baseValue);
-            collection.add(newCard);
-            JOptionPane.showMessageDialog(parentComponent, "Card added successfully.");
-        } catch (IllegalArgumentException e) {
-            JOptionPane.showMessageDialog(parentComponent, "Failed to create card: " + e.getMessage());
+        /**
+         * Removes a card from the collection.
+         *
+         * @return true if the card was in the collection.
+         */
+        public boolean removeCard(Card card) {
+            Lock stripe = store.stripeFor(card.getName());
+            stripe.lock();
+            try {
+                if (!store.remove(card)) {
+                    return false;
+                }
+                store.events().cardRemoved(card);
+                return true;
+            } finally {
+                stripe.unlock();
+            }
         }
-    }
 
-     public void modifyCardCount(JFrame parent) {
-        if (collection.isEmpty()) {
-            JOptionPane.showMessageDialog(parent, "No cards in collection.");
-            return;
+        /**
+         * Returns one copy of a card to the collection, e.g. when it leaves a binder or deck.
+         * Increases the count of the matching card, or adds the card with a count of 1.
+         */
+        public void returnCard(Card card) {
+            Lock stripe = store.stripeFor(card.getName());
+            stripe.lock();
+            try {
+                Card existing = findCardByName(card.getName());
+                if (existing != null) {
+                    existing.increaseCount();
+                } else {
+                    card.setCount(1);
+                    addCard(card);
+                }
+            } finally {
+                stripe.unlock();
+            }
         }
 
-        String[] cardNames = collection.stream().map(Card::getName).toArray(String[]::new);
-        String selected = (String) JOptionPane.showInputDialog(parent, "Select card:",
-                "Modify Card Count", JOptionPane.PLAIN_MESSAGE, null, cardNames, cardNames[0]);
+        /**
+         * Returns a read-only snapshot of the cards in the collection, the same in
+         * single-thread and concurrent mode. Later adds and removes do not change the
+         * list; use addCard/removeCard to change the collection.
+         */
+        public List<Card> getCards() {
+            return store.allCards();
+        }
 
-        if (selected == null) return;
+        /**
+         * Returns the cards with a count above zero, found by scanning the count column.
+         */
+        public List<Card> getCardsInStock() {
+            return store.cardsInStock();
+        }
 
-        Card card = collection.stream().filter(c -> c.getName().equals(selected)).findFirst().orElse(null);
-        if (card == null) return;
+        /**
+         * Starts a query over the collection: filters, sort order and a page; see CardQuery.
+         */
+        public CardQuery query() {
+            return new CardQuery(store);
+        }
 
-        String countStr = JOptionPane.showInputDialog(parent, "Current count: " + card.getCount() + "\nEnter new count:");
-        if (countStr == null) return;
+        /**
+         * Returns the cards with a count above zero that a binder accepts. The
+         * binder's allowed rarities and variants are matched through the store's
+         * bitmap indexes, so rejected cards are not looked at.
+         */
+        public List<Card> getCardsEligibleFor(Binder binder) {
+            List<Card> candidates = store.select(binder.allowedRarities(), binder.allowedVariants(), CardBitmaps.ALL, true);
+            candidates.removeIf(card -> !binder.isCardAllowed(card));
+            return candidates;
+        }
 
-        try {
-            int newCount = Integer.parseInt(countStr);
-            card.setCount(newCount);
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(parent, "Invalid number.");
+        /**
+         * Returns the names of the cards with a count above zero.
+         */
+        public String[] getNamesInStock() {
+            return store.namesInStock();
         }
-    }
 
         /**
-         * Finds a card by its name.
+         * Returns the value of every copy in the collection, in cents.
          */
-        public Card findCardByName(String name) {
-            for (Card card : collection) {
-                if (card.getName().equalsIgnoreCase(name)) {
-                    return card;
-                }
-            }
-            return null;
+        public long getTotalValueCents() {
+            return store.totalValueCents();
         }
 
         /**
-         * Returns the internal list of cards in the collection.
+         * Returns the events this collection reports its changes to.
          */
-        public ArrayList<Card> getCards() {
-            return collection;
+        public InventoryEvents getEvents() {
+            return store.events();
         }
 
         /**
-         * Displays all cards in the collection in a dialog.
+         * Returns the columnar store backing this collection, for read-only scans.
          */
-        public void showCollection(MainGUI parentComponent) {
-            if (collection.isEmpty()) {
-                JOptionPane.showMessageDialog(parentComponent, "Collection is empty.");
-                return;
-            }
+        public CardStore getStore() {
+            return store;
+        }
 
-            ArrayList<Card> sorted = new ArrayList<>(collection);
-            sorted.sort(Comparator.comparing(Card::getName, String.CASE_INSENSITIVE_ORDER));
+        public boolean isEmpty() {
+            return store.size() == 0;
+        }
 
-            StringBuilder message = new StringBuilder("Your Collection:\n");
-            for (int i = 0; i < sorted.size(); i++) {
-                Card card = sorted.get(i);
-                message.append((i + 1)).append(". ")
-                        .append(card.getName()).append(" (Count: ")
-                        .append(card.getCount()).append(")\n");
-            }
-            JOptionPane.showMessageDialog(parentComponent, message.toString());
+        public int size() {
+            return store.size();
         }
 }
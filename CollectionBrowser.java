@@ -0,0 +1,236 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dialog listing the collection in a filterable table, in name order by default.
+ * The table model reads pages of a CardQuery, so rows come from the store's
+ * maintained name or value order: opening the browser or changing a filter
+ * sorts nothing, and JTable only fetches the pages on screen. The table follows
+ * the collection's events while the dialog is open.
+ */
+public class CollectionBrowser extends JDialog {
+
+    private static final String[] COLUMNS = {"Name", "Rarity", "Variant", "Base Value", "Value", "Count"};
+    private static final int NAME = 0, RARITY = 1, VARIANT = 2, BASE_VALUE = 3, VALUE = 4, COUNT = 5;
+
+    private static final String[] SORTS = {"name", "value", "value, dearest first"};
+    private static final CardQuery.Sort[] SORT_ORDERS = {CardQuery.Sort.NAME, CardQuery.Sort.VALUE, CardQuery.Sort.VALUE_DESC};
+
+    private final Collection collection;
+    private final CardTableModel model;
+    private final InventoryListener listener;
+    private final JTextField searchField = new JTextField(20);
+    private final JComboBox<String> rarityBox = new JComboBox<>(new String[]{"all", "common", "uncommon", "rare", "legendary"});
+    private final JComboBox<String> sortBox = new JComboBox<>(SORTS);
+    private final JCheckBox inStockBox = new JCheckBox("In stock only");
+
+    public CollectionBrowser(JFrame parent, Collection collection) {
+        super(parent, "Collection (" + collection.size() + " cards)", true);
+        setSize(800, 500);
+        setLayout(new BorderLayout());
+
+        this.collection = collection;
+        model = new CardTableModel();
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        DefaultTableCellRenderer moneyRenderer = new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value == null ? "" : "$" + Money.format((Long) value));
+            }
+        };
+        moneyRenderer.setHorizontalAlignment(SwingConstants.RIGHT);
+        table.getColumnModel().getColumn(BASE_VALUE).setCellRenderer(moneyRenderer);
+        table.getColumnModel().getColumn(VALUE).setCellRenderer(moneyRenderer);
+        DefaultTableCellRenderer labelRenderer = new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value instanceof Rarity ? ((Rarity) value).getLabel()
+                        : value instanceof Variant ? ((Variant) value).getLabel() : "");
+            }
+        };
+        table.getColumnModel().getColumn(RARITY).setCellRenderer(labelRenderer);
+        table.getColumnModel().getColumn(VARIANT).setCellRenderer(labelRenderer);
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("Name starts with:"));
+        filterPanel.add(searchField);
+        filterPanel.add(new JLabel("Rarity:"));
+        filterPanel.add(rarityBox);
+        filterPanel.add(inStockBox);
+        filterPanel.add(new JLabel("Sort by:"));
+        filterPanel.add(sortBox);
+
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { model.refresh(); }
+            public void removeUpdate(DocumentEvent e) { model.refresh(); }
+            public void changedUpdate(DocumentEvent e) { model.refresh(); }
+        });
+        rarityBox.addActionListener(e -> model.refresh());
+        inStockBox.addActionListener(e -> model.refresh());
+        sortBox.addActionListener(e -> model.refresh());
+
+        JButton closeButton = new JButton("Close");
+        closeButton.addActionListener(e -> dispose());
+
+        add(filterPanel, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(closeButton, BorderLayout.SOUTH);
+
+        listener = new InventoryListener() {
+            @Override
+            public void cardAdded(Card card) {
+                model.refreshLater();
+            }
+
+            @Override
+            public void cardRemoved(Card card) {
+                model.refreshLater();
+            }
+
+            @Override
+            public void countChanged(Card card, int oldCount, int newCount) {
+                // Only the in-stock filter depends on the count; otherwise the row just repaints
+                if (inStockBox.isSelected() && (oldCount > 0) != (newCount > 0)) {
+                    model.refreshLater();
+                } else {
+                    SwingUtilities.invokeLater(() -> model.changed(card));
+                }
+            }
+        };
+        collection.getEvents().addListener(listener);
+        model.refresh();
+
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setLocationRelativeTo(parent);
+        setVisible(true);
+    }
+
+    /**
+     * Closes the dialog and stops following the collection.
+     */
+    @Override
+    public void dispose() {
+        collection.getEvents().removeListener(listener);
+        super.dispose();
+    }
+
+    /**
+     * @return a query for the current filters and sort, without a page.
+     */
+    private CardQuery query() {
+        CardQuery query = collection.query()
+                .namePrefix(searchField.getText().trim())
+                .minCount(inStockBox.isSelected() ? 1 : 0)
+                .sortBy(SORT_ORDERS[Math.max(0, sortBox.getSelectedIndex())]);
+        Rarity rarity = Rarity.fromLabel((String) rarityBox.getSelectedItem());
+        if (rarity != null) {
+            query.rarities(rarity);
+        }
+        return query;
+    }
+
+    /**
+     * Read-only view of the query's matches: table rows are fetched a page at a
+     * time with offset and limit, and the last page read is kept for repaints.
+     */
+    private class CardTableModel extends AbstractTableModel {
+        private static final int PAGE = 200;
+
+        private int rowCount;
+        private int pageStart;
+        private List<Card> page = List.of();
+        private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+        /**
+         * Counts the matches again and drops the cached page. Call on the event dispatch thread.
+         */
+        void refresh() {
+            refreshQueued.set(false);
+            rowCount = query().count();
+            page = List.of();
+            setTitle("Collection (" + collection.size() + " cards)");
+            fireTableDataChanged();
+        }
+
+        /**
+         * Queues a refresh on the event dispatch thread; a burst of changes, e.g. an import, refreshes once.
+         */
+        void refreshLater() {
+            if (!refreshQueued.getAndSet(true)) {
+                SwingUtilities.invokeLater(this::refresh);
+            }
+        }
+
+        /**
+         * Repaints a card's row if it is on the cached page.
+         */
+        void changed(Card card) {
+            int i = page.indexOf(card);
+            if (i >= 0) {
+                fireTableRowsUpdated(pageStart + i, pageStart + i);
+            }
+        }
+
+        private Card cardAt(int row) {
+            if (row < pageStart || row >= pageStart + page.size()) {
+                pageStart = row - row % PAGE;
+                page = query().offset(pageStart).limit(PAGE).list();
+            }
+            int i = row - pageStart;
+            return i < page.size() ? page.get(i) : null;
+        }
+
+        @Override
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            switch (column) {
+                case RARITY: return Rarity.class;
+                case VARIANT: return Variant.class;
+                case BASE_VALUE:
+                case VALUE: return Long.class;
+                case COUNT: return Integer.class;
+                default: return String.class;
+            }
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Card card = cardAt(row);
+            if (card == null) {
+                return null; // the collection shrank; a refresh is queued
+            }
+            switch (column) {
+                case NAME: return card.getName();
+                case RARITY: return card.getRarityType();
+                case VARIANT: return card.getVariantType();
+                case BASE_VALUE: return card.getBaseValueCents();
+                case VALUE: return card.getActualValueCents();
+                case COUNT: return card.getCount();
+                default: return null;
+            }
+        }
+    }
+}
@@ -9,27 +9,25 @@
  * the trading card collection, including adding cards, viewing details,
  * and adjusting quantities.
  */
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.List;
 import java.util.Scanner;
 
 public class CollectionManager {
 
-    // The list of cards in the collection
-    private Collection collection;
+    // The inventory whose collection is managed
+    private InventoryService service;
 
     // Scanner for user input
     private Scanner scanner;
 
     /**
-     * Constructs a CollectionManager with a given card list and input scanner.
+     * Constructs a CollectionManager for the given inventory and input scanner.
      *
-     * @param collection the list of cards representing the collection
-     * @param scanner    the Scanner used for user input
+     * @param service the inventory whose collection is managed
+     * @param scanner the Scanner used for user input
      */
-    public CollectionManager(Collection collection, Scanner scanner) {
-        this.collection = collection;
+    public CollectionManager(InventoryService service, Scanner scanner) {
+        this.service = service;
         this.scanner = scanner;
     }
 
@@ -41,14 +39,12 @@ public class CollectionManager {
         System.out.print("Enter card name: ");
         String name = scanner.nextLine().trim();
 
-        Card existing = collection.searchCard(name);
-        if (existing != null) {
+        if (service.findCard(name) != null) {
             System.out.println("Card already exists in the collection.");
             System.out.print("Would you like to increase the count by 1? (yes/no): ");
             String response = scanner.nextLine().trim().toLowerCase();
             if (response.equals("yes") || response.equals("y")) {
-                existing.increaseCount();
-                System.out.println("Card count increased.");
+                System.out.println(service.addCopy(name));
             } else {
                 System.out.println("Card not modified.");
             }
@@ -74,21 +70,15 @@ public class CollectionManager {
         }
 
         System.out.print("Enter base value in dollars: ");
-        double baseValue = 0;
+        long baseValue;
         try {
-            baseValue = Double.parseDouble(scanner.nextLine().trim());
+            baseValue = Money.parse(scanner.nextLine());
         } catch (NumberFormatException e) {
             System.out.println("Invalid number. Card not added.");
             return;
         }
 
-        try {
-            Card newCard = new Card(name, rarity, variant, baseValue);
-            collection.add(newCard);
-            System.out.println("Card added successfully.");
-        } catch (IllegalArgumentException e) {
-            System.out.println("Failed to create card: " + e.getMessage());
-        }
+        System.out.println(service.addCard(name, rarity, variant, baseValue));
     }
 
     /**
@@ -96,17 +86,12 @@ public class CollectionManager {
      * The list is shown in alphabetical order.
      */
     public void viewCollectionMenu() {
-        if (collection.isEmpty()) {
+        if (service.getCollection().isEmpty()) {
             System.out.println("Collection is empty.");
             return;
         }
 
-        ArrayList<Card> sortedCards = new ArrayList<>(collection);
-        Collections.sort(sortedCards, new Comparator<Card>() {
-            public int compare(Card c1, Card c2) {
-                return c1.getName().compareToIgnoreCase(c2.getName());
-            }
-        });
+        List<Card> sortedCards = service.getCollection().query().sortBy(CardQuery.Sort.NAME).list();
 
         boolean viewing = true;
         while (viewing) {
@@ -143,7 +128,7 @@ public class CollectionManager {
      * @param cardName the name of the card to manage
      */
     private void manageCardMenu(String cardName) {
-        Card card = collection.searchCard(cardName);
+        Card card = service.findCard(cardName);
         if (card == null) {
             System.out.println("Card not found.");
             return;
@@ -165,12 +150,9 @@ public class CollectionManager {
                     card.displayCardDetails();
                     break;
                 case "2":
-                    if (card.getCount() > 0) {
-                        card.decreaseCount();
-                        System.out.println("Count decreased. New count: " + card.getCount());
-                    } else {
-                        System.out.println("Card count is already 0. Cannot decrease further.");
-                    }
+                    OperationResult result = service.removeCopy(card.getName());
+                    System.out.println(result.isSuccess()
+                            ? "Count decreased. New count: " + card.getCount() : result.getMessage());
                     break;
                 case "3":
                     managing = false;
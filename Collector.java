@@ -10,7 +10,10 @@ import java.util.Scanner;
 public class Collector {
 
     private Collection collection;
-    private double money;
+    private long moneyCents;
+
+    // Changes to this collector's inventory, for its listeners only
+    private final InventoryEvents events = new InventoryEvents();
 
     /**
      * Constructs a Collector with an empty collection and zero money.
@@ -18,16 +21,16 @@ public class Collector {
      * @param scanner Scanner used to pass to Collection.
      */
     public Collector(Scanner scanner) {
-        this.collection = new Collection(new ArrayList<>());
-        this.money = 0.0;
+        this.collection = new Collection(new ArrayList<>(), events);
+        this.moneyCents = 0;
     }
 
     /**
      * Default constructor for GUI usage (no Scanner input).
      */
     public Collector() {
-        this.collection = new Collection(new ArrayList<>());
-        this.money = 0.0;
+        this.collection = new Collection(new ArrayList<>(), events);
+        this.moneyCents = 0;
     }
 
     /**
@@ -35,8 +38,17 @@ public class Collector {
      * 
      * @return money as double.
      */
-    public double getMoney() {
-        return money;
+    public synchronized double getMoney() {
+        return Money.toDollars(moneyCents);
+    }
+
+    /**
+     * Gets the collector's current money in cents.
+     * 
+     * @return money in cents.
+     */
+    public synchronized long getMoneyCents() {
+        return moneyCents;
     }
 
     /**
@@ -45,7 +57,27 @@ public class Collector {
      * @param amount amount to add.
      */
     public void addMoney(double amount) {
-        this.money += amount;
+        addMoneyCents(Money.fromDollars(amount));
+    }
+
+    /**
+     * Adds the given amount in cents to the collector's money.
+     * 
+     * @param cents amount to add.
+     */
+    public synchronized void addMoneyCents(long cents) {
+        long old = moneyCents;
+        this.moneyCents += cents;
+        events.moneyChanged(old, moneyCents);
+    }
+
+    /**
+     * Sets the balance directly, e.g. when replaying the journal.
+     * 
+     * @param cents new balance in cents.
+     */
+    synchronized void restoreMoneyCents(long cents) {
+        this.moneyCents = cents;
     }
 
     /**
@@ -55,22 +87,25 @@ public class Collector {
      * @return true if sold, false otherwise.
      */
     public boolean sellCard(String name) {
+        SaleEvent event = new SaleEvent();
+        event.begin();
         Card card = collection.findCardByName(name);
-        if (card == null) {
-            System.out.println("Card not found in collection.");
-            return false;
+        // Taking the copy is one atomic step, so two clerks cannot sell the last copy twice
+        boolean sold = card != null && card.tryDecreaseCount();
+        if (sold) {
+            addMoneyCents(card.getActualValueCents());
+            if (Diagnostics.isEnabled(DiagnosticSink.Level.DEBUG)) {
+                Diagnostics.debug("Collector", "Sold '" + card.getName() + "' for $" + Money.format(card.getActualValueCents()));
+            }
         }
-
-        if (card.getCount() <= 0) {
-            System.out.println("Card count is already 0. Cannot sell.");
-            return false;
+        if (event.shouldCommit()) {
+            event.kind = "card";
+            event.cardName = card != null ? card.getName() : name;
+            event.valueDeltaCents = sold ? card.getActualValueCents() : 0;
+            event.sold = sold;
+            event.commit();
         }
-
-        double value = card.getRealValue();
-        card.decreaseCount();
-        addMoney(value);
-        System.out.printf("Sold 1 '%s' for $%.2f. Total money: $%.2f\n", card.getName(), value, money);
-        return true;
+        return sold;
     }
 
     /**
@@ -81,4 +116,11 @@ public class Collector {
     public Collection getCollection() {
         return collection;
     }
+
+    /**
+     * @return the events of this collector's inventory; register listeners here.
+     */
+    public InventoryEvents getEvents() {
+        return events;
+    }
 }
@@ -15,24 +15,32 @@ public class CollectorBinder extends Binder {
 
     @Override
     public boolean isCardAllowed(Card card) {
-        boolean validRarity = card.getRarity().equalsIgnoreCase("rare") || card.getRarity().equalsIgnoreCase("legendary");
-        boolean validVariant = !card.getVariant().equalsIgnoreCase("normal");
-        return validRarity && validVariant;
+        return card.getRarityType().isPremium() && card.getVariantType() != Variant.NORMAL;
+    }
+
+    @Override
+    public int allowedRarities() {
+        return CardBitmaps.mask(Rarity.RARE, Rarity.LEGENDARY);
+    }
+
+    @Override
+    public int allowedVariants() {
+        return ~CardBitmaps.mask(Variant.NORMAL);
     }
 
     @Override
     public String getRestrictionMessage(Card card) {
-        if (!card.getRarity().equalsIgnoreCase("rare") && !card.getRarity().equalsIgnoreCase("legendary")) {
+        if (!card.getRarityType().isPremium()) {
             return "Only cards with 'Rare' or 'Legendary' rarity are allowed in a Collector Binder.";
         }
-        if (card.getVariant().equalsIgnoreCase("normal")) {
+        if (card.getVariantType() == Variant.NORMAL) {
             return "Only cards with special variants (not 'normal') are allowed in a Collector Binder.";
         }
         return "Card not allowed in Collector Binder.";
     }
 
     @Override
-    public double calculateSellPrice() {
+    public long calculateSellPriceCents() {
         return 0; // Not sellable
     }
 }
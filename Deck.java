@@ -1,29 +1,36 @@
 import java.util.ArrayList;
-import java.util.Comparator;
-
-import javax.swing.BorderFactory;
-import javax.swing.DefaultListModel;
-import javax.swing.JButton;
-import javax.swing.JDialog;
-import javax.swing.JFrame;
-import javax.swing.JLabel;
-import javax.swing.JList;
-import javax.swing.JPanel;
-import javax.swing.JScrollPane;
-import javax.swing.ListSelectionModel;
-import java.awt.GridLayout;
-import java.awt.Color;
-import java.awt.BorderLayout;
+import java.util.Arrays;
 
 /**
  * Abstract class representing a card deck.
  * Supports adding/removing cards, viewing, and returning cards to a collection.
  * Now supports two types: NormalDeck and SellableDeck.
+ * Methods synchronize on the deck, so the size and duplicate checks of addCard
+ * hold when several clerks use one deck.
+ * A deck holds at most one copy of a name, so its cards are kept as Cards
+ * of the shared CardDefinition rather than as counted entries.
  */
 public abstract class Deck {
+    /** Maximum number of unique cards in a deck. */
+    public static final int MAX_CARDS = 10;
+
     protected String name;
     protected ArrayList<Card> cards;
 
+    // Running totals over cards, updated on every add and remove
+    private long totalValueCents;
+    private final int[] rarityCounts = new int[Rarity.values().length];
+    private final int[] variantCounts = new int[Variant.values().length];
+
+    // Bumped on every change to the cards, so transactions can tell the deck changed under them
+    private long version;
+
+    // Set once the deck is deleted or sold; transactions that touch it are then rejected
+    private boolean removed;
+
+    // Where changes are reported; nowhere until the deck is part of an inventory
+    private volatile InventoryEvents events = InventoryEvents.NONE;
+
     /**
      * Constructs a deck given a name
      * @param name
@@ -38,43 +45,85 @@ public abstract class Deck {
      * @return
      */
     public abstract boolean canBeSold();
-    public abstract double calculateSellPrice();
+    public abstract long calculateSellPriceCents();
+
+    /**
+     * @return the sell price in dollars; see calculateSellPriceCents().
+     */
+    public double calculateSellPrice() {
+        return Money.toDollars(calculateSellPriceCents());
+    }
 
     /**
      * A method for adding a Card to a deck.
      * @param card the new card to be added to deck
      * @return true if added, otherwise false
      */
-    public boolean addCard(Card card) {
-        if (cards.size() >= 10) {
-            System.out.println("Deck is full. Maximum of 10 unique cards allowed.");
-            return false;
-        }
-
-        for (Card existing : cards) {
-            if (existing.getName().equalsIgnoreCase(card.getName())) {
-                System.out.println("Card \"" + card.getName() + "\" already exists in this deck.");
-                return false;
+    public synchronized boolean addCard(Card card) {
+        if (isFull() || containsCard(card.getName())) {
+            if (Diagnostics.isEnabled(DiagnosticSink.Level.DEBUG)) {
+                Diagnostics.debug("Deck", "'" + name + "' refused '" + card.getName() + "': "
+                        + (isFull() ? "deck is full" : "already in the deck"));
             }
+            return false;
         }
 
         cards.add(card);
-        System.out.println("Added \"" + card.getName() + "\" to deck \"" + name + "\".");
+        track(card, 1);
+        events.deckCardAdded(this, card);
         return true;
     }
 
+    /**
+     * Puts a card back into the deck without the checks and messages of addCard,
+     * e.g. when loading a snapshot.
+     * @param card the card to restore
+     */
+    synchronized void restoreCard(Card card) {
+        cards.add(card);
+        track(card, 1);
+    }
+
+    /**
+     * Takes the first card with the given name out of the deck without messages,
+     * e.g. when replaying the journal.
+     * @param cardName the name of the card to remove
+     */
+    synchronized void restoreRemoval(String cardName) {
+        for (int i = 0; i < cards.size(); i++) {
+            if (cards.get(i).getName().equalsIgnoreCase(cardName)) {
+                track(cards.remove(i), -1);
+                return;
+            }
+        }
+    }
+
     /**
      * A method for removing a card from a deck given its index
      * @param index the index of the card to be removed
      * @return true if removed, otherwise false
      */
-    public boolean removeCardByIndex(int index) {
+    public synchronized boolean removeCardByIndex(int index) {
         if (index >= 0 && index < cards.size()) {
             Card removed = cards.remove(index);
-            System.out.println("Removed \"" + removed.getName() + "\" from deck \"" + name + "\".");
+            track(removed, -1);
+            events.deckCardRemoved(this, removed);
             return true;
         }
-        System.out.println("Invalid selection.");
+        return false;
+    }
+
+    /**
+     * Removes a card from the deck
+     * @param card the card to remove, by identity
+     * @return true if removed, otherwise false
+     */
+    public synchronized boolean removeCard(Card card) {
+        for (int i = 0; i < cards.size(); i++) {
+            if (cards.get(i) == card) {
+                return removeCardByIndex(i);
+            }
+        }
         return false;
     }
 
@@ -82,149 +131,106 @@ public abstract class Deck {
      * A method returning all cards in a deck back to the collection
      * @param collection the card collection a user has
      */
-    public void returnAllCardsToCollection(ArrayList<Card> collection) {
+    public synchronized void returnAllCardsToCollection(Collection collection) {
         for (Card card : cards) {
-            int foundIndex = getCardIndexByName(collection, card.getName());
-            if (foundIndex != -1) {
-                collection.get(foundIndex).increaseCount();
-            } else {
-                collection.add(new Card(card.getName(), card.getRarity(), card.getVariant(), card.getBaseValue()));
-            }
+            collection.returnCard(new Card(card.getDefinition(), 1));
+            events.deckCardRemoved(this, card);
         }
         cards.clear();
+        version++;
+        totalValueCents = 0;
+        Arrays.fill(rarityCounts, 0);
+        Arrays.fill(variantCounts, 0);
     }
 
     /**
-     * GUI for Managing Deck including addition and removal of cards.
-     * @param parent the JFrame MainGUI
-     * @param collection the collection of the user
-     */
-    public void viewDeckGUI(JFrame parent, ArrayList<Card> collection) {
-        JDialog dialog = new JDialog(parent, "Manage Deck: " + name, true);
-        dialog.setSize(800, 500);
-        dialog.setLayout(new BorderLayout());
-
-        // Sort deck cards
-        ArrayList<Card> sortedDeck = new ArrayList<>(cards);
-        sortedDeck.sort(Comparator.comparing(Card::getName, String.CASE_INSENSITIVE_ORDER));
-
-        // Deck card list
-        DefaultListModel<Card> deckModel = new DefaultListModel<>();
-        for (Card c : sortedDeck) deckModel.addElement(c);
-        JList<Card> deckList = new JList<>(deckModel);
-        deckList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        deckList.setCellRenderer((list, value, index, isSelected, cellHasFocus) -> {
-            JLabel label = new JLabel(value.getName());
-            if (isSelected) label.setBackground(Color.LIGHT_GRAY);
-            label.setOpaque(true);
-            return label;
-        });
-
-        // Collection card list
-        DefaultListModel<Card> collectionModel = new DefaultListModel<>();
-        for (Card c : collection) {
-            if (c.getCount() > 0) collectionModel.addElement(c);
-        }
-        JList<Card> collectionList = new JList<>(collectionModel);
-        collectionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        collectionList.setCellRenderer((list, value, index, isSelected, cellHasFocus) -> {
-            JLabel label = new JLabel(value.getName() + " (x" + value.getCount() + ")");
-            if (isSelected) label.setBackground(Color.CYAN);
-            label.setOpaque(true);
-            return label;
-        });
-
-        // Buttons
-        JButton addBtn = new JButton("Add to Deck →");
-        JButton removeBtn = new JButton("← Remove from Deck");
-        JButton closeBtn = new JButton("Close");
-
-        addBtn.addActionListener(e -> {
-            Card selected = collectionList.getSelectedValue();
-            if (selected != null && selected.getCount() > 0) {
-                Card toAdd = new Card(selected.getName(), selected.getRarity(), selected.getVariant(), selected.getBaseValue());
-                addCard(toAdd);
-                selected.decreaseCount();
-                deckModel.addElement(toAdd);
-
-                collectionModel.removeElement(selected);
-                if (selected.getCount() > 0) {
-                    collectionModel.addElement(selected);
-                }
-            }
-        });
-
-        removeBtn.addActionListener(e -> {
-            Card selected = deckList.getSelectedValue();
-            if (selected != null) {
-                int indexInDeck = cards.indexOf(selected);
-                if (removeCardByIndex(indexInDeck)) {
-                    deckModel.removeElement(selected);
-
-                    // Restore count to collection
-                    boolean found = false;
-                    for (Card c : collection) {
-                        if (c.getName().equalsIgnoreCase(selected.getName())) {
-                            c.increaseCount();
-                            found = true;
-                            break;
-                        }
-                    }
-                    if (!found) {
-                        collection.add(selected);
-                        selected.setCount(1);
-                    }
-                    collectionModel.removeAllElements();
-                    for (Card c : collection) {
-                        if (c.getCount() > 0) collectionModel.addElement(c);
-                    }
-                }
-            }
-        });
+     * @return the sum of the actual values of the cards in this deck, in cents
+     */
+    public synchronized long getTotalValueCents() {
+        return totalValueCents;
+    }
 
-        closeBtn.addActionListener(e -> dialog.dispose());
+    /**
+     * @return a number that changes whenever a card is added to or removed from this deck
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
 
-        // Layout
-        JPanel centerPanel = new JPanel(new GridLayout(1, 3, 10, 10));
-        centerPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+    /**
+     * Reports this deck's changes to an inventory's events, e.g. when a service takes it over.
+     */
+    void attachTo(InventoryEvents events) {
+        this.events = events;
+    }
 
-        centerPanel.add(new JScrollPane(collectionList));
-        JPanel buttonPanel = new JPanel(new GridLayout(2, 1, 10, 10));
-        buttonPanel.add(addBtn);
-        buttonPanel.add(removeBtn);
-        centerPanel.add(buttonPanel);
-        centerPanel.add(new JScrollPane(deckList));
+    InventoryEvents getEvents() {
+        return events;
+    }
 
-        dialog.add(centerPanel, BorderLayout.CENTER);
-        dialog.add(closeBtn, BorderLayout.SOUTH);
+    /**
+     * Marks the deck as deleted or sold and bumps its version. Done under the
+     * deck's monitor, so it never falls between a transaction's checks and its changes.
+     */
+    synchronized void markRemoved() {
+        removed = true;
+        version++;
+    }
 
-        dialog.setLocationRelativeTo(parent);
-        dialog.setVisible(true);
+    /**
+     * @return true once the deck has been deleted or sold
+     */
+    public synchronized boolean isRemoved() {
+        return removed;
     }
 
     /**
-     * Helper method that gets a card's index using its name
-     * @param list the list of cards in a deck
-     * @param name the name of the card
-     * @return
+     * @return how many cards in this deck have the given rarity
      */
-    private int getCardIndexByName(ArrayList<Card> list, String name) {
-        for (int i = 0; i < list.size(); i++) {
-            if (list.get(i).getName().equalsIgnoreCase(name)) {
-                return i;
-            }
-        }
-        return -1;
+    public synchronized int getRarityCount(Rarity rarity) {
+        return rarityCounts[rarity.ordinal()];
     }
 
-    public boolean containsCard(String cardName) {
+    /**
+     * @return how many cards in this deck have the given variant
+     */
+    public synchronized int getVariantCount(Variant variant) {
+        return variantCounts[variant.ordinal()];
+    }
+
+    /**
+     * Adds a card to the running totals, or takes it out when sign is -1.
+     */
+    private void track(Card card, int sign) {
+        version++;
+        totalValueCents += sign * card.getActualValueCents();
+        rarityCounts[card.getRarityType().ordinal()] += sign;
+        variantCounts[card.getVariantType().ordinal()] += sign;
+    }
+
+    public synchronized boolean containsCard(String cardName) {
         for (Card card : cards) {
             if (card.getName().equalsIgnoreCase(cardName)) return true;
         }
         return false;
     }
 
-    public int size() {
+    /**
+     * @param cardName the name of the card, ignoring case
+     * @return the index of the card in the deck, or -1 if it is not in the deck
+     */
+    public synchronized int indexOf(String cardName) {
+        for (int i = 0; i < cards.size(); i++) {
+            if (cards.get(i).getName().equalsIgnoreCase(cardName)) return i;
+        }
+        return -1;
+    }
+
+    public synchronized boolean isFull() {
+        return cards.size() >= MAX_CARDS;
+    }
+
+    public synchronized int size() {
         return cards.size();
     }
 
@@ -232,8 +238,11 @@ public abstract class Deck {
         return name;
     }
 
-    public ArrayList<Card> getCards() {
-        return cards;
+    /**
+     * @return a copy of the cards in this deck; use addCard and removeCardByIndex to change it
+     */
+    public synchronized ArrayList<Card> getCards() {
+        return new ArrayList<>(cards);
     }
 }
 
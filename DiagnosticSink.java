@@ -0,0 +1,37 @@
+/**
+ * Receives diagnostic messages from the model, e.g. why a binder refused a
+ * card or a journal commit failed, in place of printing to System.out.
+ * Install one with Diagnostics.setSink.
+ */
+public interface DiagnosticSink {
+
+    /** Severity of a message, lowest first. */
+    enum Level { DEBUG, INFO, WARN, ERROR }
+
+    /** Discards everything; used by batch and server modes. */
+    DiagnosticSink NONE = new DiagnosticSink() {
+        @Override
+        public boolean isEnabled(Level level) {
+            return false;
+        }
+
+        @Override
+        public void report(Level level, String source, String message) {
+        }
+    };
+
+    /**
+     * @return whether messages of this level are kept, so callers can skip building them.
+     */
+    boolean isEnabled(Level level);
+
+    /**
+     * @param source the class or component reporting, e.g. "Binder".
+     */
+    void report(Level level, String source, String message);
+
+    /**
+     * Writes out anything still buffered. Does nothing by default.
+     */
+    default void flush() {}
+}
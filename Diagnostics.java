@@ -0,0 +1,88 @@
+/**
+ * Where the model sends diagnostic messages. By default an AsyncConsoleSink
+ * shows warnings and errors on standard error; the level can be changed with
+ * -Dtcis.diagnostics=debug|info|warn|error|off.
+ *
+ * Check isEnabled before building a message on a hot path, so a disabled
+ * level costs one volatile read and a comparison.
+ */
+public final class Diagnostics {
+
+    private static volatile DiagnosticSink sink = defaultSink();
+
+    private Diagnostics() {
+    }
+
+    private static DiagnosticSink defaultSink() {
+        DiagnosticSink.Level level = configuredLevel();
+        if (level == null && System.getProperty("tcis.diagnostics") != null) {
+            return DiagnosticSink.NONE;
+        }
+        return new AsyncConsoleSink(level != null ? level : DiagnosticSink.Level.WARN);
+    }
+
+    /**
+     * @return the level set with -Dtcis.diagnostics, or null if none is set or it is "off".
+     */
+    static DiagnosticSink.Level configuredLevel() {
+        String value = System.getProperty("tcis.diagnostics");
+        if (value == null) return null;
+        for (DiagnosticSink.Level level : DiagnosticSink.Level.values()) {
+            if (level.name().equalsIgnoreCase(value.trim())) return level;
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the sink, flushing the old one.
+     */
+    public static void setSink(DiagnosticSink newSink) {
+        DiagnosticSink old = sink;
+        sink = newSink;
+        old.flush();
+    }
+
+    /**
+     * Silences diagnostics unless a level was set with -Dtcis.diagnostics, for batch and server modes.
+     */
+    public static void quietUnlessConfigured() {
+        if (System.getProperty("tcis.diagnostics") == null) {
+            setSink(DiagnosticSink.NONE);
+        }
+    }
+
+    public static DiagnosticSink getSink() {
+        return sink;
+    }
+
+    public static boolean isEnabled(DiagnosticSink.Level level) {
+        return sink.isEnabled(level);
+    }
+
+    public static void debug(String source, String message) {
+        report(DiagnosticSink.Level.DEBUG, source, message);
+    }
+
+    public static void info(String source, String message) {
+        report(DiagnosticSink.Level.INFO, source, message);
+    }
+
+    public static void warn(String source, String message) {
+        report(DiagnosticSink.Level.WARN, source, message);
+    }
+
+    public static void error(String source, String message) {
+        report(DiagnosticSink.Level.ERROR, source, message);
+    }
+
+    private static void report(DiagnosticSink.Level level, String source, String message) {
+        DiagnosticSink s = sink;
+        if (s.isEnabled(level)) {
+            s.report(level, source, message);
+        }
+    }
+
+    public static void flush() {
+        sink.flush();
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a CardImporter run: how many rows were read, added as new
+ * cards, merged into existing counts or rejected, and how fast it went.
+ */
+public class ImportReport {
+
+    /** At most this many rejected rows are kept with their reasons; the rest are only counted. */
+    public static final int MAX_REJECTIONS_KEPT = 1000;
+
+    /**
+     * A row that failed validation, with its 1-based line number in the file.
+     */
+    public static class Rejection {
+        private final long line;
+        private final String reason;
+
+        Rejection(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + reason;
+        }
+    }
+
+    private long rowsRead;
+    private long cardsAdded;
+    private long rowsMerged;
+    private long rowsRejected;
+    private long elapsedNanos;
+    private boolean cancelled;
+    private String skippedHeader;
+    private final ArrayList<Rejection> rejections = new ArrayList<>();
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void cardAdded() {
+        cardsAdded++;
+    }
+
+    void rowMerged() {
+        rowsMerged++;
+    }
+
+    void reject(long line, String reason) {
+        rowsRejected++;
+        if (rejections.size() < MAX_REJECTIONS_KEPT) {
+            rejections.add(new Rejection(line, reason));
+        }
+    }
+
+    void skipHeader(String line) {
+        skippedHeader = line;
+    }
+
+    void setCancelled() {
+        cancelled = true;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** @return data rows read, not counting a header line or blank lines. */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /** @return rows that added a card the collection did not have. */
+    public long getCardsAdded() {
+        return cardsAdded;
+    }
+
+    /** @return rows whose copies were added to a card already in the collection. */
+    public long getRowsMerged() {
+        return rowsMerged;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /** @return the first MAX_REJECTIONS_KEPT rejected rows, in file order. */
+    public List<Rejection> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    /** @return the first line of the file if it was skipped as a header, otherwise null. */
+    public String getSkippedHeader() {
+        return skippedHeader;
+    }
+
+    /** @return whether the import was stopped before the end of the file. */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** @return rows read per second over the whole import, including reading and merging. */
+    public long getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000L / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        String summary = String.format("%s %d rows in %.2f s (%d rows/s): %d new cards, %d merged, %d rejected.",
+                cancelled ? "Cancelled after" : "Imported", rowsRead, elapsedNanos / 1e9, getRowsPerSecond(), cardsAdded, rowsMerged, rowsRejected);
+        return skippedHeader == null ? summary : summary + " Skipped line 1 as a header: " + skippedHeader;
+    }
+}
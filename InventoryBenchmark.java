@@ -0,0 +1,362 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micro-benchmarks for the inventory hot paths, run over synthetic collections
+ * of increasing size so scaling regressions show up as curves.
+ *
+ * Usage: java InventoryBenchmark [--sizes 1000,10000,...] [--millis n] [--threads n] [--csv]
+ *
+ * Each benchmark warms up, then runs timed rounds and reports the median
+ * nanoseconds per operation. The default sizes stop at 1M cards; pass
+ * --sizes ...,10000000 with a heap of about 2 GB for the 10M run.
+ *
+ * The concurrent benchmarks run the same operation on 1, 2, 4 ... up to
+ * --threads clerks against a collection in concurrent mode and report the
+ * wall-clock nanoseconds per operation over all threads, so a flat or falling
+ * line means throughput scales with cores.
+ */
+public class InventoryBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int ROUNDS = 5;
+    private static final long SEED = 42;
+
+    /** Results are folded in here so the JIT cannot drop the measured work. */
+    private static volatile long sink;
+
+    /** One benchmarked operation; i is the iteration number. */
+    private interface Op {
+        long run(int i);
+    }
+
+    private final long millisPerRound;
+    private final int maxThreads;
+    private final boolean csv;
+
+    private InventoryBenchmark(long millisPerRound, int maxThreads, boolean csv) {
+        this.millisPerRound = millisPerRound;
+        this.maxThreads = maxThreads;
+        this.csv = csv;
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        long millis = 200;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean csv = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = Arrays.stream(args[++i].split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+                    break;
+                case "--millis":
+                    millis = Long.parseLong(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Math.max(1, Integer.parseInt(args[++i]));
+                    break;
+                case "--csv":
+                    csv = true;
+                    break;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+                    System.out.println("Usage: java InventoryBenchmark [--sizes 1000,10000,...] [--millis n] [--threads n] [--csv]");
+                    return;
+            }
+        }
+
+        InventoryBenchmark bench = new InventoryBenchmark(millis, threads, csv);
+        if (csv) {
+            System.out.println("benchmark,size,ns_per_op");
+        } else {
+            System.out.printf("%-36s %10s %14s%n", "Benchmark", "Size", "ns/op");
+        }
+        for (int size : sizes) {
+            bench.runAll(size);
+        }
+    }
+
+    private void runAll(int size) {
+        InventoryService service = new InventoryService();
+        String[] names = populate(service.getCollection(), size);
+        Collection collection = service.getCollection();
+        Random random = new Random(SEED);
+
+        int[] lookups = new int[1 << 16];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = random.nextInt(size);
+        }
+        int mask = lookups.length - 1;
+
+        // Name lookup, hits and misses
+        measure("collection.findCardByName", size,
+                i -> collection.findCardByName(names[lookups[i & mask]]).getCount());
+        measure("collection.findCardByName.miss", size,
+                i -> collection.findCardByName("missing-" + (i & mask)) == null ? 1 : 0);
+
+        // Value scans over the whole collection
+        measure("collection.getTotalValueCents", size, i -> collection.getTotalValueCents());
+        measure("cards.getActualValueCents.scan", size, i -> {
+            long total = 0;
+            for (Card card : collection.getCards()) {
+                total += card.getActualValueCents() * card.getCount();
+            }
+            return total;
+        });
+        measure("collection.getCardsInStock", size, i -> collection.getCardsInStock().size());
+        Binder collectorBinder = new CollectorBinder("eligible");
+        measure("collection.getCardsEligibleFor(collector)", size,
+                i -> collection.getCardsEligibleFor(collectorBinder).size());
+
+        // Binder mutation: fill an empty binder to capacity, then empty it by name
+        List<Card> sample = sampleCards(collection, random, 20);
+        Binder churn = new NonCuratedBinder("churn");
+        measure("binder.addCard+removeCardByName", size, i -> {
+            long n = 0;
+            for (Card card : sample) {
+                if (churn.addCard(card)) n++;
+            }
+            for (Card card : sample) {
+                if (churn.removeCardByName(card.getName()) != null) n++;
+            }
+            return n;
+        });
+
+        // Sell prices of full binders and decks
+        for (Binder binder : fullBinders(collection, random)) {
+            measure(binder.getClass().getSimpleName() + ".calculateSellPrice", size,
+                    i -> binder.calculateSellPriceCents());
+        }
+        for (Deck deck : fullDecks(collection, random)) {
+            measure(deck.getClass().getSimpleName() + ".calculateSellPrice", size,
+                    i -> deck.calculateSellPriceCents());
+        }
+
+        // Deck duplicate check: a 9-card deck rejects a card it already holds
+        Deck deck = new NormalDeck("dupes");
+        List<Card> deckCards = sampleCards(collection, random, Deck.MAX_CARDS - 1);
+        for (Card card : deckCards) {
+            deck.addCard(card);
+        }
+        Card duplicate = deckCards.get(deckCards.size() - 1);
+        measure("deck.addCard.duplicate", size, i -> deck.addCard(duplicate) ? 1 : 0);
+
+        // Trade flow through the service: swap a card out and back in
+        service.createBinder("trade", "non-curated");
+        Card a = collection.findCardByName(names[0]);
+        Card b = collection.findCardByName(names[size - 1]);
+        service.moveToBinder(a.getName(), "trade");
+        measure("service.trade", size, i -> {
+            Card out = (i & 1) == 0 ? a : b;
+            Card in = (i & 1) == 0 ? b : a;
+            OperationResult result = service.trade("trade", out.getName(), in.getName(),
+                    in.getRarity(), in.getVariant(), in.getBaseValueCents(), true);
+            return result.isSuccess() ? 1 : 0;
+        });
+
+        runConcurrent(size);
+    }
+
+    /**
+     * Clerks taking and returning copies of random cards, and filling and emptying
+     * their own binders, against one concurrent inventory.
+     */
+    private void runConcurrent(int size) {
+        InventoryService service = new InventoryService();
+        service.enableConcurrency();
+        String[] names = populate(service.getCollection(), size);
+        Collection collection = service.getCollection();
+        for (int t = 0; t < maxThreads; t++) {
+            service.createBinder("clerk" + t, "non-curated");
+        }
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            measureParallel("concurrent.tryDecrease+increaseCount", size, threads, (t, i) -> {
+                Card card = collection.findCardByName(names[(int) ((i * 0x9E3779B9L + t) & 0x7fffffff) % size]);
+                if (!card.tryDecreaseCount()) return 0;
+                card.increaseCount();
+                return 1;
+            });
+            measureParallel("concurrent.moveToBinder+return", size, threads, (t, i) -> {
+                String name = names[(int) ((i * 0x9E3779B9L + t) & 0x7fffffff) % size];
+                String binder = "clerk" + t;
+                if (!service.moveToBinder(name, binder).isSuccess()) return 0;
+                return service.returnFromBinder(binder, name).isSuccess() ? 1 : 0;
+            });
+            if (threads < maxThreads && threads * 2 > maxThreads) {
+                threads = maxThreads / 2;
+            }
+        }
+    }
+
+    /** One operation run by clerk t; i is that clerk's iteration number. */
+    private interface ParallelOp {
+        long run(int t, int i);
+    }
+
+    /**
+     * Runs op on the given number of threads and prints the median wall-clock ns/op
+     * over all threads; the benchmark name is suffixed with the thread count.
+     */
+    private void measureParallel(String benchmark, int size, int threads, ParallelOp op) {
+        long[] nanosPerOp = new long[ROUNDS];
+        for (int round = -1; round < ROUNDS; round++) {
+            AtomicLong ops = new AtomicLong();
+            CountDownLatch startGate = new CountDownLatch(1);
+            long deadline = System.nanoTime() + millisPerRound * 1_000_000L;
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                int clerk = t;
+                workers[t] = new Thread(() -> {
+                    long acc = 0;
+                    int i = 0;
+                    try {
+                        startGate.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    do {
+                        for (int j = 0; j < 256; j++) {
+                            acc += op.run(clerk, i++);
+                        }
+                    } while (System.nanoTime() < deadline);
+                    ops.addAndGet(i);
+                    sink += acc;
+                });
+                workers[t].start();
+            }
+            long start = System.nanoTime();
+            startGate.countDown();
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= 0) {
+                nanosPerOp[round] = elapsed / Math.max(1, ops.get());
+            }
+        }
+        Arrays.sort(nanosPerOp);
+        String name = benchmark + "@" + threads;
+        long median = nanosPerOp[ROUNDS / 2];
+        if (csv) {
+            System.out.println(name + "," + size + "," + median);
+        } else {
+            System.out.printf("%-36s %10d %14d%n", name, size, median);
+        }
+    }
+
+    /**
+     * Times op and prints the median ns/op over ROUNDS rounds, after a warm-up round.
+     */
+    private void measure(String benchmark, int size, Op op) {
+        int batch = calibrate(op);
+        long[] nanosPerOp = new long[ROUNDS];
+        long acc = 0;
+        for (int round = -1; round < ROUNDS; round++) {
+            long ops = 0;
+            long start = System.nanoTime();
+            long deadline = start + millisPerRound * 1_000_000L;
+            long now;
+            do {
+                for (int i = 0; i < batch; i++) {
+                    acc += op.run((int) ops + i);
+                }
+                ops += batch;
+                now = System.nanoTime();
+            } while (now < deadline);
+            if (round >= 0) {
+                nanosPerOp[round] = (now - start) / ops;
+            }
+        }
+        sink += acc;
+        Arrays.sort(nanosPerOp);
+        long median = nanosPerOp[ROUNDS / 2];
+        if (csv) {
+            System.out.println(benchmark + "," + size + "," + median);
+        } else {
+            System.out.printf("%-36s %10d %14d%n", benchmark, size, median);
+        }
+    }
+
+    /**
+     * @return how many calls to batch between clock reads, so a batch takes about a millisecond.
+     */
+    private static int calibrate(Op op) {
+        int batch = 1;
+        while (batch < (1 << 20)) {
+            long start = System.nanoTime();
+            long acc = 0;
+            for (int i = 0; i < batch; i++) {
+                acc += op.run(i);
+            }
+            sink += acc;
+            if (System.nanoTime() - start >= 1_000_000L) break;
+            batch <<= 1;
+        }
+        return batch;
+    }
+
+    /**
+     * Fills the collection with size synthetic cards drawn with a fixed seed.
+     *
+     * @return the card names, in insertion order.
+     */
+    private static String[] populate(Collection collection, int size) {
+        Random random = new Random(SEED);
+        Rarity[] rarities = Rarity.values();
+        Variant[] variants = Variant.values();
+        String[] names = new String[size];
+        collection.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            Rarity rarity = rarities[random.nextInt(rarities.length)];
+            Variant variant = rarity.isPremium() ? variants[random.nextInt(variants.length)] : Variant.NORMAL;
+            names[i] = "Card-" + i;
+            collection.restoreRow(names[i], rarity, variant, 1 + random.nextInt(100_000), 1 + random.nextInt(4));
+        }
+        return names;
+    }
+
+    private static List<Card> sampleCards(Collection collection, Random random, int n) {
+        ArrayList<Card> sample = new ArrayList<>(n);
+        CardStore store = collection.getStore();
+        while (sample.size() < n) {
+            Card card = store.view(random.nextInt(store.size()));
+            if (!sample.contains(card)) sample.add(card);
+        }
+        return sample;
+    }
+
+    /**
+     * @return one binder of each sellable kind, filled to capacity with cards it accepts.
+     */
+    private static List<Binder> fullBinders(Collection collection, Random random) {
+        List<Binder> binders = List.of(new PauperBinder("pauper"), new RaresBinder("rares"), new LuxuryBinder("luxury"));
+        CardStore store = collection.getStore();
+        for (Binder binder : binders) {
+            for (int tries = 0; !binder.isFull() && tries < 100_000; tries++) {
+                binder.addCard(store.view(random.nextInt(store.size())));
+            }
+        }
+        return binders;
+    }
+
+    private static List<Deck> fullDecks(Collection collection, Random random) {
+        List<Deck> decks = List.of(new NormalDeck("normal"), new SellableDeck("sellable"));
+        for (Deck deck : decks) {
+            for (Card card : sampleCards(collection, random, Deck.MAX_CARDS)) {
+                deck.addCard(card);
+            }
+        }
+        return decks;
+    }
+}
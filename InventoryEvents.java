@@ -0,0 +1,107 @@
+/**
+ * Delivers the changes of one inventory to its registered InventoryListeners.
+ * Each Collector owns one, shared by its collection and by the binders and
+ * decks of the service over it, so a listener only hears about that inventory.
+ * The model classes call the methods here after each change; with no
+ * listeners registered each call is a loop over an empty array.
+ */
+public final class InventoryEvents {
+
+    /** Events of binders and decks that are not part of an inventory yet; nobody hears them. */
+    static final InventoryEvents NONE = new InventoryEvents();
+
+    private volatile InventoryListener[] listeners = new InventoryListener[0];
+
+    /**
+     * @throws IllegalStateException if called on the events of a binder or deck outside any inventory.
+     */
+    public synchronized void addListener(InventoryListener listener) {
+        if (this == NONE) {
+            throw new IllegalStateException("Not part of an inventory.");
+        }
+        InventoryListener[] updated = new InventoryListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, updated, 0, listeners.length);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    public synchronized void removeListener(InventoryListener listener) {
+        InventoryListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                InventoryListener[] updated = new InventoryListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return whether any listener is registered, so bulk operations can skip building events.
+     */
+    boolean hasListeners() {
+        return listeners.length > 0;
+    }
+
+    void cardAdded(Card card) {
+        for (InventoryListener l : listeners) l.cardAdded(card);
+    }
+
+    void cardRemoved(Card card) {
+        for (InventoryListener l : listeners) l.cardRemoved(card);
+    }
+
+    void countChanged(Card card, int oldCount, int newCount) {
+        for (InventoryListener l : listeners) l.countChanged(card, oldCount, newCount);
+    }
+
+    void moneyChanged(long oldCents, long newCents) {
+        for (InventoryListener l : listeners) l.moneyChanged(oldCents, newCents);
+    }
+
+    void binderCreated(Binder binder) {
+        for (InventoryListener l : listeners) l.binderCreated(binder);
+    }
+
+    void binderRemoved(Binder binder) {
+        for (InventoryListener l : listeners) l.binderRemoved(binder);
+    }
+
+    void binderCardAdded(Binder binder, Card card) {
+        for (InventoryListener l : listeners) l.binderCardAdded(binder, card);
+    }
+
+    void binderCardRemoved(Binder binder, Card card) {
+        for (InventoryListener l : listeners) l.binderCardRemoved(binder, card);
+    }
+
+    void customPriceSet(LuxuryBinder binder, long cents) {
+        for (InventoryListener l : listeners) l.customPriceSet(binder, cents);
+    }
+
+    void deckCreated(Deck deck) {
+        for (InventoryListener l : listeners) l.deckCreated(deck);
+    }
+
+    void deckRemoved(Deck deck) {
+        for (InventoryListener l : listeners) l.deckRemoved(deck);
+    }
+
+    void deckCardAdded(Deck deck, Card card) {
+        for (InventoryListener l : listeners) l.deckCardAdded(deck, card);
+    }
+
+    void deckCardRemoved(Deck deck, Card card) {
+        for (InventoryListener l : listeners) l.deckCardRemoved(deck, card);
+    }
+
+    void transactionBegun() {
+        for (InventoryListener l : listeners) l.transactionBegun();
+    }
+
+    void transactionEnded() {
+        for (InventoryListener l : listeners) l.transactionEnded();
+    }
+}
@@ -0,0 +1,606 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of inventory changes.
+ *
+ * Every change reported through InventoryEvents is encoded as one record:
+ * <pre>
+ * int body length, int CRC32 of body, body = long sequence, byte type, fields
+ * </pre>
+ * Records collect in memory and are written with a single fsync per batch
+ * (group commit), either when commit() is called or by the background
+ * committer started with startAutoCommit(). On startup, open() cuts off a
+ * torn or corrupt tail, then replays the records newer than the loaded snapshot.
+ * After a snapshot holding every record up to some sequence is saved,
+ * checkpoint(sequence) drops those records and keeps any appended since.
+ *
+ * The records of an InventoryTransaction are collected per thread and written
+ * together between TX_BEGIN and TX_END records; replay applies such a group
+ * only once it has read its TX_END, so a crash keeps all of it or none.
+ */
+public class InventoryJournal implements InventoryListener {
+
+    /** File used by Main and MainGUI when no other path is given. */
+    public static final Path DEFAULT_FILE = Paths.get("tcis.journal");
+
+    private static final int HEADER_BYTES = 8;
+
+    private static final byte CARD_ADDED = 1;
+    private static final byte CARD_REMOVED = 2;
+    private static final byte COUNT_SET = 3;
+    private static final byte MONEY_SET = 4;
+    private static final byte BINDER_CREATED = 5;
+    private static final byte BINDER_REMOVED = 6;
+    private static final byte BINDER_CARD_ADDED = 7;
+    private static final byte BINDER_CARD_REMOVED = 8;
+    private static final byte CUSTOM_PRICE_SET = 9;
+    private static final byte DECK_CREATED = 10;
+    private static final byte DECK_REMOVED = 11;
+    private static final byte DECK_CARD_ADDED = 12;
+    private static final byte DECK_CARD_REMOVED = 13;
+    private static final byte TX_BEGIN = 14;
+    private static final byte TX_END = 15;
+
+    private final Path file;
+    // Replaced by checkpoint(); only used while holding commitLock
+    private FileChannel channel;
+    private final Object commitLock = new Object();
+    private final CRC32 crc = new CRC32();
+
+    // Body of the record being encoded, reused for every record
+    private final RecordBuffer body = new RecordBuffer();
+
+    // Encoded records waiting for the next commit, and the buffer being written by it
+    private RecordBuffer pending = new RecordBuffer();
+    private RecordBuffer writing = new RecordBuffer();
+
+    // Records of the transaction being applied on this thread, if any; numbered when the transaction ends
+    private final ThreadLocal<RecordBuffer> group = new ThreadLocal<>();
+
+    private long lastSequence;
+    private ScheduledExecutorService committer;
+
+    private InventoryJournal(Path file, FileChannel channel, long lastSequence) {
+        this.file = file;
+        this.channel = channel;
+        this.lastSequence = lastSequence;
+    }
+
+    /**
+     * Opens a journal, replaying onto the given state every record newer than
+     * the state's journal sequence. The whole file is checked before anything
+     * is applied: it is read up to the first torn or corrupt record or unfinished
+     * transaction, and cut off there, so a failed open never leaves records
+     * half applied to be applied again on the next try.
+     * The returned journal is not yet registered with the inventory's InventoryEvents.
+     *
+     * @param file  journal file, created if missing.
+     * @param state inventory loaded from the latest snapshot (or empty).
+     * @return the open journal, positioned for appending.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static InventoryJournal open(Path file, InventorySnapshot state) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ArrayList<ByteBuffer> records = new ArrayList<>();
+            long validEnd = scan(readAll(channel), records);
+            channel.truncate(validEnd);
+            channel.position(validEnd);
+            channel.force(true);
+
+            long lastSequence = state.getJournalSequence();
+            for (ByteBuffer record : records) {
+                long sequence = record.getLong();
+                byte type = record.get(record.position());
+                if (sequence > state.getJournalSequence() && type != TX_BEGIN && type != TX_END) {
+                    apply(record, state);
+                }
+                lastSequence = Math.max(lastSequence, sequence);
+            }
+            return new InventoryJournal(file, channel, lastSequence);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Collects the intact records at the start of a journal without applying
+     * any: it stops at a short record, a CRC mismatch, an unknown type or a
+     * transaction group without its TX_END. A group is only collected once
+     * its TX_END has been read.
+     *
+     * @param records receives the records, TX_BEGIN and TX_END included.
+     * @return the length of the intact part of the file.
+     */
+    private static long scan(ByteBuffer data, ArrayList<ByteBuffer> records) {
+        CRC32 check = new CRC32();
+        long validEnd = 0;
+        ArrayList<ByteBuffer> transaction = null;
+        while (data.remaining() >= HEADER_BYTES) {
+            int length = data.getInt();
+            int expectedCrc = data.getInt();
+            if (length < 9 || length > data.remaining()) break;
+
+            check.reset();
+            check.update(data.array(), data.position(), length);
+            if ((int) check.getValue() != expectedCrc) break;
+
+            ByteBuffer record = data.slice();
+            record.limit(length);
+            data.position(data.position() + length);
+
+            byte type = record.get(8);
+            if (type < CARD_ADDED || type > TX_END) break;
+            if (type == TX_BEGIN) {
+                if (transaction != null) break;
+                transaction = new ArrayList<>();
+                transaction.add(record);
+                continue;
+            }
+            if (transaction != null) {
+                transaction.add(record);
+                if (type != TX_END) continue;
+                records.addAll(transaction);
+                transaction = null;
+            } else if (type == TX_END) {
+                break;
+            } else {
+                records.add(record);
+            }
+            validEnd = data.position();
+        }
+        return validEnd;
+    }
+
+    /**
+     * Starts a daemon thread that commits pending records every interval,
+     * so a burst of changes costs one fsync.
+     *
+     * @param intervalMillis time between commits.
+     */
+    public synchronized void startAutoCommit(long intervalMillis) {
+        if (committer != null) return;
+        committer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-commit");
+            t.setDaemon(true);
+            return t;
+        });
+        committer.scheduleWithFixedDelay(() -> {
+            try {
+                commit();
+            } catch (IOException e) {
+                Diagnostics.error("InventoryJournal", "Journal commit failed: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes every pending record and forces it to disk with one fsync.
+     *
+     * @throws IOException if the write fails.
+     */
+    public void commit() throws IOException {
+        synchronized (commitLock) {
+            synchronized (this) {
+                if (pending.size() == 0) return;
+                RecordBuffer full = pending;
+                pending = writing;
+                writing = full;
+            }
+            ByteBuffer out = writing.asByteBuffer();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(false);
+            writing.reset();
+        }
+    }
+
+    /**
+     * Drops the records a saved snapshot already holds. Records appended after
+     * the snapshot took its sequence are kept: they are copied to a new file
+     * that then replaces the journal, so a crash leaves either file whole.
+     *
+     * @param savedSequence the journal sequence recorded in the snapshot.
+     * @throws IOException if the file cannot be rewritten.
+     */
+    public void checkpoint(long savedSequence) throws IOException {
+        synchronized (commitLock) {
+            commit();
+            ByteBuffer data = readAll(channel);
+            // Records are in sequence order, and a transaction's group is numbered in one step
+            while (data.remaining() >= HEADER_BYTES + 8
+                    && data.getLong(data.position() + HEADER_BYTES) <= savedSequence) {
+                data.position(data.position() + HEADER_BYTES + data.getInt(data.position()));
+            }
+            if (!data.hasRemaining()) {
+                channel.truncate(0);
+                channel.position(0);
+                channel.force(true);
+                return;
+            }
+
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "tcis", ".journal");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (data.hasRemaining()) {
+                    out.write(data);
+                }
+                out.force(true);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            FileChannel old = channel;
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            old.close();
+        }
+    }
+
+    /**
+     * Stops the background committer, commits what is pending and closes the file.
+     *
+     * @throws IOException if the final commit fails.
+     */
+    public void close() throws IOException {
+        synchronized (this) {
+            if (committer != null) {
+                committer.shutdown();
+                committer = null;
+            }
+        }
+        synchronized (commitLock) {
+            try {
+                commit();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * @return the sequence number of the last record written or replayed.
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public synchronized void transactionBegun() {
+        group.set(new RecordBuffer());
+    }
+
+    /**
+     * Numbers the transaction's records and appends them between TX_BEGIN and
+     * TX_END, so no other record and no commit can fall inside the group.
+     */
+    @Override
+    public synchronized void transactionEnded() {
+        RecordBuffer buffer = group.get();
+        if (buffer == null) return;
+        group.remove();
+        begin(TX_BEGIN);
+        end();
+        byte[] records = buffer.array();
+        int pos = 0;
+        while (pos < buffer.size()) {
+            int length = ByteBuffer.wrap(records, pos, HEADER_BYTES).getInt();
+            body.reset();
+            writeLong(++lastSequence);
+            body.write(records, pos + HEADER_BYTES + 8, length - 8);
+            end();
+            pos += HEADER_BYTES + length;
+        }
+        begin(TX_END);
+        end();
+    }
+
+    @Override
+    public synchronized void cardAdded(Card card) {
+        begin(CARD_ADDED);
+        writeCard(card);
+        end();
+    }
+
+    @Override
+    public synchronized void cardRemoved(Card card) {
+        begin(CARD_REMOVED);
+        writeString(card.getName());
+        end();
+    }
+
+    @Override
+    public synchronized void countChanged(Card card, int oldCount, int newCount) {
+        begin(COUNT_SET);
+        writeString(card.getName());
+        writeInt(newCount);
+        end();
+    }
+
+    @Override
+    public synchronized void moneyChanged(long oldCents, long newCents) {
+        begin(MONEY_SET);
+        writeLong(newCents);
+        end();
+    }
+
+    @Override
+    public synchronized void binderCreated(Binder binder) {
+        begin(BINDER_CREATED);
+        writeByte(InventorySnapshot.binderType(binder));
+        writeString(binder.getName());
+        end();
+    }
+
+    @Override
+    public synchronized void binderRemoved(Binder binder) {
+        begin(BINDER_REMOVED);
+        writeString(binder.getName());
+        end();
+    }
+
+    @Override
+    public synchronized void binderCardAdded(Binder binder, Card card) {
+        begin(BINDER_CARD_ADDED);
+        writeString(binder.getName());
+        writeCard(card);
+        end();
+    }
+
+    @Override
+    public synchronized void binderCardRemoved(Binder binder, Card card) {
+        begin(BINDER_CARD_REMOVED);
+        writeString(binder.getName());
+        writeString(card.getName());
+        end();
+    }
+
+    @Override
+    public synchronized void customPriceSet(LuxuryBinder binder, long cents) {
+        begin(CUSTOM_PRICE_SET);
+        writeString(binder.getName());
+        writeLong(cents);
+        end();
+    }
+
+    @Override
+    public synchronized void deckCreated(Deck deck) {
+        begin(DECK_CREATED);
+        writeByte(InventorySnapshot.deckType(deck));
+        writeString(deck.getName());
+        end();
+    }
+
+    @Override
+    public synchronized void deckRemoved(Deck deck) {
+        begin(DECK_REMOVED);
+        writeString(deck.getName());
+        end();
+    }
+
+    @Override
+    public synchronized void deckCardAdded(Deck deck, Card card) {
+        begin(DECK_CARD_ADDED);
+        writeString(deck.getName());
+        writeCard(card);
+        end();
+    }
+
+    @Override
+    public synchronized void deckCardRemoved(Deck deck, Card card) {
+        begin(DECK_CARD_REMOVED);
+        writeString(deck.getName());
+        writeString(card.getName());
+        end();
+    }
+
+    /**
+     * @return the whole file, ready to read.
+     */
+    private static ByteBuffer readAll(FileChannel channel) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+        while (data.hasRemaining() && channel.read(data, data.position()) > 0) {
+            // keep reading until the buffer is full
+        }
+        data.flip();
+        return data;
+    }
+
+    private static void apply(ByteBuffer in, InventorySnapshot state) throws IOException {
+        Collection collection = state.getCollector().getCollection();
+        byte type = in.get();
+        switch (type) {
+            case CARD_ADDED: {
+                Card card = readCard(in);
+                collection.restoreRow(card.getName(), card.getRarityType(), card.getVariantType(),
+                        card.getBaseValueCents(), card.getCount());
+                break;
+            }
+            case CARD_REMOVED: {
+                Card card = collection.findCardByName(readString(in));
+                if (card != null) collection.removeCard(card);
+                break;
+            }
+            case COUNT_SET: {
+                Card card = collection.findCardByName(readString(in));
+                int count = in.getInt();
+                if (card != null) card.setCount(count);
+                break;
+            }
+            case MONEY_SET:
+                state.getCollector().restoreMoneyCents(in.getLong());
+                break;
+            case BINDER_CREATED: {
+                byte binderType = in.get();
+                String name = readString(in);
+                if (findBinder(state, name) == null) {
+                    state.getBinders().add(InventorySnapshot.newBinder(binderType, name));
+                }
+                break;
+            }
+            case BINDER_REMOVED:
+                state.getBinders().remove(findBinder(state, readString(in)));
+                break;
+            case BINDER_CARD_ADDED: {
+                Binder binder = findBinder(state, readString(in));
+                Card card = readCard(in);
+                if (binder != null) binder.restoreCard(card);
+                break;
+            }
+            case BINDER_CARD_REMOVED: {
+                Binder binder = findBinder(state, readString(in));
+                String cardName = readString(in);
+                if (binder != null) binder.removeCardByName(cardName);
+                break;
+            }
+            case CUSTOM_PRICE_SET: {
+                Binder binder = findBinder(state, readString(in));
+                long cents = in.getLong();
+                if (binder instanceof LuxuryBinder) ((LuxuryBinder) binder).setCustomPriceCents(cents);
+                break;
+            }
+            case DECK_CREATED: {
+                byte deckType = in.get();
+                String name = readString(in);
+                if (findDeck(state, name) == null) {
+                    state.getDecks().add(InventorySnapshot.newDeck(deckType, name));
+                }
+                break;
+            }
+            case DECK_REMOVED:
+                state.getDecks().remove(findDeck(state, readString(in)));
+                break;
+            case DECK_CARD_ADDED: {
+                Deck deck = findDeck(state, readString(in));
+                Card card = readCard(in);
+                if (deck != null) deck.restoreCard(card);
+                break;
+            }
+            case DECK_CARD_REMOVED: {
+                Deck deck = findDeck(state, readString(in));
+                String cardName = readString(in);
+                if (deck != null) deck.restoreRemoval(cardName);
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record type: " + type);
+        }
+    }
+
+    private static Binder findBinder(InventorySnapshot state, String name) {
+        for (Binder b : state.getBinders()) {
+            if (b.getName().equalsIgnoreCase(name)) return b;
+        }
+        return null;
+    }
+
+    private static Deck findDeck(InventorySnapshot state, String name) {
+        for (Deck d : state.getDecks()) {
+            if (d.getName().equalsIgnoreCase(name)) return d;
+        }
+        return null;
+    }
+
+    private void begin(byte type) {
+        body.reset();
+        // Records of an open transaction are numbered when it ends
+        writeLong(group.get() != null ? 0 : ++lastSequence);
+        writeByte(type);
+    }
+
+    private void end() {
+        RecordBuffer out = group.get();
+        if (out == null) {
+            out = pending;
+        }
+        crc.reset();
+        crc.update(body.array(), 0, body.size());
+        out.writeInt(body.size());
+        out.writeInt((int) crc.getValue());
+        out.write(body.array(), 0, body.size());
+    }
+
+    private void writeCard(Card card) {
+        writeString(card.getName());
+        writeByte((byte) card.getRarityType().ordinal());
+        writeByte((byte) card.getVariantType().ordinal());
+        writeLong(card.getBaseValueCents());
+        writeInt(card.getCount());
+    }
+
+    private static Card readCard(ByteBuffer in) {
+        String name = readString(in);
+        Rarity rarity = Rarity.fromOrdinal(in.get());
+        Variant variant = Variant.fromOrdinal(in.get());
+        Card card = new Card(name, rarity, variant, in.getLong());
+        card.setCount(in.getInt());
+        return card;
+    }
+
+    private void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        body.writeInt(bytes.length);
+        body.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeByte(byte value) {
+        body.write(value);
+    }
+
+    private void writeInt(int value) {
+        body.writeInt(value);
+    }
+
+    private void writeLong(long value) {
+        body.writeInt((int) (value >>> 32));
+        body.writeInt((int) value);
+    }
+
+    /**
+     * Byte buffer that exposes its backing array, so records are copied once.
+     */
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer() {
+            super(4096);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
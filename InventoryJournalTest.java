@@ -0,0 +1,143 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Checks recovery through InventoryJournal: changes made after a save are
+ * replayed on top of the snapshot exactly once, and a journal cut short or
+ * damaged at any point replays only whole records and whole transactions.
+ * Uses temporary files; exits with status 1 if a check fails.
+ *
+ * Usage: java InventoryJournalTest
+ */
+public class InventoryJournalTest {
+
+    private static int failures;
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("tcis-journal-test");
+        replayAfterCheckpoint(dir);
+        tornTail(dir);
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+        System.out.println(failures == 0 ? "All journal checks passed." : failures + " journal checks failed.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Saves halfway through, then closes without saving again, so reopening must
+     * replay only what came after the checkpoint.
+     */
+    private static void replayAfterCheckpoint(Path dir) {
+        Path snapshot = dir.resolve("replay.snapshot");
+        Path journal = dir.resolve("replay.journal");
+        InventoryService service = InventoryService.open(snapshot, journal);
+        service.addCard("Dragon", "rare", "full-art", 1_250);
+        service.setCardCount("Dragon", 4);
+        service.createBinder("Keep", "non-curated");
+        service.moveToBinder("Dragon", "Keep");
+        check(service.save().isSuccess(), "save succeeds");
+
+        service.addCopy("Dragon");
+        service.addCopy("Dragon");
+        service.moveToBinder("Dragon", "Keep");
+        service.addCard("Goblin", "common", null, 75);
+        service.createDeck("Main", "normal");
+        service.moveToDeck("Goblin", "Main");
+        service.getCollector().addMoneyCents(500);
+        check(service.close().isSuccess(), "close succeeds");
+
+        InventoryService reopened = InventoryService.open(snapshot, journal);
+        check(reopened.getStartupWarnings().isEmpty(), "no warnings, got " + reopened.getStartupWarnings());
+        Card dragon = reopened.findCard("Dragon");
+        check(dragon != null && dragon.getCount() == 4, "Dragon count is 4, each copy counted once, got "
+                + (dragon == null ? "none" : dragon.getCount()));
+        Binder keep = reopened.findBinder("Keep");
+        check(keep != null && keep.getCardCount() == 2, "binder holds the copy from before and after the save");
+        Card goblin = reopened.findCard("Goblin");
+        check(goblin != null && goblin.getCount() == 0, "Goblin was added and moved out");
+        Deck main = reopened.findDeck("Main");
+        check(main != null && main.size() == 1, "deck created after the save is replayed");
+        check(reopened.getMoneyCents() == 500, "money change is replayed");
+        reopened.close();
+
+        // Opening again without changes replays the same records to the same state
+        InventoryService again = InventoryService.open(snapshot, journal);
+        check(again.findCard("Dragon").getCount() == 4 && again.findBinder("Keep").getCardCount() == 2,
+                "a second open gives the same state");
+        again.close();
+    }
+
+    /**
+     * Cuts the journal at every length and flips a byte in its last records. Each
+     * reopen must give the state after some whole operation: no card, the one copy
+     * addCard gives, or all five copies split between the collection and the
+     * binder, so no move is half applied.
+     */
+    private static void tornTail(Path dir) throws IOException {
+        Path journal = dir.resolve("torn.journal");
+        InventoryService service = InventoryService.open(dir.resolve("none.snapshot"), journal);
+        service.addCard("Dragon", "common", null, 100);
+        service.setCardCount("Dragon", 5);
+        service.createBinder("Keep", "non-curated");
+        service.moveToBinder("Dragon", "Keep");
+        service.moveToBinder("Dragon", "Keep");
+        service.close();
+        long size = Files.size(journal);
+
+        int lastCopies = -1;
+        for (long cut = size; cut >= 0; cut--) {
+            Path torn = dir.resolve("torn-" + cut + ".journal");
+            Files.copy(journal, torn);
+            try (FileChannel channel = FileChannel.open(torn, StandardOpenOption.WRITE)) {
+                channel.truncate(cut);
+            }
+            InventoryService reopened = InventoryService.open(dir.resolve("none.snapshot"), torn);
+            int copies = copiesOfDragon(reopened);
+            check(copies == -1 || copies == 1 || copies == 5, "cut at " + cut + " keeps whole operations, got " + copies);
+            check(Files.size(torn) <= cut, "cut at " + cut + " leaves no partial record behind");
+            reopened.close();
+            if (cut == size) lastCopies = copies;
+        }
+        check(lastCopies == 5, "the whole journal replays");
+
+        for (long at = size - 1; at >= size - 40 && at >= 0; at--) {
+            Path damaged = dir.resolve("damaged-" + at + ".journal");
+            Files.copy(journal, damaged);
+            byte[] bytes = Files.readAllBytes(damaged);
+            bytes[(int) at] ^= 0x5A;
+            Files.write(damaged, bytes);
+            InventoryService reopened = InventoryService.open(dir.resolve("none.snapshot"), damaged);
+            int copies = copiesOfDragon(reopened);
+            check(copies == -1 || copies == 1 || copies == 5, "damage at " + at + " keeps whole operations, got " + copies);
+            reopened.close();
+        }
+    }
+
+    /**
+     * @return copies of Dragon in the collection and the binder, or -1 if the card was not replayed.
+     */
+    private static int copiesOfDragon(InventoryService service) {
+        Card dragon = service.findCard("Dragon");
+        if (dragon == null || dragon.getCount() == 0) {
+            return -1;
+        }
+        Binder keep = service.findBinder("Keep");
+        return dragon.getCount() + (keep == null ? 0 : keep.getCardCount());
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Receives the changes made to the inventory model: collection cards and
+ * counts, money, binders, decks and their contents.
+ * Register with the addListener of an inventory's InventoryEvents, see
+ * Collector.getEvents. All methods default to doing nothing.
+ */
+public interface InventoryListener {
+
+    /** A new card was added to the collection. */
+    default void cardAdded(Card card) {}
+
+    /** A card was removed from the collection. */
+    default void cardRemoved(Card card) {}
+
+    /** The count of a collection card changed. */
+    default void countChanged(Card card, int oldCount, int newCount) {}
+
+    /** The collector's money changed. */
+    default void moneyChanged(long oldCents, long newCents) {}
+
+    /** A binder was created. */
+    default void binderCreated(Binder binder) {}
+
+    /** A binder was deleted or sold. */
+    default void binderRemoved(Binder binder) {}
+
+    /** A card was put into a binder. */
+    default void binderCardAdded(Binder binder, Card card) {}
+
+    /** A card was taken out of a binder. */
+    default void binderCardRemoved(Binder binder, Card card) {}
+
+    /** A custom sell price was accepted for a luxury binder. */
+    default void customPriceSet(LuxuryBinder binder, long cents) {}
+
+    /** A deck was created. */
+    default void deckCreated(Deck deck) {}
+
+    /** A deck was deleted or sold. */
+    default void deckRemoved(Deck deck) {}
+
+    /** A card was put into a deck. */
+    default void deckCardAdded(Deck deck, Card card) {}
+
+    /** A card was taken out of a deck. */
+    default void deckCardRemoved(Deck deck, Card card) {}
+
+    /**
+     * The changes that follow on this thread, up to transactionEnded, belong to one
+     * InventoryTransaction and should be kept or lost together.
+     */
+    default void transactionBegun() {}
+
+    /** The transaction begun on this thread has been applied. */
+    default void transactionEnded() {}
+}
@@ -0,0 +1,205 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test for InventoryServer. Starts the server on a free localhost port
+ * over an in-memory inventory of synthetic cards, so no saved inventory is
+ * touched, then runs closed-loop clients against it and prints requests per
+ * second and latency percentiles.
+ *
+ * Usage: java InventoryLoadTest [--cards n] [--clients n] [--seconds n]
+ *
+ * Each client has its own binder and mixes card lookups (80%)
+ * with moving a card into its binder and back (10% each). A client keeps track
+ * of the cards in its binder, so it only returns cards it has moved in and only
+ * moves cards in while there is room. Latencies are of successful requests;
+ * refused requests (400) and failures are counted apart. The service's own
+ * operation latencies, from InventoryMetrics, are printed alongside.
+ */
+public class InventoryLoadTest {
+
+    /** Cards a non-curated binder holds. */
+    private static final int BINDER_CARDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int cards = 10_000;
+        int clients = 32;
+        int seconds = 10;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--cards": cards = Integer.parseInt(args[++i]); break;
+                case "--clients": clients = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Integer.parseInt(args[++i]); break;
+                default:
+                    System.out.println("Usage: java InventoryLoadTest [--cards n] [--clients n] [--seconds n]");
+                    return;
+            }
+        }
+
+        InventoryMetrics.register();
+        InventoryService service = new InventoryService();
+        String[] names = new String[cards];
+        Random random = new Random(42);
+        for (int i = 0; i < cards; i++) {
+            names[i] = "Card " + i;
+            service.addCard(names[i], "rare", "full-art", 100 + random.nextInt(100_000));
+            service.setCardCount(names[i], 1_000);
+        }
+        for (int c = 0; c < clients; c++) {
+            service.createBinder("client" + c, "non-curated");
+        }
+
+        InventoryServer server = new InventoryServer(service, 0);
+        server.start();
+        String base = "http://localhost:" + server.getPort();
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .executor(InventoryServer.newRequestExecutor()).build();
+        System.out.printf("Load test: %d cards, %d clients, %d s against %s%n", cards, clients, seconds, base);
+
+        // The cards each client has moved into its binder, kept across the warm-up and the run
+        List<List<String>> held = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            held.add(new ArrayList<>());
+        }
+
+        // One warm-up second, not counted
+        run(http, base, names, held, 1);
+        for (OperationMetrics metrics : InventoryMetrics.operations()) {
+            metrics.reset();
+        }
+        Result result = run(http, base, names, held, seconds);
+        server.stop();
+
+        long[] latencies = result.latencies;
+        Arrays.sort(latencies);
+        System.out.printf("Requests: %d succeeded, %d refused, %d failed in %.2f s%n", latencies.length,
+                result.refused, result.failed, result.elapsedNanos / 1e9);
+        System.out.printf("Throughput: %.0f successful requests/s%n", latencies.length * 1e9 / result.elapsedNanos);
+        System.out.printf("Latency: p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+        System.out.println("Server-side operations:");
+        for (OperationMetrics metrics : InventoryMetrics.operations()) {
+            if (metrics.getCount() > 0) {
+                System.out.println("  " + metrics);
+            }
+        }
+    }
+
+    private static final class Result {
+        long[] latencies;
+        long refused;
+        long failed;
+        long elapsedNanos;
+    }
+
+    private static Result run(HttpClient http, String base, String[] names, List<List<String>> held, int seconds)
+            throws InterruptedException {
+        int clients = held.size();
+        long[][] perClient = new long[clients][];
+        int[] counts = new int[clients];
+        AtomicLong refused = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(client);
+                List<String> inBinder = held.get(client);
+                long[] latencies = new long[1024];
+                int n = 0;
+                String binder = base + "/binders/client" + client;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        int pick = random.nextInt(10);
+                        // Move a card in when the binder is empty, and one out when it is full
+                        boolean add = pick == 8 ? inBinder.size() < BINDER_CARDS : inBinder.isEmpty();
+                        String name = pick < 8 || add ? names[random.nextInt(names.length)]
+                                : inBinder.get(random.nextInt(inBinder.size()));
+                        String encoded = URLEncoder.encode(name, StandardCharsets.UTF_8).replace("+", "%20");
+                        HttpRequest request;
+                        if (pick < 8) {
+                            request = HttpRequest.newBuilder(URI.create(base + "/cards/" + encoded)).GET().build();
+                        } else if (add) {
+                            request = HttpRequest.newBuilder(URI.create(binder + "/cards"))
+                                    .header("Content-Type", "application/x-www-form-urlencoded")
+                                    .POST(HttpRequest.BodyPublishers.ofString("card=" + encoded)).build();
+                        } else {
+                            request = HttpRequest.newBuilder(URI.create(binder + "/cards/" + encoded)).DELETE().build();
+                        }
+
+                        long sent = System.nanoTime();
+                        int status;
+                        try {
+                            status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (IOException e) {
+                            status = -1;
+                        }
+                        long elapsed = System.nanoTime() - sent;
+                        if (status == 400) {
+                            refused.incrementAndGet();
+                            continue;
+                        } else if (status != 200) {
+                            failed.incrementAndGet();
+                            continue;
+                        }
+                        if (pick >= 8) {
+                            if (add) inBinder.add(name);
+                            else inBinder.remove(name);
+                        }
+                        if (n == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, n * 2);
+                        }
+                        latencies[n++] = elapsed;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    perClient[client] = latencies;
+                    counts[client] = n;
+                    done.countDown();
+                }
+            }, "load-client-" + client);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        Result result = new Result();
+        result.elapsedNanos = System.nanoTime() - start;
+        result.refused = refused.get();
+        result.failed = failed.get();
+        int total = 0;
+        for (int count : counts) total += count;
+        result.latencies = new long[total];
+        int pos = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(perClient[c], 0, result.latencies, pos, counts[c]);
+            pos += counts[c];
+        }
+        return result;
+    }
+
+    /**
+     * @return the given percentile of sorted latencies, in milliseconds.
+     */
+    private static double percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
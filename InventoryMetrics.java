@@ -0,0 +1,111 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Built-in counters and latency histograms for the core inventory operations,
+ * recorded by InventoryService whichever front end calls it.
+ *
+ * register() publishes them to the platform MBean server, where JConsole or a
+ * local scraper can watch them live: each operation as
+ * tcis:type=Operation,name=..., and the trade outcomes as tcis:type=Trades.
+ */
+public class InventoryMetrics implements InventoryMetricsMBean {
+
+    public static final OperationMetrics CARD_ADDED = new OperationMetrics("cardAdded");
+    public static final OperationMetrics COUNT_CHANGED = new OperationMetrics("countChanged");
+    public static final OperationMetrics IMPORT = new OperationMetrics("import");
+    public static final OperationMetrics BINDER_ADD = new OperationMetrics("binderAdd");
+    public static final OperationMetrics BINDER_REMOVE = new OperationMetrics("binderRemove");
+    public static final OperationMetrics DECK_ADD = new OperationMetrics("deckAdd");
+    public static final OperationMetrics DECK_REMOVE = new OperationMetrics("deckRemove");
+    public static final OperationMetrics TRADE = new OperationMetrics("trade");
+    public static final OperationMetrics CARD_SOLD = new OperationMetrics("cardSold");
+    public static final OperationMetrics BINDER_SOLD = new OperationMetrics("binderSold");
+    public static final OperationMetrics DECK_SOLD = new OperationMetrics("deckSold");
+
+    private static final OperationMetrics[] OPERATIONS = {
+            CARD_ADDED, COUNT_CHANGED, IMPORT, BINDER_ADD, BINDER_REMOVE, DECK_ADD, DECK_REMOVE,
+            TRADE, CARD_SOLD, BINDER_SOLD, DECK_SOLD
+    };
+
+    private static final InventoryMetrics TRADES = new InventoryMetrics();
+    private static boolean registered;
+
+    private final LongAdder tradesAccepted = new LongAdder();
+    private final LongAdder tradesNeedingConfirmation = new LongAdder();
+    private final LongAdder tradesCancelled = new LongAdder();
+
+    private InventoryMetrics() {
+    }
+
+    /**
+     * Publishes every metric to the platform MBean server. Safe to call more than once.
+     */
+    public static synchronized void register() {
+        if (registered) return;
+        registered = true;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (OperationMetrics metrics : OPERATIONS) {
+                server.registerMBean(metrics, new ObjectName("tcis:type=Operation,name=" + metrics.getName()));
+            }
+            server.registerMBean(TRADES, new ObjectName("tcis:type=Trades"));
+        } catch (JMException | RuntimeException e) {
+            Diagnostics.warn("InventoryMetrics", "Could not publish metrics over JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the metrics of every operation, in a fixed order.
+     */
+    public static OperationMetrics[] operations() {
+        return OPERATIONS.clone();
+    }
+
+    /**
+     * Counts the result of a trade: accepted, or held back until the user confirms.
+     */
+    static void tradeResult(OperationResult result) {
+        if (result.isSuccess()) {
+            TRADES.tradesAccepted.increment();
+        } else if (result.needsConfirmation()) {
+            TRADES.tradesNeedingConfirmation.increment();
+        }
+    }
+
+    /**
+     * Counts a trade the user declined after being asked to confirm it.
+     */
+    static void tradeCancelled() {
+        TRADES.tradesCancelled.increment();
+    }
+
+    public static InventoryMetrics trades() {
+        return TRADES;
+    }
+
+    @Override
+    public long getTradesAccepted() {
+        return tradesAccepted.sum();
+    }
+
+    @Override
+    public long getTradesNeedingConfirmation() {
+        return tradesNeedingConfirmation.sum();
+    }
+
+    @Override
+    public long getTradesCancelled() {
+        return tradesCancelled.sum();
+    }
+
+    @Override
+    public void reset() {
+        tradesAccepted.reset();
+        tradesNeedingConfirmation.reset();
+        tradesCancelled.reset();
+    }
+}
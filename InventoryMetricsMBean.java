@@ -0,0 +1,14 @@
+/**
+ * JMX view of the trade outcomes; see InventoryMetrics. Per-operation call
+ * counts and latencies are published as separate OperationMetrics beans.
+ */
+public interface InventoryMetricsMBean {
+
+    long getTradesAccepted();
+
+    long getTradesNeedingConfirmation();
+
+    long getTradesCancelled();
+
+    void reset();
+}
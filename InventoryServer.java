@@ -0,0 +1,593 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded HTTP server exposing the InventoryService as JSON endpoints, so
+ * point-of-sale terminals and scripts can use the inventory without the
+ * console or Swing front ends. It listens on localhost only.
+ *
+ * Usage: java InventoryServer [--port 8080]
+ *
+ * <pre>
+ * GET    /cards                         list collection cards; optional prefix, rarity, variant,
+ *                                       minValue, maxValue, inStock, minCount,
+ *                                       sort (none, name, value, value-desc, count-desc), offset, limit
+ * GET    /cards/{name}                  one card
+ * GET    /cards/{name}/locations        copies held by each binder and deck
+ * POST   /cards                         add: name, rarity, variant, baseValue
+ * POST   /cards/{name}/copies           add one copy
+ * POST   /cards/{name}/count            set count: count
+ * POST   /cards/{name}/sell             sell one copy
+ * GET    /binders, /binders/{name}      list binders, one binder with its cards
+ * POST   /binders                       create: name, type
+ * DELETE /binders/{name}                delete, returning its cards
+ * POST   /binders/{name}/cards          move a copy in: card
+ * DELETE /binders/{name}/cards/{card}   return a card to the collection
+ * POST   /binders/{name}/trade          outgoing, name, rarity, variant, baseValue, confirmed
+ * POST   /binders/{name}/sell           sell, with an optional price for luxury binders
+ * GET    /decks, /decks/{name}, POST /decks, DELETE /decks/{name},
+ * POST   /decks/{name}/cards, DELETE /decks/{name}/cards/{card}, POST /decks/{name}/sell
+ * GET    /money
+ * POST   /save
+ * </pre>
+ *
+ * Parameters come from the query string and from a form-encoded or flat JSON
+ * object body. Money is given in dollars ("12.50") and returned in cents.
+ * Operations answer {"status", "message", "amountCents"} with 200 when done,
+ * 409 when a trade needs confirmed=true, 400 when refused and 404 for an
+ * unknown path or name.
+ *
+ * Each request runs on its own virtual thread when the JVM has them (Java 21
+ * and later) and on a cached thread pool otherwise.
+ */
+public class InventoryServer {
+
+    private final InventoryService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server on localhost and switches the service to concurrent mode.
+     *
+     * @param port the port, or 0 for any free port.
+     */
+    public InventoryServer(InventoryService service, int port) throws IOException {
+        // Without TCP_NODELAY, keep-alive responses stall ~40 ms on delayed ACKs; read once by the JDK server
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.service = service;
+        service.enableConcurrency();
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 128);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * @return an executor that starts a virtual thread per task if the JVM
+     *         supports it, otherwise a cached pool of platform threads.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "inventory-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to a second for running ones and stops the threads.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        for (int i = 0; i < args.length; i++) {
+            if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                System.out.println("Usage: java InventoryServer [--port 8080]");
+                return;
+            }
+        }
+
+        Diagnostics.quietUnlessConfigured();
+        InventoryService service = InventoryService.openDefault();
+        for (String warning : service.getStartupWarnings()) {
+            System.out.println("Warning: " + warning);
+        }
+        InventoryServer server = new InventoryServer(service, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            System.out.println(service.save());
+            service.close();
+        }));
+        server.start();
+        System.out.println("Inventory server listening on http://localhost:" + server.getPort() + "/");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = splitPath(exchange.getRequestURI().getRawPath());
+            Map<String, String> params = readParams(exchange);
+            Response response = route(method, path, params);
+            send(exchange, response.code, response.body);
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, result("failed", e.getMessage(), 0));
+        } catch (RuntimeException e) {
+            send(exchange, 500, result("failed", "Internal error: " + e, 0));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static final class Response {
+        final int code;
+        final String body;
+
+        Response(int code, String body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
+
+    private static final Response NOT_FOUND = new Response(404, result("failed", "Not found.", 0));
+
+    private Response route(String method, String[] path, Map<String, String> params) {
+        if (path.length == 0) return NOT_FOUND;
+        boolean get = "GET".equals(method);
+        boolean post = "POST".equals(method);
+        boolean delete = "DELETE".equals(method);
+
+        switch (path[0]) {
+            case "money":
+                if (get && path.length == 1) {
+                    return new Response(200, "{\"moneyCents\":" + service.getMoneyCents() + "}");
+                }
+                break;
+            case "save":
+                if (post && path.length == 1) return reply(service.save());
+                break;
+            case "cards":
+                if (path.length == 1) {
+                    if (get) return new Response(200, cards(params));
+                    if (post) {
+                        return reply(service.addCard(require(params, "name"), require(params, "rarity"),
+                                params.get("variant"), dollars(require(params, "baseValue"))));
+                    }
+                } else {
+                    Card card = service.findCard(path[1]);
+                    if (card == null) return NOT_FOUND;
+                    if (get && path.length == 2) return new Response(200, card(card));
+                    if (get && path.length == 3 && "locations".equals(path[2])) return new Response(200, locations(card));
+                    if (post && path.length == 3) {
+                        switch (path[2]) {
+                            case "copies": return reply(service.addCopy(card.getName()));
+                            case "count": return reply(service.setCardCount(card.getName(), integer(require(params, "count"))));
+                            case "sell": return reply(service.sellCard(card.getName()));
+                        }
+                    }
+                }
+                break;
+            case "binders":
+                if (path.length == 1) {
+                    if (get) return new Response(200, binders());
+                    if (post) return reply(service.createBinder(require(params, "name"), require(params, "type")));
+                } else {
+                    Binder binder = service.findBinder(path[1]);
+                    if (binder == null) return NOT_FOUND;
+                    if (path.length == 2) {
+                        if (get) return new Response(200, binder(binder));
+                        if (delete) return reply(service.deleteBinder(binder.getName()));
+                    } else if ("cards".equals(path[2])) {
+                        if (post && path.length == 3) return reply(service.moveToBinder(require(params, "card"), binder.getName()));
+                        if (delete && path.length == 4) return reply(service.returnFromBinder(binder.getName(), path[3]));
+                    } else if (post && path.length == 3 && "trade".equals(path[2])) {
+                        return reply(service.trade(binder.getName(), require(params, "outgoing"), require(params, "name"),
+                                require(params, "rarity"), params.get("variant"), dollars(require(params, "baseValue")),
+                                Boolean.parseBoolean(params.get("confirmed"))));
+                    } else if (post && path.length == 3 && "sell".equals(path[2])) {
+                        String price = params.get("price");
+                        return reply(service.sellBinder(binder.getName(), price == null ? -1 : dollars(price)));
+                    }
+                }
+                break;
+            case "decks":
+                if (path.length == 1) {
+                    if (get) return new Response(200, decks());
+                    if (post) return reply(service.createDeck(require(params, "name"), require(params, "type")));
+                } else {
+                    Deck deck = service.findDeck(path[1]);
+                    if (deck == null) return NOT_FOUND;
+                    if (path.length == 2) {
+                        if (get) return new Response(200, deck(deck));
+                        if (delete) return reply(service.deleteDeck(deck.getName()));
+                    } else if ("cards".equals(path[2])) {
+                        if (post && path.length == 3) return reply(service.moveToDeck(require(params, "card"), deck.getName()));
+                        if (delete && path.length == 4) return reply(service.returnFromDeck(deck.getName(), path[3]));
+                    } else if (post && path.length == 3 && "sell".equals(path[2])) {
+                        return reply(service.sellDeck(deck.getName()));
+                    }
+                }
+                break;
+        }
+        return NOT_FOUND;
+    }
+
+    private static Response reply(OperationResult result) {
+        switch (result.getStatus()) {
+            case OK:
+                return new Response(200, result("ok", result.getMessage(), result.getAmountCents()));
+            case NEEDS_CONFIRMATION:
+                return new Response(409, result("needs-confirmation", result.getMessage(), result.getAmountCents()));
+            default:
+                return new Response(400, result("failed", result.getMessage(), result.getAmountCents()));
+        }
+    }
+
+    // ---- Parameters ----
+
+    private static String[] splitPath(String rawPath) {
+        String trimmed = rawPath.replaceAll("^/+|/+$", "");
+        if (trimmed.isEmpty()) return new String[0];
+        String[] parts = trimmed.split("/+");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = URLDecoder.decode(parts[i], StandardCharsets.UTF_8);
+        }
+        return parts;
+    }
+
+    private static Map<String, String> readParams(HttpExchange exchange) throws IOException {
+        HashMap<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        String body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+        if (body.startsWith("{")) {
+            parseFlatJson(body, params);
+        } else {
+            parseForm(body, params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) return;
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Reads an object whose values are strings, numbers, booleans or null; nesting is not supported.
+     */
+    private static void parseFlatJson(String json, Map<String, String> params) {
+        int[] pos = {1};
+        skipSpace(json, pos);
+        if (peek(json, pos) == '}') return;
+        while (true) {
+            skipSpace(json, pos);
+            String key = readJsonString(json, pos);
+            skipSpace(json, pos);
+            expect(json, pos, ':');
+            skipSpace(json, pos);
+            String value;
+            if (peek(json, pos) == '"') {
+                value = readJsonString(json, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < json.length() && ",} \t\r\n".indexOf(json.charAt(pos[0])) < 0) pos[0]++;
+                value = json.substring(start, pos[0]);
+                if (value.isEmpty() || value.startsWith("{") || value.startsWith("[")) {
+                    throw new IllegalArgumentException("Only flat JSON objects are supported.");
+                }
+                if ("null".equals(value)) value = null;
+            }
+            if (value != null) params.put(key, value);
+            skipSpace(json, pos);
+            char c = peek(json, pos);
+            pos[0]++;
+            if (c == '}') return;
+            if (c != ',') throw new IllegalArgumentException("Malformed JSON body.");
+        }
+    }
+
+    private static String readJsonString(String json, int[] pos) {
+        expect(json, pos, '"');
+        StringBuilder out = new StringBuilder();
+        while (pos[0] < json.length()) {
+            char c = json.charAt(pos[0]++);
+            if (c == '"') return out.toString();
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            if (pos[0] >= json.length()) break;
+            char e = json.charAt(pos[0]++);
+            switch (e) {
+                case 'n': out.append('\n'); break;
+                case 't': out.append('\t'); break;
+                case 'r': out.append('\r'); break;
+                case 'b': out.append('\b'); break;
+                case 'f': out.append('\f'); break;
+                case 'u':
+                    if (pos[0] + 4 > json.length()) throw new IllegalArgumentException("Malformed JSON body.");
+                    out.append((char) Integer.parseInt(json.substring(pos[0], pos[0] + 4), 16));
+                    pos[0] += 4;
+                    break;
+                default: out.append(e);
+            }
+        }
+        throw new IllegalArgumentException("Malformed JSON body.");
+    }
+
+    private static char peek(String json, int[] pos) {
+        if (pos[0] >= json.length()) throw new IllegalArgumentException("Malformed JSON body.");
+        return json.charAt(pos[0]);
+    }
+
+    private static void expect(String json, int[] pos, char c) {
+        if (peek(json, pos) != c) throw new IllegalArgumentException("Malformed JSON body.");
+        pos[0]++;
+    }
+
+    private static void skipSpace(String json, int[] pos) {
+        while (pos[0] < json.length() && Character.isWhitespace(json.charAt(pos[0]))) pos[0]++;
+    }
+
+    private static String require(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    private static long dollars(String text) {
+        try {
+            return Money.parse(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+    }
+
+    private static int integer(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + text);
+        }
+    }
+
+    // ---- JSON output ----
+
+    private String cards(Map<String, String> params) {
+        CardQuery query = service.getCollection().query().namePrefix(params.get("prefix"));
+        if (params.containsKey("rarity")) {
+            Rarity rarity = Rarity.fromLabel(params.get("rarity"));
+            if (rarity == null) throw new IllegalArgumentException("Invalid rarity: " + params.get("rarity"));
+            query.rarities(rarity);
+        }
+        if (params.containsKey("variant")) {
+            Variant variant = Variant.fromLabel(params.get("variant"));
+            if (variant == null) throw new IllegalArgumentException("Invalid variant: " + params.get("variant"));
+            query.variants(variant);
+        }
+        if (params.containsKey("minValue") || params.containsKey("maxValue")) {
+            query.valueBetween(params.containsKey("minValue") ? dollars(params.get("minValue")) : Long.MIN_VALUE,
+                    params.containsKey("maxValue") ? dollars(params.get("maxValue")) : Long.MAX_VALUE);
+        }
+        if (Boolean.parseBoolean(params.get("inStock"))) query.minCount(1);
+        if (params.containsKey("minCount")) query.minCount(integer(params.get("minCount")));
+        if (params.containsKey("sort")) {
+            try {
+                query.sortBy(CardQuery.Sort.valueOf(params.get("sort").toUpperCase().replace('-', '_')));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid sort: " + params.get("sort"));
+            }
+        }
+        if (params.containsKey("offset")) query.offset(integer(params.get("offset")));
+        if (params.containsKey("limit")) query.limit(integer(params.get("limit")));
+
+        List<Card> cards = query.list();
+        StringBuilder out = new StringBuilder("[");
+        for (Card card : cards) {
+            if (out.length() > 1) out.append(',');
+            appendCard(out, card, true);
+        }
+        return out.append(']').toString();
+    }
+
+    private static String card(Card card) {
+        StringBuilder out = new StringBuilder();
+        appendCard(out, card, true);
+        return out.toString();
+    }
+
+    private String locations(Card card) {
+        StringBuilder out = new StringBuilder("{\"name\":");
+        quote(out, card.getName());
+        out.append(",\"collection\":").append(card.getCount()).append(",\"binders\":{");
+        int start = out.length();
+        for (Map.Entry<Binder, Integer> entry : service.getLocations().bindersHolding(card.getDefinition()).entrySet()) {
+            if (out.length() > start) out.append(',');
+            quote(out, entry.getKey().getName());
+            out.append(':').append(entry.getValue());
+        }
+        out.append("},\"decks\":{");
+        start = out.length();
+        for (Map.Entry<Deck, Integer> entry : service.getLocations().decksHolding(card.getDefinition()).entrySet()) {
+            if (out.length() > start) out.append(',');
+            quote(out, entry.getKey().getName());
+            out.append(':').append(entry.getValue());
+        }
+        return out.append("}}").toString();
+    }
+
+    private static void appendCard(StringBuilder out, Card card, boolean withCount) {
+        out.append("{\"name\":");
+        quote(out, card.getName());
+        out.append(",\"rarity\":\"").append(card.getRarity())
+                .append("\",\"variant\":\"").append(card.getVariant())
+                .append("\",\"baseValueCents\":").append(card.getBaseValueCents())
+                .append(",\"valueCents\":").append(card.getActualValueCents());
+        if (withCount) {
+            out.append(",\"count\":").append(card.getCount());
+        }
+        out.append('}');
+    }
+
+    private String binders() {
+        StringBuilder out = new StringBuilder("[");
+        for (Binder binder : service.getBinders()) {
+            if (out.length() > 1) out.append(',');
+            appendBinder(out, binder, false);
+        }
+        return out.append(']').toString();
+    }
+
+    private static String binder(Binder binder) {
+        StringBuilder out = new StringBuilder();
+        appendBinder(out, binder, true);
+        return out.toString();
+    }
+
+    private static void appendBinder(StringBuilder out, Binder binder, boolean withCards) {
+        List<Card> cards;
+        long value;
+        synchronized (binder) {
+            cards = binder.getCards();
+            value = binder.getTotalValueCents();
+        }
+        out.append("{\"name\":");
+        quote(out, binder.getName());
+        out.append(",\"type\":\"").append(InventoryService.binderType(binder))
+                .append("\",\"cardCount\":").append(cards.size())
+                .append(",\"valueCents\":").append(value)
+                .append(",\"canTrade\":").append(binder.canTrade())
+                .append(",\"canBeSold\":").append(binder.canBeSold());
+        if (withCards) {
+            appendCards(out, cards);
+        }
+        out.append('}');
+    }
+
+    private String decks() {
+        StringBuilder out = new StringBuilder("[");
+        for (Deck deck : service.getDecks()) {
+            if (out.length() > 1) out.append(',');
+            appendDeck(out, deck, false);
+        }
+        return out.append(']').toString();
+    }
+
+    private static String deck(Deck deck) {
+        StringBuilder out = new StringBuilder();
+        appendDeck(out, deck, true);
+        return out.toString();
+    }
+
+    private static void appendDeck(StringBuilder out, Deck deck, boolean withCards) {
+        List<Card> cards;
+        long value;
+        synchronized (deck) {
+            cards = deck.getCards();
+            value = deck.getTotalValueCents();
+        }
+        out.append("{\"name\":");
+        quote(out, deck.getName());
+        out.append(",\"type\":\"").append(deck.canBeSold() ? "sellable" : "normal")
+                .append("\",\"cardCount\":").append(cards.size())
+                .append(",\"valueCents\":").append(value)
+                .append(",\"canBeSold\":").append(deck.canBeSold());
+        if (withCards) {
+            appendCards(out, cards);
+        }
+        out.append('}');
+    }
+
+    private static void appendCards(StringBuilder out, List<Card> cards) {
+        out.append(",\"cards\":[");
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) out.append(',');
+            appendCard(out, cards.get(i), false);
+        }
+        out.append(']');
+    }
+
+    private static String result(String status, String message, long amountCents) {
+        StringBuilder out = new StringBuilder("{\"status\":\"").append(status).append("\",\"message\":");
+        quote(out, message);
+        return out.append(",\"amountCents\":").append(amountCents).append('}').toString();
+    }
+
+    private static void quote(StringBuilder out, String text) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    private static void send(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
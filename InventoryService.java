@@ -0,0 +1,852 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * UI-free entry point to the Trading Card Inventory System.
+ * Every operation takes plain parameters and returns an OperationResult instead
+ * of reading input or showing dialogs, so the console (Main), the Swing window
+ * (MainGUI) and scripts can all drive the same logic.
+ *
+ * After enableConcurrency() the operations may be called from several threads:
+ * taking a copy out of the collection is atomic, binders and decks check their
+ * limits under their own locks, and creating, deleting or selling a binder or
+ * deck is serialised so names stay unique and each is sold once. Changes run
+ * side by side but not during save(), so a snapshot never holds half of one.
+ */
+public class InventoryService {
+
+    /** Binder types accepted by createBinder, in menu order. */
+    public static final String[] BINDER_TYPES = {"non-curated", "pauper", "rares", "luxury", "collector"};
+
+    /** Deck types accepted by createDeck, in menu order. */
+    public static final String[] DECK_TYPES = {"normal", "sellable"};
+
+    /** How often pending journal records are written and synced, in milliseconds. */
+    private static final long JOURNAL_COMMIT_MILLIS = 50;
+
+    /** Attempts at a move before giving up when other clerks keep changing the same binder or deck. */
+    private static final int MAX_TRANSACTION_ATTEMPTS = 16;
+
+    private final Collector collector;
+    // Copy-on-write: lookups iterate without locking, changes synchronize on the list
+    private final CopyOnWriteArrayList<Binder> binders;
+    private final CopyOnWriteArrayList<Deck> decks;
+    private final CardLocations locations;
+    // This inventory's changes; the collector's, so other services' changes are not heard here
+    private final InventoryEvents events;
+
+    // Changes share the read side; save() takes the write side so the snapshot matches its journal sequence
+    private final ReadWriteLock saving = new ReentrantReadWriteLock();
+
+    private Path snapshotFile;
+    private InventoryJournal journal;
+    private final ArrayList<String> startupWarnings = new ArrayList<>();
+
+    /**
+     * Creates a service over an empty, in-memory inventory.
+     */
+    public InventoryService() {
+        this(new InventorySnapshot(new Collector(), new ArrayList<>(), new ArrayList<>()));
+    }
+
+    /**
+     * Creates a service over an already loaded inventory. Nothing is persisted.
+     */
+    public InventoryService(InventorySnapshot state) {
+        this.collector = state.getCollector();
+        this.binders = new CopyOnWriteArrayList<>(state.getBinders());
+        this.decks = new CopyOnWriteArrayList<>(state.getDecks());
+        this.events = collector.getEvents();
+        for (Binder binder : binders) {
+            binder.attachTo(events);
+        }
+        for (Deck deck : decks) {
+            deck.attachTo(events);
+        }
+        this.locations = new CardLocations(binders, decks);
+        events.addListener(locations);
+    }
+
+    /**
+     * Makes the inventory safe for several clerks working at once, e.g. behind a server.
+     * Call it before starting the threads that use this service.
+     */
+    public void enableConcurrency() {
+        getCollection().enableConcurrency();
+    }
+
+    /**
+     * Loads the inventory from a snapshot, replays the journal written since,
+     * and keeps journaling every change. Problems are not thrown but reported
+     * through getStartupWarnings(), and the service starts with what it could load.
+     *
+     * @param snapshotFile snapshot to load from and save() to.
+     * @param journalFile  write-ahead journal.
+     * @return the service.
+     */
+    public static InventoryService open(Path snapshotFile, Path journalFile) {
+        InventorySnapshot state = new InventorySnapshot(new Collector(), new ArrayList<>(), new ArrayList<>());
+        ArrayList<String> warnings = new ArrayList<>();
+        if (Files.exists(snapshotFile)) {
+            try {
+                state = InventorySnapshot.load(snapshotFile);
+            } catch (IOException e) {
+                warnings.add("Could not load saved inventory: " + e.getMessage());
+            }
+        }
+
+        InventoryJournal journal = null;
+        try {
+            journal = InventoryJournal.open(journalFile, state);
+            journal.startAutoCommit(JOURNAL_COMMIT_MILLIS);
+        } catch (IOException e) {
+            warnings.add("Could not open journal, changes will only be saved on exit: " + e.getMessage());
+        }
+
+        InventoryMetrics.register();
+        InventoryService service = new InventoryService(state);
+        service.snapshotFile = snapshotFile;
+        service.journal = journal;
+        if (journal != null) {
+            service.events.addListener(journal);
+        }
+        service.startupWarnings.addAll(warnings);
+        return service;
+    }
+
+    /**
+     * Opens the inventory from InventorySnapshot.DEFAULT_FILE and InventoryJournal.DEFAULT_FILE.
+     */
+    public static InventoryService openDefault() {
+        return open(InventorySnapshot.DEFAULT_FILE, InventoryJournal.DEFAULT_FILE);
+    }
+
+    /**
+     * @return problems met while opening the inventory; empty if none.
+     */
+    public List<String> getStartupWarnings() {
+        return Collections.unmodifiableList(startupWarnings);
+    }
+
+    /**
+     * Saves a snapshot and drops the journal records it holds. Changes wait
+     * while the snapshot is written, and one running, e.g. an import, is
+     * finished first.
+     */
+    public OperationResult save() {
+        if (snapshotFile == null) {
+            return OperationResult.failed("This inventory has no save file.");
+        }
+        try {
+            long sequence;
+            Lock exclusive = saving.writeLock();
+            exclusive.lock();
+            try {
+                sequence = InventorySnapshot.save(snapshotFile, collector, binders, decks,
+                        journal != null ? journal::getLastSequence : () -> 0);
+            } finally {
+                exclusive.unlock();
+            }
+            if (journal != null) {
+                journal.checkpoint(sequence);
+            }
+            return OperationResult.ok("Inventory saved.");
+        } catch (IOException e) {
+            return OperationResult.failed("Could not save inventory: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops following this inventory's changes and closes the journal, writing
+     * out what it still holds. Call save() first to also update the snapshot;
+     * the service is not to be used afterwards.
+     */
+    public OperationResult close() {
+        events.removeListener(locations);
+        if (journal == null) {
+            return OperationResult.ok("Inventory closed.");
+        }
+        events.removeListener(journal);
+        try {
+            journal.close();
+            return OperationResult.ok("Inventory closed.");
+        } catch (IOException e) {
+            return OperationResult.failed("Could not close journal: " + e.getMessage());
+        }
+    }
+
+    // ---- Queries ----
+
+    public Collector getCollector() {
+        return collector;
+    }
+
+    public Collection getCollection() {
+        return collector.getCollection();
+    }
+
+    public long getMoneyCents() {
+        return collector.getMoneyCents();
+    }
+
+    public List<Binder> getBinders() {
+        return Collections.unmodifiableList(binders);
+    }
+
+    public List<Deck> getDecks() {
+        return Collections.unmodifiableList(decks);
+    }
+
+    public Card findCard(String name) {
+        return getCollection().findCardByName(name);
+    }
+
+    public Binder findBinder(String name) {
+        for (Binder b : binders) {
+            if (b.getName().equalsIgnoreCase(name)) return b;
+        }
+        return null;
+    }
+
+    public Deck findDeck(String name) {
+        for (Deck d : decks) {
+            if (d.getName().equalsIgnoreCase(name)) return d;
+        }
+        return null;
+    }
+
+    /**
+     * @return the index of which binders and decks hold each card.
+     */
+    public CardLocations getLocations() {
+        return locations;
+    }
+
+    /**
+     * Tells where the copies of a collection card are: how many are left in the
+     * collection and how many each binder and deck holds. The amount is the
+     * number of copies outside the collection.
+     */
+    public OperationResult locateCard(String name) {
+        Card card = findCard(name);
+        if (card == null) {
+            return OperationResult.failed("Card not found in collection.");
+        }
+        StringBuilder message = new StringBuilder("'" + card.getName() + "': " + card.getCount() + " in the collection");
+        long placed = 0;
+        for (Map.Entry<Binder, Integer> entry : locations.bindersHolding(card.getDefinition()).entrySet()) {
+            message.append(", ").append(entry.getValue()).append(" in binder '").append(entry.getKey().getName()).append('\'');
+            placed += entry.getValue();
+        }
+        for (Map.Entry<Deck, Integer> entry : locations.decksHolding(card.getDefinition()).entrySet()) {
+            message.append(", ").append(entry.getValue()).append(" in deck '").append(entry.getKey().getName()).append('\'');
+            placed += entry.getValue();
+        }
+        return OperationResult.ok(message.append('.').toString(), placed);
+    }
+
+    // ---- Collection ----
+
+    /**
+     * Adds a new card to the collection with a count of 1.
+     *
+     * @param name           card name, unique ignoring case.
+     * @param rarity         common, uncommon, rare or legendary.
+     * @param variant        normal, extended-art, full-art or alt-art; ignored below rare.
+     * @param baseValueCents base value in cents.
+     */
+    public OperationResult addCard(String name, String rarity, String variant, long baseValueCents) {
+        return timed(InventoryMetrics.CARD_ADDED, () -> {
+            if (name == null || name.trim().isEmpty()) {
+                return OperationResult.failed("Card name is required.");
+            }
+            String trimmed = name.trim();
+            if (findCard(trimmed) != null) {
+                return OperationResult.failed("Card already exists.");
+            }
+            Rarity r = Rarity.fromLabel(rarity);
+            if (r == null) {
+                return OperationResult.failed("Invalid rarity: " + rarity);
+            }
+            Variant v = variant == null ? Variant.NORMAL : Variant.fromLabel(variant);
+            if (v == null) {
+                return OperationResult.failed("Invalid variant: " + variant);
+            }
+            if (baseValueCents <= 0) {
+                return OperationResult.failed("Base value must be a positive number.");
+            }
+            getCollection().addCard(new Card(trimmed, r, v, baseValueCents));
+            return OperationResult.ok("Card added successfully.");
+        });
+    }
+
+    /**
+     * Adds one more copy of a card already in the collection.
+     */
+    public OperationResult addCopy(String name) {
+        return timed(InventoryMetrics.COUNT_CHANGED, () -> {
+            Card card = findCard(name);
+            if (card == null) {
+                return OperationResult.failed("Card not found in collection.");
+            }
+            card.increaseCount();
+            return OperationResult.ok("Card count increased.");
+        });
+    }
+
+    /**
+     * Removes one copy of a card in the collection, as one atomic step under the
+     * card's lock, so two clerks decreasing the same card both count.
+     */
+    public OperationResult removeCopy(String name) {
+        return timed(InventoryMetrics.COUNT_CHANGED, () -> {
+            Card card = findCard(name);
+            if (card == null) {
+                return OperationResult.failed("Card not found in collection.");
+            }
+            if (!card.tryDecreaseCount()) {
+                return OperationResult.failed("Card count is already 0. Cannot decrease further.");
+            }
+            return OperationResult.ok("Card count decreased.");
+        });
+    }
+
+    /**
+     * Sets the number of copies of a collection card; negative counts become 0.
+     */
+    public OperationResult setCardCount(String name, int count) {
+        return timed(InventoryMetrics.COUNT_CHANGED, () -> {
+            Card card = findCard(name);
+            if (card == null) {
+                return OperationResult.failed("Card not found in collection.");
+            }
+            card.setCount(count);
+            return OperationResult.ok("Count of '" + card.getName() + "' is now " + card.getCount() + ".");
+        });
+    }
+
+    /**
+     * Sells one copy of a collection card for its actual value.
+     */
+    public OperationResult sellCard(String name) {
+        return timed(InventoryMetrics.CARD_SOLD, () -> {
+            Card card = findCard(name);
+            if (card == null) {
+                return OperationResult.failed("Card not found in collection.");
+            }
+            if (!collector.sellCard(card.getName())) {
+                return OperationResult.failed("Card count is already 0. Cannot sell.");
+            }
+            long value = card.getActualValueCents();
+            return OperationResult.ok("Sold 1 '" + card.getName() + "' for $" + Money.format(value)
+                    + ". Total money: $" + Money.format(collector.getMoneyCents()), value);
+        });
+    }
+
+    /**
+     * Bulk-imports cards from a CSV or TSV file; see CardImporter for the format.
+     * The message summarises the report and lists the first rejected rows.
+     */
+    public OperationResult importCards(Path file) {
+        return importCards(file, fraction -> { }, () -> false);
+    }
+
+    /**
+     * Bulk-imports cards as above, reporting the fraction of the file read and
+     * stopping early once cancelled returns true.
+     */
+    public OperationResult importCards(Path file, DoubleConsumer progress, BooleanSupplier cancelled) {
+        return timed(InventoryMetrics.IMPORT, () -> {
+            ImportReport report;
+            try {
+                report = new CardImporter().importFile(file, getCollection(), progress, cancelled);
+            } catch (IOException e) {
+                return OperationResult.failed("Could not import " + file + ": " + e.getMessage());
+            }
+            StringBuilder message = new StringBuilder(report.toString());
+            int shown = Math.min(10, report.getRejections().size());
+            for (int i = 0; i < shown; i++) {
+                message.append("\n  ").append(report.getRejections().get(i));
+            }
+            if (report.getRowsRejected() > shown) {
+                message.append("\n  ... and ").append(report.getRowsRejected() - shown).append(" more rejected rows.");
+            }
+            return OperationResult.ok(message.toString());
+        });
+    }
+
+    // ---- Binders ----
+
+    /**
+     * Creates an empty binder.
+     *
+     * @param name binder name, unique ignoring case.
+     * @param type one of BINDER_TYPES.
+     */
+    public OperationResult createBinder(String name, String type) {
+        if (name == null || name.trim().isEmpty()) {
+            return OperationResult.failed("Binder name is required.");
+        }
+        Binder binder = newBinder(type, name.trim());
+        if (binder == null) {
+            return OperationResult.failed("Invalid binder type: " + type);
+        }
+        return change(() -> {
+            synchronized (binders) {
+                if (findBinder(binder.getName()) != null) {
+                    return OperationResult.failed("Binder with that name already exists.");
+                }
+                binder.attachTo(events);
+                binders.add(binder);
+                events.binderCreated(binder);
+            }
+            return OperationResult.ok(binder.getClass().getSimpleName() + " created.");
+        });
+    }
+
+    /**
+     * Deletes a binder and returns its cards to the collection.
+     */
+    public OperationResult deleteBinder(String binderName) {
+        return change(() -> {
+            Binder binder;
+            synchronized (binders) {
+                binder = findBinder(binderName);
+                if (binder == null) {
+                    return OperationResult.failed("Binder not found.");
+                }
+                // Binder before card names, the order InventoryTransaction.commit locks in
+                synchronized (binder) {
+                    binder.markRemoved();
+                    binders.remove(binder);
+                    for (Card card : binder.returnAllCards()) {
+                        getCollection().returnCard(card);
+                    }
+                }
+            }
+            events.binderRemoved(binder);
+            return OperationResult.ok("Binder deleted and cards returned to collection.");
+        });
+    }
+
+    /**
+     * Moves one copy of a collection card into a binder.
+     */
+    public OperationResult moveToBinder(String cardName, String binderName) {
+        return timed(InventoryMetrics.BINDER_ADD, () -> {
+            Binder binder = findBinder(binderName);
+            if (binder == null) {
+                return OperationResult.failed("Binder not found.");
+            }
+            Card card = findCard(cardName);
+            if (card == null || card.getCount() <= 0) {
+                return OperationResult.failed("No copies of that card left in the collection.");
+            }
+            if (binder.isFull()) {
+                return OperationResult.failed("Binder is full. Cannot add more cards.");
+            }
+            if (!binder.isCardAllowed(card)) {
+                return OperationResult.failed(binder.getRestrictionMessage(card));
+            }
+            return transact(() -> new InventoryTransaction()
+                    .take(card)
+                    .addToBinder(binder, copyOf(card)), "Card added.");
+        });
+    }
+
+    /**
+     * Takes a card out of a binder and returns it to the collection.
+     */
+    public OperationResult returnFromBinder(String binderName, String cardName) {
+        return timed(InventoryMetrics.BINDER_REMOVE, () -> {
+            Binder binder = findBinder(binderName);
+            if (binder == null) {
+                return OperationResult.failed("Binder not found.");
+            }
+            return transact(() -> {
+                Card card = binder.findCard(cardName);
+                if (card == null) {
+                    return null;
+                }
+                return new InventoryTransaction()
+                        .removeFromBinder(binder, card)
+                        .returnTo(getCollection(), card);
+            }, "Card returned to collection.", "Card not found in binder.");
+        });
+    }
+
+    /**
+     * Trades a card out of a binder for an incoming card. When the actual values
+     * differ by $1.00 or more and confirmed is false, nothing changes and the
+     * result asks for confirmation with the difference as its amount.
+     *
+     * @param binderName     binder that allows trading.
+     * @param outgoingName   card in the binder to give away.
+     * @param incomingName   name of the card received.
+     * @param rarity         rarity of the card received.
+     * @param variant        variant of the card received.
+     * @param baseValueCents base value of the card received, in cents.
+     * @param confirmed      whether the user accepted an uneven trade.
+     */
+    public OperationResult trade(String binderName, String outgoingName, String incomingName, String rarity,
+                                 String variant, long baseValueCents, boolean confirmed) {
+        TradeEvent event = new TradeEvent();
+        event.begin();
+        OperationResult result = timed(InventoryMetrics.TRADE, () -> {
+            Binder binder = findBinder(binderName);
+            if (binder == null) {
+                return OperationResult.failed("Binder not found.");
+            }
+            if (!binder.canTrade()) {
+                return OperationResult.failed("This binder does not allow trading.");
+            }
+            if (binder.findCard(outgoingName) == null) {
+                return OperationResult.failed("Card not found in binder.");
+            }
+            if (incomingName == null || incomingName.trim().isEmpty()) {
+                return OperationResult.failed("Incoming card name is required.");
+            }
+            Rarity r = Rarity.fromLabel(rarity);
+            if (r == null) {
+                return OperationResult.failed("Invalid rarity: " + rarity);
+            }
+            Variant v = variant == null ? Variant.NORMAL : Variant.fromLabel(variant);
+            if (v == null) {
+                return OperationResult.failed("Invalid variant: " + variant);
+            }
+            if (baseValueCents <= 0) {
+                return OperationResult.failed("Base value must be a positive number.");
+            }
+            Card incoming = new Card(incomingName.trim(), r, v, baseValueCents);
+            if (!binder.isCardAllowed(incoming)) {
+                return OperationResult.failed(binder.getRestrictionMessage(incoming) + " Trade cancelled.");
+            }
+
+            Card outgoing = binder.findCard(outgoingName);
+            long diff = outgoing == null ? 0 : Math.abs(outgoing.getActualValueCents() - incoming.getActualValueCents());
+            event.valueDeltaCents = outgoing == null ? 0 : incoming.getActualValueCents() - outgoing.getActualValueCents();
+            if (diff >= 100 && !confirmed) {
+                return OperationResult.needsConfirmation(
+                        "The value difference is $" + Money.format(diff) + ". Proceed with trade?", diff);
+            }
+
+            // The incoming card is also listed in the collection, with no copies, so it can be found later
+            Card placeholder = new Card(incoming.getDefinition(), 0);
+            return transact(() -> {
+                Card out = binder.findCard(outgoingName);
+                if (out == null) {
+                    return null;
+                }
+                return new InventoryTransaction()
+                        .removeFromBinder(binder, out)
+                        .addToBinder(binder, incoming)
+                        .addIfAbsent(getCollection(), placeholder);
+            }, "Trade complete. Incoming card added to binder.", "Card not found in binder.");
+        });
+        InventoryMetrics.tradeResult(result);
+        if (event.shouldCommit()) {
+            event.binder = binderName;
+            event.cardName = outgoingName;
+            event.incomingCard = incomingName;
+            event.outcome = result.getStatus().name();
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Records that the user declined a trade that needed confirmation. Nothing changes.
+     */
+    public OperationResult cancelTrade() {
+        InventoryMetrics.tradeCancelled();
+        return OperationResult.ok("Trade cancelled.");
+    }
+
+    /**
+     * Sells a binder with its cards.
+     *
+     * @param binderName       binder to sell.
+     * @param customPriceCents custom price for a luxury binder, or a negative value for none.
+     */
+    public OperationResult sellBinder(String binderName, long customPriceCents) {
+        SaleEvent event = new SaleEvent();
+        event.begin();
+        OperationResult result = timed(InventoryMetrics.BINDER_SOLD, () -> {
+            Binder binder;
+            long price;
+            synchronized (binders) {
+                binder = findBinder(binderName);
+                if (binder == null) {
+                    return OperationResult.failed("Binder not found.");
+                }
+                if (!binder.canBeSold()) {
+                    return OperationResult.failed("This binder cannot be sold.");
+                }
+                // Priced and marked sold in one step, so no transaction changes the cards in between
+                synchronized (binder) {
+                    if (binder instanceof LuxuryBinder && customPriceCents >= 0) {
+                        if (!((LuxuryBinder) binder).setCustomPriceCents(customPriceCents)) {
+                            return OperationResult.failed("Price is below total card value. Sale cancelled.");
+                        }
+                    }
+                    price = binder.calculateSellPriceCents();
+                    binder.markRemoved();
+                }
+                binders.remove(binder);
+            }
+            collector.addMoneyCents(price);
+            events.binderRemoved(binder);
+            return OperationResult.ok("Binder sold for $" + Money.format(price), price);
+        });
+        commitSale(event, "binder", binderName, result);
+        return result;
+    }
+
+    // ---- Decks ----
+
+    /**
+     * Creates an empty deck.
+     *
+     * @param name deck name, unique ignoring case.
+     * @param type one of DECK_TYPES.
+     */
+    public OperationResult createDeck(String name, String type) {
+        if (name == null || name.trim().isEmpty()) {
+            return OperationResult.failed("Deck name is required.");
+        }
+        name = name.trim();
+        Deck deck;
+        if ("normal".equalsIgnoreCase(type)) {
+            deck = new NormalDeck(name);
+        } else if ("sellable".equalsIgnoreCase(type)) {
+            deck = new SellableDeck(name);
+        } else {
+            return OperationResult.failed("Invalid deck type: " + type);
+        }
+        return change(() -> {
+            synchronized (decks) {
+                if (findDeck(deck.getName()) != null) {
+                    return OperationResult.failed("Deck with that name already exists.");
+                }
+                deck.attachTo(events);
+                decks.add(deck);
+                events.deckCreated(deck);
+            }
+            return OperationResult.ok(deck.getClass().getSimpleName() + " \"" + deck.getName() + "\" created.");
+        });
+    }
+
+    /**
+     * Deletes a deck and returns its cards to the collection.
+     */
+    public OperationResult deleteDeck(String deckName) {
+        return change(() -> {
+            Deck deck;
+            synchronized (decks) {
+                deck = findDeck(deckName);
+                if (deck == null) {
+                    return OperationResult.failed("Deck not found.");
+                }
+                // Deck before card names, the order InventoryTransaction.commit locks in
+                synchronized (deck) {
+                    deck.markRemoved();
+                    decks.remove(deck);
+                    deck.returnAllCardsToCollection(getCollection());
+                }
+            }
+            events.deckRemoved(deck);
+            return OperationResult.ok("Deck \"" + deck.getName() + "\" deleted and its cards returned to the collection.");
+        });
+    }
+
+    /**
+     * Moves one copy of a collection card into a deck.
+     */
+    public OperationResult moveToDeck(String cardName, String deckName) {
+        return timed(InventoryMetrics.DECK_ADD, () -> {
+            Deck deck = findDeck(deckName);
+            if (deck == null) {
+                return OperationResult.failed("Deck not found.");
+            }
+            Card card = findCard(cardName);
+            if (card == null || card.getCount() <= 0) {
+                return OperationResult.failed("No copies of that card left in the collection.");
+            }
+            if (deck.isFull()) {
+                return OperationResult.failed("Deck is full. Maximum of " + Deck.MAX_CARDS + " unique cards allowed.");
+            }
+            if (deck.containsCard(card.getName())) {
+                return OperationResult.failed("Card \"" + card.getName() + "\" already exists in this deck.");
+            }
+            return transact(() -> new InventoryTransaction()
+                    .take(card)
+                    .addToDeck(deck, copyOf(card)),
+                    "Added \"" + card.getName() + "\" to deck \"" + deck.getName() + "\".");
+        });
+    }
+
+    /**
+     * Takes a card out of a deck and returns it to the collection.
+     */
+    public OperationResult returnFromDeck(String deckName, String cardName) {
+        return timed(InventoryMetrics.DECK_REMOVE, () -> {
+            Deck deck = findDeck(deckName);
+            if (deck == null) {
+                return OperationResult.failed("Deck not found.");
+            }
+            int index = deck.indexOf(cardName);
+            if (index < 0) {
+                return OperationResult.failed("Card not found in deck.");
+            }
+            String name = deck.getCards().get(index).getName();
+            return transact(() -> {
+                int i = deck.indexOf(cardName);
+                if (i < 0) {
+                    return null;
+                }
+                Card card = deck.getCards().get(i);
+                return new InventoryTransaction()
+                        .removeFromDeck(deck, card)
+                        .returnTo(getCollection(), card);
+            }, "Removed \"" + name + "\" from deck \"" + deck.getName() + "\".", "Card not found in deck.");
+        });
+    }
+
+    /**
+     * Sells a sellable deck with its cards for their total actual value.
+     */
+    public OperationResult sellDeck(String deckName) {
+        SaleEvent event = new SaleEvent();
+        event.begin();
+        OperationResult result = timed(InventoryMetrics.DECK_SOLD, () -> {
+            Deck deck;
+            long price;
+            synchronized (decks) {
+                deck = findDeck(deckName);
+                if (deck == null) {
+                    return OperationResult.failed("Deck not found.");
+                }
+                if (!deck.canBeSold()) {
+                    return OperationResult.failed("This deck cannot be sold.");
+                }
+                synchronized (deck) {
+                    price = deck.calculateSellPriceCents();
+                    deck.markRemoved();
+                }
+                decks.remove(deck);
+            }
+            collector.addMoneyCents(price);
+            events.deckRemoved(deck);
+            return OperationResult.ok("Sold deck \"" + deck.getName() + "\" for $" + Money.format(price), price);
+        });
+        commitSale(event, "deck", deckName, result);
+        return result;
+    }
+
+    private static void commitSale(SaleEvent event, String kind, String name, OperationResult result) {
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.cardName = name;
+            event.valueDeltaCents = result.isSuccess() ? result.getAmountCents() : 0;
+            event.sold = result.isSuccess();
+            event.commit();
+        }
+    }
+
+    /**
+     * Runs a change as change() does and records its latency, counting failed results as failures.
+     */
+    private OperationResult timed(OperationMetrics metrics, Supplier<OperationResult> operation) {
+        long start = System.nanoTime();
+        OperationResult result = change(operation);
+        metrics.record(System.nanoTime() - start, result.getStatus() != OperationResult.Status.FAILED);
+        return result;
+    }
+
+    /**
+     * Runs a change to the inventory. Changes do not wait for each other here,
+     * only for a save() in progress.
+     */
+    private OperationResult change(Supplier<OperationResult> operation) {
+        Lock shared = saving.readLock();
+        shared.lock();
+        try {
+            return operation.get();
+        } finally {
+            shared.unlock();
+        }
+    }
+
+    private OperationResult transact(Supplier<InventoryTransaction> stage, String done) {
+        return transact(stage, done, null);
+    }
+
+    /**
+     * Stages and commits a transaction, staging it again from fresh reads while
+     * it conflicts with other clerks. Without contention it commits at once.
+     *
+     * @param stage   builds the transaction from the current state, or returns null if it no longer applies.
+     * @param done    message when committed.
+     * @param missing message when stage returns null.
+     */
+    private OperationResult transact(Supplier<InventoryTransaction> stage, String done, String missing) {
+        for (int attempt = 0; attempt < MAX_TRANSACTION_ATTEMPTS; attempt++) {
+            InventoryTransaction tx = stage.get();
+            if (tx == null) {
+                return OperationResult.failed(missing);
+            }
+            switch (tx.commit()) {
+                case COMMITTED:
+                    return OperationResult.ok(done);
+                case REJECTED:
+                    return OperationResult.failed(tx.getFailure());
+                default:
+                    Thread.onSpinWait();
+            }
+        }
+        return OperationResult.failed("The inventory is busy. Please try again.");
+    }
+
+    /**
+     * Binders and decks hold their own copies so they stay valid when the
+     * collection card is removed or its store row moves; the copies share the card's definition.
+     */
+    private static Card copyOf(Card card) {
+        return new Card(card.getDefinition(), 1);
+    }
+
+    /**
+     * @return the BINDER_TYPES name of a binder's type.
+     */
+    public static String binderType(Binder binder) {
+        if (binder instanceof PauperBinder) return "pauper";
+        if (binder instanceof RaresBinder) return "rares";
+        if (binder instanceof LuxuryBinder) return "luxury";
+        if (binder instanceof CollectorBinder) return "collector";
+        return "non-curated";
+    }
+
+    private static Binder newBinder(String type, String name) {
+        if (type == null) return null;
+        switch (type.toLowerCase()) {
+            case "non-curated": return new NonCuratedBinder(name);
+            case "pauper": return new PauperBinder(name);
+            case "rares": return new RaresBinder(name);
+            case "luxury": return new LuxuryBinder(name);
+            case "collector": return new CollectorBinder(name);
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Saves and loads the whole inventory (collector, binders and decks) as a
+ * versioned binary file.
+ *
+ * Layout, big-endian:
+ * <pre>
+ * int magic "TCIS", int version, long journal sequence (version 2+), long money in cents
+ * int card count,   then per card: name, byte rarity, byte variant, long base cents, int count
+ * int binder count, then per binder: byte type, name, long custom price cents (-1 if none), int n, n cards
+ * int deck count,   then per deck: byte type, name, int n, n cards
+ * </pre>
+ * Names are an int byte length followed by UTF-8 bytes. The journal sequence is
+ * the last InventoryJournal record already contained in the snapshot.
+ * Loading maps the file into memory and writes collection rows straight into
+ * the collection's columns, without building a Card per row.
+ */
+public class InventorySnapshot {
+
+    /** File used by Main and MainGUI when no other path is given. */
+    public static final Path DEFAULT_FILE = Paths.get("tcis.snapshot");
+
+    public static final int VERSION = 2;
+
+    private static final int MAGIC = 0x54434953; // "TCIS"
+
+    private static final byte NON_CURATED_BINDER = 0;
+    private static final byte PAUPER_BINDER = 1;
+    private static final byte RARES_BINDER = 2;
+    private static final byte LUXURY_BINDER = 3;
+    private static final byte COLLECTOR_BINDER = 4;
+
+    private static final byte NORMAL_DECK = 0;
+    private static final byte SELLABLE_DECK = 1;
+
+    private final Collector collector;
+    private final ArrayList<Binder> binders;
+    private final ArrayList<Deck> decks;
+    private final long journalSequence;
+
+    public InventorySnapshot(Collector collector, ArrayList<Binder> binders, ArrayList<Deck> decks) {
+        this(collector, binders, decks, 0);
+    }
+
+    private InventorySnapshot(Collector collector, ArrayList<Binder> binders, ArrayList<Deck> decks,
+                              long journalSequence) {
+        this.collector = collector;
+        this.binders = binders;
+        this.decks = decks;
+        this.journalSequence = journalSequence;
+    }
+
+    public Collector getCollector() {
+        return collector;
+    }
+
+    public ArrayList<Binder> getBinders() {
+        return binders;
+    }
+
+    public ArrayList<Deck> getDecks() {
+        return decks;
+    }
+
+    /**
+     * @return the last journal record included in this snapshot, 0 if none.
+     */
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    /**
+     * Writes the inventory to a file. The data goes to a temporary file first
+     * and replaces the old snapshot only once it is fully on disk.
+     *
+     * @param file      destination file.
+     * @param collector the collector whose collection and money are saved.
+     * @param binders   all binders.
+     * @param decks     all decks.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void save(Path file, Collector collector, List<Binder> binders, List<Deck> decks) throws IOException {
+        save(file, collector, binders, decks, () -> 0);
+    }
+
+    /**
+     * Writes the inventory to a file, recording the last journal record it includes.
+     * The collection rows are written under the store's read lock, so no row is
+     * added, removed or moved while they are; the journal sequence is read under
+     * the same lock. The caller keeps other changes out for a consistent snapshot,
+     * as InventoryService.save() does.
+     *
+     * @param file            destination file.
+     * @param collector       the collector whose collection and money are saved.
+     * @param binders         all binders.
+     * @param decks           all decks.
+     * @param journalSequence gives InventoryJournal.getLastSequence() at the time of saving.
+     * @return the journal sequence recorded in the snapshot.
+     * @throws IOException if the file cannot be written.
+     */
+    public static long save(Path file, Collector collector, List<Binder> binders, List<Deck> decks,
+                            LongSupplier journalSequence) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, "tcis", ".tmp");
+        long sequence;
+        try (FileOutputStream fileOut = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            CardStore store = collector.getCollection().getStore();
+            sequence = store.read(() -> {
+                try {
+                    long last = journalSequence.getAsLong();
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeLong(last);
+                    out.writeLong(collector.getMoneyCents());
+                    writeRows(out, store);
+                    return last;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            out.writeInt(binders.size());
+            for (Binder binder : binders) {
+                out.writeByte(binderType(binder));
+                writeName(out, binder.getName());
+                out.writeLong(binder instanceof LuxuryBinder ? ((LuxuryBinder) binder).getCustomPriceCents() : -1);
+                writeCards(out, binder.getCards());
+            }
+
+            out.writeInt(decks.size());
+            for (Deck deck : decks) {
+                out.writeByte(deckType(deck));
+                writeName(out, deck.getName());
+                writeCards(out, deck.getCards());
+            }
+
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temp);
+            throw e.getCause();
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return sequence;
+    }
+
+    /**
+     * Writes the card count and every row. Call within store.read(), so the count
+     * is read once and matches the rows written.
+     */
+    private static void writeRows(DataOutputStream out, CardStore store) throws IOException {
+        int size = store.size();
+        out.writeInt(size);
+        for (int row = 0; row < size; row++) {
+            writeName(out, store.getName(row));
+            out.writeByte(store.getRarity(row).ordinal());
+            out.writeByte(store.getVariant(row).ordinal());
+            out.writeLong(store.getBaseValueCents(row));
+            out.writeInt(store.getCount(row));
+        }
+    }
+
+    /**
+     * Loads an inventory written by save().
+     *
+     * @param file the snapshot file.
+     * @return the loaded inventory.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static InventorySnapshot load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large to map: " + file);
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                return read(in);
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                     | NegativeArraySizeException e) {
+                throw new IOException("Snapshot is corrupt: " + file, e);
+            }
+        }
+    }
+
+    private static InventorySnapshot read(MappedByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot file.");
+        }
+        int version = in.getInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        long journalSequence = version >= 2 ? in.getLong() : 0;
+
+        Collector collector = new Collector();
+        collector.addMoneyCents(in.getLong());
+
+        Collection collection = collector.getCollection();
+        byte[] scratch = new byte[64];
+        int cardCount = in.getInt();
+        collection.ensureCapacity(cardCount);
+        for (int i = 0; i < cardCount; i++) {
+            int length = in.getInt();
+            if (length > scratch.length) {
+                scratch = new byte[length];
+            }
+            in.get(scratch, 0, length);
+            String name = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            Rarity rarity = Rarity.fromOrdinal(in.get());
+            Variant variant = Variant.fromOrdinal(in.get());
+            long baseValue = in.getLong();
+            int count = in.getInt();
+            collection.restoreRow(name, rarity, variant, baseValue, count);
+        }
+
+        int binderCount = in.getInt();
+        ArrayList<Binder> binders = new ArrayList<>(binderCount);
+        for (int i = 0; i < binderCount; i++) {
+            byte type = in.get();
+            Binder binder = newBinder(type, readName(in));
+            long customPrice = in.getLong();
+            int n = in.getInt();
+            for (int j = 0; j < n; j++) {
+                binder.restoreCard(readCard(in));
+            }
+            if (customPrice >= 0) {
+                ((LuxuryBinder) binder).setCustomPriceCents(customPrice);
+            }
+            binders.add(binder);
+        }
+
+        int deckCount = in.getInt();
+        ArrayList<Deck> decks = new ArrayList<>(deckCount);
+        for (int i = 0; i < deckCount; i++) {
+            byte type = in.get();
+            String name = readName(in);
+            Deck deck = newDeck(type, name);
+            int n = in.getInt();
+            for (int j = 0; j < n; j++) {
+                deck.restoreCard(readCard(in));
+            }
+            decks.add(deck);
+        }
+
+        return new InventorySnapshot(collector, binders, decks, journalSequence);
+    }
+
+    static byte binderType(Binder binder) {
+        if (binder instanceof PauperBinder) return PAUPER_BINDER;
+        if (binder instanceof RaresBinder) return RARES_BINDER;
+        if (binder instanceof LuxuryBinder) return LUXURY_BINDER;
+        if (binder instanceof CollectorBinder) return COLLECTOR_BINDER;
+        return NON_CURATED_BINDER;
+    }
+
+    static Binder newBinder(byte type, String name) throws IOException {
+        switch (type) {
+            case NON_CURATED_BINDER: return new NonCuratedBinder(name);
+            case PAUPER_BINDER: return new PauperBinder(name);
+            case RARES_BINDER: return new RaresBinder(name);
+            case LUXURY_BINDER: return new LuxuryBinder(name);
+            case COLLECTOR_BINDER: return new CollectorBinder(name);
+            default: throw new IOException("Unknown binder type: " + type);
+        }
+    }
+
+    static byte deckType(Deck deck) {
+        return deck instanceof SellableDeck ? SELLABLE_DECK : NORMAL_DECK;
+    }
+
+    static Deck newDeck(byte type, String name) {
+        return type == SELLABLE_DECK ? new SellableDeck(name) : new NormalDeck(name);
+    }
+
+    private static void writeCards(DataOutputStream out, List<Card> cards) throws IOException {
+        out.writeInt(cards.size());
+        for (Card card : cards) {
+            writeName(out, card.getName());
+            out.writeByte(card.getRarityType().ordinal());
+            out.writeByte(card.getVariantType().ordinal());
+            out.writeLong(card.getBaseValueCents());
+            out.writeInt(card.getCount());
+        }
+    }
+
+    private static Card readCard(MappedByteBuffer in) {
+        String name = readName(in);
+        Rarity rarity = Rarity.fromOrdinal(in.get());
+        Variant variant = Variant.fromOrdinal(in.get());
+        Card card = new Card(name, rarity, variant, in.getLong());
+        card.setCount(in.getInt());
+        return card;
+    }
+
+    private static void writeName(DataOutputStream out, String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readName(MappedByteBuffer in) {
+        int length = in.getInt();
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Checks that InventorySnapshot writes and reads back the whole inventory:
+ * collection rows with their counts, money, binders with their cards and
+ * custom price, and decks. Uses a temporary file; exits with status 1 if a
+ * check fails.
+ *
+ * Usage: java InventorySnapshotTest
+ */
+public class InventorySnapshotTest {
+
+    private static int failures;
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("tcis-snapshot-test");
+        Path file = dir.resolve("inventory.snapshot");
+
+        InventoryService service = new InventoryService();
+        service.addCard("Dragon", "rare", "full-art", 1_250);
+        service.addCard("goblin", "common", null, 75);
+        service.addCard("Zephyr", "legendary", "alt-art", 4_000);
+        service.setCardCount("Dragon", 5);
+        service.setCardCount("goblin", 0);
+        service.getCollector().addMoneyCents(12_345);
+        service.createBinder("Shiny", "luxury");
+        service.moveToBinder("Dragon", "Shiny");
+        service.moveToBinder("Zephyr", "Shiny");
+        ((LuxuryBinder) service.findBinder("Shiny")).setCustomPriceCents(99_999);
+        service.createDeck("Main", "sellable");
+        service.moveToDeck("Dragon", "Main");
+
+        InventorySnapshot.save(file, service.getCollector(), service.getBinders(), service.getDecks());
+        InventorySnapshot loaded = InventorySnapshot.load(file);
+        Collection collection = loaded.getCollector().getCollection();
+
+        check(collection.size() == 3, "collection has 3 cards, got " + collection.size());
+        check(loaded.getCollector().getMoneyCents() == 12_345, "money is restored");
+        Card dragon = collection.findCardByName("DRAGON");
+        check(dragon != null && dragon.getCount() == 3, "Dragon count is 3");
+        check(dragon != null && dragon.getRarityType() == Rarity.RARE && dragon.getVariantType() == Variant.FULL_ART
+                && dragon.getBaseValueCents() == 1_250, "Dragon keeps rarity, variant and value");
+        Card goblin = collection.findCardByName("goblin");
+        check(goblin != null && goblin.getCount() == 0, "a card with no copies left is kept");
+        check(collection.getTotalValueCents() == service.getCollection().getTotalValueCents(),
+                "collection value matches");
+
+        List<Binder> binders = loaded.getBinders();
+        check(binders.size() == 1 && binders.get(0) instanceof LuxuryBinder, "the luxury binder is restored");
+        if (!binders.isEmpty() && binders.get(0) instanceof LuxuryBinder) {
+            LuxuryBinder binder = (LuxuryBinder) binders.get(0);
+            check(binder.getName().equals("Shiny") && binder.getCardCount() == 2, "binder keeps its 2 cards");
+            check(binder.getCustomPriceCents() == 99_999, "binder keeps its custom price");
+            check(binder.getTotalValueCents() == service.findBinder("Shiny").getTotalValueCents(),
+                    "binder value matches");
+        }
+
+        List<Deck> decks = loaded.getDecks();
+        check(decks.size() == 1 && decks.get(0) instanceof SellableDeck && decks.get(0).size() == 1,
+                "the sellable deck and its card are restored");
+        if (!decks.isEmpty() && decks.get(0).size() == 1) {
+            Card copy = decks.get(0).getCards().get(0);
+            check(dragon != null && copy.getDefinition() == dragon.getDefinition(),
+                    "deck copy shares the collection card's definition");
+        }
+
+        // Saving what was loaded gives the same inventory again
+        Path again = dir.resolve("again.snapshot");
+        InventorySnapshot.save(again, loaded.getCollector(), loaded.getBinders(), loaded.getDecks());
+        InventorySnapshot reloaded = InventorySnapshot.load(again);
+        check(reloaded.getCollector().getCollection().size() == 3
+                && reloaded.getCollector().getCollection().findCardByName("dragon").getCount() == 3
+                && reloaded.getBinders().get(0).getCardCount() == 2,
+                "a second round trip gives the same inventory");
+
+        Files.write(file, new byte[] {1, 2, 3});
+        try {
+            InventorySnapshot.load(file);
+            check(false, "a truncated snapshot is rejected");
+        } catch (IOException e) {
+            check(true, "a truncated snapshot is rejected");
+        }
+
+        Files.deleteIfExists(again);
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(dir);
+        System.out.println(failures == 0 ? "All snapshot checks passed." : failures + " snapshot checks failed.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A group of card moves between the collection, binders and decks that is
+ * applied all together or not at all, e.g. taking a copy out of the
+ * collection and putting it into a binder.
+ *
+ * Steps are staged first and checked only when commit() is called. Staging
+ * a binder or deck records its version; commit locks every binder and deck
+ * involved in a fixed order, checks that none has changed since and that
+ * every step is still allowed, and only then applies the steps. If a binder
+ * or deck changed in between, commit returns CONFLICT and changes nothing,
+ * so the caller can re-read and stage again; with no other clerk at work the
+ * first commit succeeds. A binder or deck deleted or sold in between is
+ * rejected, so no card is moved into a container that is gone. Collection
+ * counts are not versioned: taking a copy
+ * only needs one to be left, so clerks taking different copies of a popular
+ * card do not conflict.
+ *
+ * The journal writes the records of a committed transaction as one group and
+ * replays a group only if it was written in full.
+ */
+public class InventoryTransaction {
+
+    /** How a commit ended. */
+    public enum Outcome {
+        /** Every step was applied. */
+        COMMITTED,
+        /** A binder or deck changed after it was staged; nothing was applied. */
+        CONFLICT,
+        /** A step is not allowed, e.g. the binder is full; nothing was applied. See getFailure(). */
+        REJECTED
+    }
+
+    private enum Kind { TAKE, RETURN, ADD_IF_ABSENT, BINDER_ADD, BINDER_REMOVE, DECK_ADD, DECK_REMOVE }
+
+    private static final class Step {
+        final Kind kind;
+        final Object target;
+        final Card card;
+
+        Step(Kind kind, Object target, Card card) {
+            this.kind = kind;
+            this.target = target;
+            this.card = card;
+        }
+    }
+
+    // Taken before the containers when two of them share an identity hash, so lock order stays total
+    private static final Object TIE_LOCK = new Object();
+
+    private final ArrayList<Step> steps = new ArrayList<>();
+    private final IdentityHashMap<Object, Long> versions = new IdentityHashMap<>();
+    private String failure;
+    private boolean committed;
+
+    /**
+     * Takes one copy of a collection card.
+     */
+    public InventoryTransaction take(Card collectionCard) {
+        return stage(Kind.TAKE, null, collectionCard);
+    }
+
+    /**
+     * Returns one copy of a card to the collection, adding the card if it is not there.
+     */
+    public InventoryTransaction returnTo(Collection collection, Card card) {
+        return stage(Kind.RETURN, collection, card);
+    }
+
+    /**
+     * Adds a card to the collection unless one with its name is already there.
+     */
+    public InventoryTransaction addIfAbsent(Collection collection, Card card) {
+        return stage(Kind.ADD_IF_ABSENT, collection, card);
+    }
+
+    public InventoryTransaction addToBinder(Binder binder, Card card) {
+        observe(binder, binder.getVersion());
+        return stage(Kind.BINDER_ADD, binder, card);
+    }
+
+    /**
+     * Takes a card, by identity, out of a binder.
+     */
+    public InventoryTransaction removeFromBinder(Binder binder, Card card) {
+        observe(binder, binder.getVersion());
+        return stage(Kind.BINDER_REMOVE, binder, card);
+    }
+
+    public InventoryTransaction addToDeck(Deck deck, Card card) {
+        observe(deck, deck.getVersion());
+        return stage(Kind.DECK_ADD, deck, card);
+    }
+
+    /**
+     * Takes a card, by identity, out of a deck.
+     */
+    public InventoryTransaction removeFromDeck(Deck deck, Card card) {
+        observe(deck, deck.getVersion());
+        return stage(Kind.DECK_REMOVE, deck, card);
+    }
+
+    private void observe(Object container, long version) {
+        versions.putIfAbsent(container, version);
+    }
+
+    private InventoryTransaction stage(Kind kind, Object target, Card card) {
+        if (committed) {
+            throw new IllegalStateException("Transaction already committed.");
+        }
+        steps.add(new Step(kind, target, card));
+        return this;
+    }
+
+    /**
+     * @return why the last commit was rejected, or null.
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * Checks and applies every staged step as one change.
+     */
+    public Outcome commit() {
+        if (committed) {
+            throw new IllegalStateException("Transaction already committed.");
+        }
+        failure = null;
+        Object[] containers = versions.keySet().toArray();
+        Arrays.sort(containers, (a, b) -> Integer.compare(System.identityHashCode(a), System.identityHashCode(b)));
+        boolean tie = false;
+        for (int i = 1; i < containers.length; i++) {
+            tie |= System.identityHashCode(containers[i - 1]) == System.identityHashCode(containers[i]);
+        }
+        if (tie) {
+            synchronized (TIE_LOCK) {
+                return lockAndCommit(containers, 0);
+            }
+        }
+        return lockAndCommit(containers, 0);
+    }
+
+    /**
+     * @return the events of the inventory whose binders, decks or collection the steps touch.
+     */
+    private InventoryEvents events() {
+        for (Step step : steps) {
+            if (step.target instanceof Binder) return ((Binder) step.target).getEvents();
+            if (step.target instanceof Deck) return ((Deck) step.target).getEvents();
+            if (step.target instanceof Collection) return ((Collection) step.target).getEvents();
+        }
+        return InventoryEvents.NONE;
+    }
+
+    private Outcome lockAndCommit(Object[] containers, int i) {
+        if (i < containers.length) {
+            synchronized (containers[i]) {
+                return lockAndCommit(containers, i + 1);
+            }
+        }
+        // Containers are locked before card names, as Deck.returnAllCardsToCollection does
+        List<Lock> stripes = stripes();
+        for (Lock stripe : stripes) {
+            stripe.lock();
+        }
+        try {
+            for (Object container : containers) {
+                if (versionOf(container) != versions.get(container)) {
+                    if (Diagnostics.isEnabled(DiagnosticSink.Level.DEBUG)) {
+                        Diagnostics.debug("InventoryTransaction", "Conflict on " + container.getClass().getSimpleName()
+                                + " '" + nameOf(container) + "'; nothing applied.");
+                    }
+                    return Outcome.CONFLICT;
+                }
+            }
+            failure = validate();
+            if (failure != null) {
+                return Outcome.REJECTED;
+            }
+            InventoryEvents events = events();
+            events.transactionBegun();
+            try {
+                for (Step step : steps) {
+                    apply(step);
+                }
+            } finally {
+                events.transactionEnded();
+            }
+            committed = true;
+            return Outcome.COMMITTED;
+        } finally {
+            for (int s = stripes.size() - 1; s >= 0; s--) {
+                stripes.get(s).unlock();
+            }
+        }
+    }
+
+    private static String nameOf(Object container) {
+        return container instanceof Binder ? ((Binder) container).getName() : ((Deck) container).getName();
+    }
+
+    private static long versionOf(Object container) {
+        return container instanceof Binder ? ((Binder) container).getVersion() : ((Deck) container).getVersion();
+    }
+
+    /**
+     * @return the name locks of the collection cards involved, each once, in stripe order.
+     */
+    private List<Lock> stripes() {
+        CardStore store = null;
+        boolean[] used = new boolean[CardStore.STRIPES];
+        for (Step step : steps) {
+            CardStore s = null;
+            if (step.kind == Kind.TAKE) {
+                s = step.card.getStore();
+            } else if (step.kind == Kind.RETURN || step.kind == Kind.ADD_IF_ABSENT) {
+                s = ((Collection) step.target).getStore();
+            }
+            if (s == null) continue;
+            store = s;
+            used[CardStore.stripeIndex(step.card.getName())] = true;
+        }
+        ArrayList<Lock> locks = new ArrayList<>();
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) locks.add(store.stripeAt(i));
+        }
+        return locks;
+    }
+
+    /**
+     * Checks that no locked binder or deck has been removed, then replays the
+     * steps on copies of them without changing them.
+     *
+     * @return null if every step is allowed, otherwise the reason the first one is not.
+     */
+    private String validate() {
+        for (Object container : versions.keySet()) {
+            if (container instanceof Binder ? ((Binder) container).isRemoved() : ((Deck) container).isRemoved()) {
+                return container instanceof Binder ? "Binder not found." : "Deck not found.";
+            }
+        }
+        IdentityHashMap<Object, ArrayList<Card>> contents = new IdentityHashMap<>();
+        IdentityHashMap<Card, Integer> taken = new IdentityHashMap<>();
+        for (Step step : steps) {
+            switch (step.kind) {
+                case TAKE: {
+                    int n = taken.merge(step.card, 1, Integer::sum);
+                    if (step.card.getStore() == null || step.card.getCount() < n) {
+                        return "No copies of '" + step.card.getName() + "' left in the collection.";
+                    }
+                    break;
+                }
+                case BINDER_ADD: {
+                    Binder binder = (Binder) step.target;
+                    ArrayList<Card> cards = contents.computeIfAbsent(binder, b -> binder.getCards());
+                    if (cards.size() >= binder.MAX_CARDS) {
+                        return "Binder is full. Cannot add more cards.";
+                    }
+                    if (!binder.isCardAllowed(step.card)) {
+                        return binder.getRestrictionMessage(step.card);
+                    }
+                    cards.add(step.card);
+                    break;
+                }
+                case DECK_ADD: {
+                    Deck deck = (Deck) step.target;
+                    ArrayList<Card> cards = contents.computeIfAbsent(deck, d -> deck.getCards());
+                    if (cards.size() >= Deck.MAX_CARDS) {
+                        return "Deck is full. Maximum of " + Deck.MAX_CARDS + " unique cards allowed.";
+                    }
+                    for (Card card : cards) {
+                        if (card.getName().equalsIgnoreCase(step.card.getName())) {
+                            return "Card \"" + step.card.getName() + "\" already exists in this deck.";
+                        }
+                    }
+                    cards.add(step.card);
+                    break;
+                }
+                case BINDER_REMOVE:
+                case DECK_REMOVE: {
+                    ArrayList<Card> cards = contents.computeIfAbsent(step.target, t -> t instanceof Binder
+                            ? ((Binder) t).getCards() : ((Deck) t).getCards());
+                    if (!cards.remove(step.card)) {
+                        return step.kind == Kind.BINDER_REMOVE ? "Card not found in binder." : "Card not found in deck.";
+                    }
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+        return null;
+    }
+
+    private static void apply(Step step) {
+        switch (step.kind) {
+            case TAKE:
+                step.card.tryDecreaseCount();
+                break;
+            case RETURN:
+                ((Collection) step.target).returnCard(step.card);
+                break;
+            case ADD_IF_ABSENT: {
+                Collection collection = (Collection) step.target;
+                if (collection.findCardByName(step.card.getName()) == null) {
+                    collection.addCard(step.card);
+                }
+                break;
+            }
+            case BINDER_ADD:
+                ((Binder) step.target).addCard(step.card);
+                break;
+            case BINDER_REMOVE:
+                ((Binder) step.target).removeCard(step.card);
+                break;
+            case DECK_ADD:
+                ((Deck) step.target).addCard(step.card);
+                break;
+            case DECK_REMOVE:
+                ((Deck) step.target).removeCard(step.card);
+                break;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Checks InventoryTransaction: a commit after the binder changed is a
+ * conflict that applies nothing and succeeds when staged again, a step that
+ * is no longer allowed rejects the whole transaction, and a binder deleted
+ * before the commit takes no cards. Then several clerks move copies while
+ * another deletes and sells the binder and deck, and no copy may be lost or
+ * made. Exits with status 1 if a check fails.
+ *
+ * Usage: java InventoryTransactionTest [--rounds n]
+ */
+public class InventoryTransactionTest {
+
+    private static final int COPIES = 100_000;
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        int rounds = 3;
+        if (args.length == 2 && args[0].equals("--rounds")) {
+            rounds = Integer.parseInt(args[1]);
+        } else if (args.length > 0) {
+            System.out.println("Usage: java InventoryTransactionTest [--rounds n]");
+            return;
+        }
+
+        conflictAndRetry();
+        rejected();
+        deletedBinder();
+        for (int round = 0; round < rounds; round++) {
+            concurrentMoveAndDelete(round);
+        }
+        System.out.println(failures == 0 ? "All transaction checks passed." : failures + " transaction checks failed.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static InventoryService serviceWithDragons(int count) {
+        InventoryService service = new InventoryService();
+        service.addCard("Dragon", "common", null, 100);
+        service.setCardCount("Dragon", count);
+        service.createBinder("Keep", "non-curated");
+        return service;
+    }
+
+    private static InventoryTransaction moveDragon(InventoryService service) {
+        Card dragon = service.findCard("Dragon");
+        return new InventoryTransaction()
+                .take(dragon)
+                .addToBinder(service.findBinder("Keep"), new Card(dragon.getDefinition(), 1));
+    }
+
+    private static void conflictAndRetry() {
+        InventoryService service = serviceWithDragons(3);
+        Binder keep = service.findBinder("Keep");
+        InventoryTransaction stale = moveDragon(service);
+        // Another clerk changes the binder between staging and commit
+        keep.addCard(new Card("Goblin", Rarity.COMMON, Variant.NORMAL, 50));
+
+        check(stale.commit() == InventoryTransaction.Outcome.CONFLICT, "a changed binder is a conflict");
+        check(service.findCard("Dragon").getCount() == 3 && keep.getCardCount() == 1,
+                "a conflict applies nothing");
+        check(moveDragon(service).commit() == InventoryTransaction.Outcome.COMMITTED,
+                "staged again, the move commits");
+        check(service.findCard("Dragon").getCount() == 2 && keep.getCardCount() == 2,
+                "the retried move is applied once");
+    }
+
+    private static void rejected() {
+        InventoryService service = serviceWithDragons(1);
+        InventoryTransaction first = moveDragon(service);
+        InventoryTransaction second = moveDragon(service);
+        check(first.commit() == InventoryTransaction.Outcome.COMMITTED, "the first move commits");
+        // The second was staged against the same binder version, so it sees the change first
+        check(second.commit() == InventoryTransaction.Outcome.CONFLICT, "the second move conflicts");
+        InventoryTransaction restaged = moveDragon(service);
+        check(restaged.commit() == InventoryTransaction.Outcome.REJECTED && restaged.getFailure() != null,
+                "with no copy left the move is rejected");
+        check(service.findCard("Dragon").getCount() == 0 && service.findBinder("Keep").getCardCount() == 1,
+                "a rejected move applies nothing");
+    }
+
+    private static void deletedBinder() {
+        InventoryService service = serviceWithDragons(2);
+        InventoryTransaction tx = moveDragon(service);
+        check(service.deleteBinder("Keep").isSuccess(), "the binder is deleted");
+        check(tx.commit() != InventoryTransaction.Outcome.COMMITTED, "a move into a deleted binder does not commit");
+        check(service.findCard("Dragon").getCount() == 2, "no copy leaves the collection");
+        OperationResult retried = service.moveToBinder("Dragon", "Keep");
+        check(!retried.isSuccess() && retried.getMessage().equals("Binder not found."),
+                "staged again, the move finds the binder gone");
+    }
+
+    /**
+     * Clerks move copies between the collection, a binder and a deck while
+     * another deletes the binder, sells the deck and creates both again. Every
+     * copy must end up in the collection, a binder, a deck, or sold.
+     */
+    private static void concurrentMoveAndDelete(int round) throws Exception {
+        InventoryService service = new InventoryService();
+        service.enableConcurrency();
+        service.addCard("Dragon", "common", null, 100);
+        service.setCardCount("Dragon", COPIES);
+        service.createBinder("Keep", "non-curated");
+        service.createDeck("Main", "sellable");
+
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService clerks = Executors.newFixedThreadPool(5);
+        ArrayList<Future<?>> work = new ArrayList<>();
+        for (int c = 0; c < 4; c++) {
+            work.add(clerks.submit(() -> {
+                while (!stop.get()) {
+                    service.moveToBinder("Dragon", "Keep");
+                    service.returnFromBinder("Keep", "Dragon");
+                    service.moveToBinder("Dragon", "Keep");
+                    service.moveToDeck("Dragon", "Main");
+                }
+                return null;
+            }));
+        }
+        work.add(clerks.submit(() -> {
+            try {
+                for (int i = 0; i < 1_000; i++) {
+                    service.deleteBinder("Keep");
+                    service.createBinder("Keep", "non-curated");
+                    service.sellDeck("Main");
+                    service.createDeck("Main", "sellable");
+                }
+            } finally {
+                stop.set(true);
+            }
+            return null;
+        }));
+        for (Future<?> future : work) {
+            future.get();
+        }
+        clerks.shutdown();
+        clerks.awaitTermination(1, TimeUnit.MINUTES);
+
+        long held = service.findCard("Dragon").getCount();
+        for (Binder binder : service.getBinders()) held += binder.getCardCount();
+        for (Deck deck : service.getDecks()) held += deck.size();
+        // Each copy is worth 100 cents, so the money is the number of copies sold
+        long sold = service.getMoneyCents() / 100;
+        check(held + sold == COPIES, "round " + round + ": " + (held + sold) + " copies, expected " + COPIES);
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
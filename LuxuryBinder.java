@@ -1,5 +1,5 @@
 public class LuxuryBinder extends Binder {
-    private double customPrice = -1;
+    private long customPriceCents = -1;
 
     public LuxuryBinder(String name) {
         super(name);
@@ -18,7 +18,12 @@ public class LuxuryBinder extends Binder {
     @Override
     public boolean isCardAllowed(Card card) {
         // Only allow cards with variant not "normal"
-        return !card.getVariant().equalsIgnoreCase("normal");
+        return card.getVariantType() != Variant.NORMAL;
+    }
+
+    @Override
+    public int allowedVariants() {
+        return ~CardBitmaps.mask(Variant.NORMAL);
     }
 
     @Override
@@ -27,23 +32,33 @@ public class LuxuryBinder extends Binder {
     }
 
     @Override
-    public double calculateSellPrice() {
-        double baseValue = cards.stream().mapToDouble(Card::getActualValue).sum();
-        if (customPrice >= baseValue) {
-            return customPrice * 1.10; // Add 10% handling fee
+    public synchronized long calculateSellPriceCents() {
+        long baseValue = getTotalValueCents();
+        if (customPriceCents >= baseValue) {
+            return Money.withHandlingFee(customPriceCents); // Add 10% handling fee
         } else {
-            return baseValue * 1.10; // Fallback if no valid custom price set
+            return Money.withHandlingFee(baseValue); // Fallback if no valid custom price set
         }
     }
 
+    /**
+     * @return the custom price in cents, or -1 if none has been set.
+     */
+    public synchronized long getCustomPriceCents() {
+        return customPriceCents;
+    }
+
     public boolean setCustomPrice(double price) {
-        double baseValue = cards.stream().mapToDouble(Card::getActualValue).sum();
+        return setCustomPriceCents(Money.fromDollars(price));
+    }
+
+    public synchronized boolean setCustomPriceCents(long price) {
+        long baseValue = getTotalValueCents();
         if (price >= baseValue) {
-            this.customPrice = price;
+            this.customPriceCents = price;
+            getEvents().customPriceSet(this, price);
             return true;
-        } else {
-            System.out.println("Price is below total card value. Custom price not set.");
-            return false;
         }
+        return false;
     }
 }
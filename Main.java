@@ -5,6 +5,8 @@
 // Date Created: 06/24/2025
 // Last Updated: 07/26/2025
 
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -13,24 +15,33 @@ import java.util.*;
  */
 public class Main {
 
-    /** List of decks created by the user */
-    private static ArrayList<Deck> decks = new ArrayList<>();
-
-    /** List of binders created by the user */
-    private static ArrayList<Binder> binders = new ArrayList<>();
-
     /** Scanner for user input */
     private static Scanner scanner = new Scanner(System.in);
 
-    /** Collector manages collection and money */
-    private static Collector collector = new Collector(scanner);
+    /** The collector, binders and decks, loaded from the last session and journaled as they change */
+    private static InventoryService service;
 
     /**
      * Main method. Runs the primary menu and handles top-level navigation.
+     * With --batch FILE it runs a command script instead; see BatchRunner.
      * 
-     * @param args Command-line arguments (not used)
+     * @param args Command-line arguments: none, or --batch FILE (- for standard input)
      */
     public static void main(String[] args) {
+        if (args.length > 0) {
+            if (args.length == 2 && "--batch".equals(args[0])) {
+                System.exit(BatchRunner.runScript(args[1]));
+            }
+            System.out.println("Usage: java Main [--batch FILE]");
+            return;
+        }
+
+        service = InventoryService.openDefault();
+        for (String warning : service.getStartupWarnings()) {
+            System.out.println(warning);
+        }
+        CollectionManager collectionManager = new CollectionManager(service, scanner);
+
         boolean running = true;
         while (running) {
             System.out.println("\n--- Trading Card Inventory System ---");
@@ -40,20 +51,21 @@ public class Main {
             System.out.println("4. Decks");
             System.out.println("5. Sell a card from collection");
             System.out.println("6. View collector's money");
-            System.out.println("7. Exit");
+            System.out.println("7. Import cards from a CSV/TSV file");
+            System.out.println("8. Exit");
             System.out.print("Choose an option: ");
 
             String choice = scanner.nextLine().trim();
 
             switch (choice) {
                 case "1":
-                    collector.getCollection().addCardToCollection();
+                    collectionManager.addCardToCollection();
                     break;
                 case "2":
-                    collector.getCollection().viewCollectionMenu();
+                    collectionManager.viewCollectionMenu();
                     break;
                 case "3":
-                    Binder.openBinderMenu(binders, collector.getCollection().getCards(), collector, scanner);
+                    BinderMenu.openBinderMenu(service, scanner);
                     break;
                 case "4":
                     decksMenu();
@@ -62,9 +74,17 @@ public class Main {
                     sellCardFromCollection();
                     break;
                 case "6":
-                    System.out.printf("Total Money: $%.2f\n", collector.getMoney());
+                    System.out.printf("Total Money: $%s\n", Money.format(service.getMoneyCents()));
                     break;
                 case "7":
+                    importCards();
+                    break;
+                case "8":
+                    OperationResult saved = service.save();
+                    if (!saved.isSuccess()) {
+                        System.out.println(saved);
+                    }
+                    service.close();
                     running = false;
                     System.out.println("Goodbye!");
                     break;
@@ -76,6 +96,20 @@ public class Main {
         scanner.close();
     }
 
+    /**
+     * Asks for a CSV or TSV file and bulk-imports its cards into the collection.
+     */
+    private static void importCards() {
+        System.out.print("Enter the path of the file to import: ");
+        String path = scanner.nextLine().trim();
+        if (path.isEmpty()) return;
+        try {
+            System.out.println(service.importCards(Paths.get(path)));
+        } catch (InvalidPathException e) {
+            System.out.println("Invalid path: " + path);
+        }
+    }
+
     /**
      * Displays the Decks menu and routes to appropriate deck management features.
      */
@@ -122,7 +156,7 @@ public class Main {
         System.out.print("Enter a name for the new deck: ");
         String deckName = scanner.nextLine().trim();
 
-        if (findDeckByName(deckName) != null) {
+        if (service.findDeck(deckName) != null) {
             System.out.println("Deck with that name already exists.");
             return;
         }
@@ -133,30 +167,24 @@ public class Main {
         System.out.print("Enter option: ");
         String typeInput = scanner.nextLine().trim();
 
-        Deck newDeck = null;
-
         switch (typeInput) {
             case "1":
-                newDeck = new NormalDeck(deckName);
+                System.out.println(service.createDeck(deckName, "normal"));
                 break;
             case "2":
-                newDeck = new SellableDeck(deckName);
+                System.out.println(service.createDeck(deckName, "sellable"));
                 break;
             default:
                 System.out.println("Invalid deck type.");
-                return;
         }
-
-        decks.add(newDeck);
-        System.out.println(newDeck.getClass().getSimpleName() + " \"" + deckName + "\" created.");
     }
 
     /**
      * Allows user to manage a selected deck.
-     * Enables viewing, adding cards, or exiting the deck menu.
+     * Enables viewing, adding and removing cards, or exiting the deck menu.
      */
     private static void manageDeck() {
-        if (decks.isEmpty()) {
+        if (service.getDecks().isEmpty()) {
             System.out.println("No decks available to manage.");
             return;
         }
@@ -169,19 +197,23 @@ public class Main {
             System.out.println("\n--- Managing Deck: " + selectedDeck.getName() + " ---");
             System.out.println("1. View cards in deck");
             System.out.println("2. Add card from collection to deck");
-            System.out.println("3. Go back");
+            System.out.println("3. Remove card from deck");
+            System.out.println("4. Go back");
             System.out.print("Choose an option: ");
 
             String choice = scanner.nextLine().trim();
 
             switch (choice) {
                 case "1":
-                    selectedDeck.viewDeckInteractive(collector.getCollection().getCards(), scanner);
+                    viewDeck(selectedDeck);
                     break;
                 case "2":
                     addCardToDeckMenu(selectedDeck);
                     break;
                 case "3":
+                    removeCardFromDeckMenu(selectedDeck);
+                    break;
+                case "4":
                     managing = false;
                     break;
                 default:
@@ -190,26 +222,50 @@ public class Main {
         }
     }
 
+    /**
+     * Lists the cards in a deck and lets the user view the details of one.
+     *
+     * @param deck The deck to view.
+     */
+    private static void viewDeck(Deck deck) {
+        List<Card> cards = deck.getCards();
+        if (cards.isEmpty()) {
+            System.out.println("Deck is empty.");
+            return;
+        }
+
+        for (int i = 0; i < cards.size(); i++) {
+            System.out.println((i + 1) + ". " + cards.get(i).getName());
+        }
+
+        System.out.print("Enter the number of a card to view its details, or 0 to go back: ");
+        try {
+            int index = Integer.parseInt(scanner.nextLine().trim());
+            if (index == 0) return;
+            if (index < 1 || index > cards.size()) {
+                System.out.println("Invalid number.");
+                return;
+            }
+            cards.get(index - 1).displayCardDetails();
+            System.out.println(service.locateCard(cards.get(index - 1).getName()));
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid input.");
+        }
+    }
+
     /**
      * Displays available cards from collection and allows user to add one to a deck.
      * 
      * @param deck The deck to which a card will be added.
      */
     private static void addCardToDeckMenu(Deck deck) {
-        ArrayList<Card> availableCards = new ArrayList<>();
-        for (Card card : collector.getCollection().getCards()) {
-            if (card.getCount() > 0) {
-                availableCards.add(card);
-            }
-        }
+        List<Card> availableCards = service.getCollection().query().minCount(1).sortBy(CardQuery.Sort.NAME).list();
 
         if (availableCards.isEmpty()) {
             System.out.println("No cards available in collection to add.");
             return;
         }
 
-        Collections.sort(availableCards, Comparator.comparing(Card::getName));
-
         System.out.println("\nAvailable Cards in Collection:");
         for (int i = 0; i < availableCards.size(); i++) {
             Card card = availableCards.get(i);
@@ -227,10 +283,37 @@ public class Main {
                 return;
             }
 
-            Card selected = availableCards.get(index - 1);
-            if (deck.addCard(selected)) {
-                selected.decreaseCount();
+            System.out.println(service.moveToDeck(availableCards.get(index - 1).getName(), deck.getName()));
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid input.");
+        }
+    }
+
+    /**
+     * Lets the user pick a card in the deck and returns it to the collection.
+     *
+     * @param deck The deck from which a card will be removed.
+     */
+    private static void removeCardFromDeckMenu(Deck deck) {
+        List<Card> cards = deck.getCards();
+        if (cards.isEmpty()) {
+            System.out.println("Deck is empty.");
+            return;
+        }
+
+        for (int i = 0; i < cards.size(); i++) {
+            System.out.println((i + 1) + ". " + cards.get(i).getName());
+        }
+
+        System.out.print("Enter the number of the card to remove, or 0 to go back: ");
+        try {
+            int index = Integer.parseInt(scanner.nextLine().trim());
+            if (index == 0) return;
+            if (index < 1 || index > cards.size()) {
+                System.out.println("Invalid number.");
+                return;
             }
+            System.out.println(service.returnFromDeck(deck.getName(), cards.get(index - 1).getName()));
         } catch (NumberFormatException e) {
             System.out.println("Invalid input.");
         }
@@ -240,7 +323,7 @@ public class Main {
      * Deletes a selected deck and returns its cards back to the collection.
      */
     private static void deleteDeck() {
-        if (decks.isEmpty()) {
+        if (service.getDecks().isEmpty()) {
             System.out.println("No decks to delete.");
             return;
         }
@@ -248,9 +331,7 @@ public class Main {
         Deck selectedDeck = selectDeck("delete");
         if (selectedDeck == null) return;
 
-        decks.remove(selectedDeck);
-        selectedDeck.returnAllCardsToCollection(collector.getCollection().getCards());
-        System.out.println("Deck \"" + selectedDeck.getName() + "\" deleted and its cards returned to the collection.");
+        System.out.println(service.deleteDeck(selectedDeck.getName()));
     }
 
     /**
@@ -259,8 +340,8 @@ public class Main {
      */
     private static void sellDeck() {
         ArrayList<Deck> sellableDecks = new ArrayList<>();
-        for (Deck d : decks) {
-            if (d instanceof SellableDeck) {
+        for (Deck d : service.getDecks()) {
+            if (d.canBeSold()) {
                 sellableDecks.add(d);
             }
         }
@@ -290,15 +371,7 @@ public class Main {
             return;
         }
 
-        Deck selected = sellableDecks.get(index - 1);
-        double totalValue = 0;
-        for (Card card : selected.getCards()) {
-            totalValue += card.getActualValue();
-        }
-
-        collector.addMoney(totalValue);
-        decks.remove(selected);
-        System.out.printf("Sold deck \"%s\" for $%.2f.\n", selected.getName(), totalValue);
+        System.out.println(service.sellDeck(sellableDecks.get(index - 1).getName()));
     }
 
     /**
@@ -308,6 +381,7 @@ public class Main {
      * @return The selected Deck object or null if invalid.
      */
     private static Deck selectDeck(String action) {
+        ArrayList<Deck> decks = new ArrayList<>(service.getDecks());
         Collections.sort(decks, Comparator.comparing(Deck::getName));
 
         System.out.println("Available decks:");
@@ -337,20 +411,13 @@ public class Main {
      * Displays a list of cards in the collection and allows the user to select one to sell.
      */
     private static void sellCardFromCollection() {
-        ArrayList<Card> sellableCards = new ArrayList<>();
-        for (Card card : collector.getCollection().getCards()) {
-            if (card.getCount() > 0) {
-                sellableCards.add(card);
-            }
-        }
+        List<Card> sellableCards = service.getCollection().query().minCount(1).sortBy(CardQuery.Sort.NAME).list();
 
         if (sellableCards.isEmpty()) {
             System.out.println("No cards available to sell.");
             return;
         }
 
-        Collections.sort(sellableCards, Comparator.comparing(Card::getName));
-
         System.out.println("\nAvailable Cards to Sell:");
         for (int i = 0; i < sellableCards.size(); i++) {
             Card card = sellableCards.get(i);
@@ -368,26 +435,9 @@ public class Main {
                 return;
             }
 
-            Card selected = sellableCards.get(index - 1);
-            collector.sellCard(selected.getName());
-
+            System.out.println(service.sellCard(sellableCards.get(index - 1).getName()));
         } catch (NumberFormatException e) {
             System.out.println("Invalid input.");
         }
     }
-
-    /**
-     * Finds a deck by its name.
-     * 
-     * @param name The name of the deck.
-     * @return The Deck object or null if not found.
-     */
-    private static Deck findDeckByName(String name) {
-        for (Deck deck : decks) {
-            if (deck.getName().equalsIgnoreCase(name)) {
-                return deck;
-            }
-        }
-        return null;
-    }
 }
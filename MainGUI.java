@@ -1,6 +1,10 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Graphical User Interface (GUI) entry point for the Trading Card Inventory System.
@@ -8,18 +12,24 @@ import java.util.ArrayList;
  */
 public class MainGUI extends JFrame {
 
-    private Collector collector;
-    private ArrayList<Deck> decks;
-    private ArrayList<Binder> binders;
+    private InventoryService service;
     private JPanel buttonPanel;
 
-    public MainGUI() {
-        collector = new Collector(); 
-        decks = new ArrayList<>();
-        binders = new ArrayList<>();
+    public MainGUI(InventoryService service) {
+        this.service = service;
+        for (String warning : service.getStartupWarnings()) {
+            JOptionPane.showMessageDialog(this, warning);
+        }
 
         setTitle("Trading Card Inventory System");
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Closing saves off the event dispatch thread first, as the Exit button does
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                saveAndExit();
+            }
+        });
         setSize(640, 360);
         setLocationRelativeTo(null);
         setLayout(new BorderLayout());
@@ -75,26 +85,27 @@ public class MainGUI extends JFrame {
     private void refreshButtonPanel() {
         buttonPanel.removeAll();
 
-        boolean hasCards = !collector.getCollection().getCards().isEmpty();
-        boolean hasBinders = !binders.isEmpty();
-        boolean hasDecks = !decks.isEmpty();
+        boolean hasCards = !service.getCollection().isEmpty();
+        boolean hasDecks = !service.getDecks().isEmpty();
 
         addButton(buttonPanel, "Add a Card", () -> {
-            collector.getCollection().addCardToCollection(this);
+            addCardToCollection();
             refreshButtonPanel();
         });
 
+        addButton(buttonPanel, "Import Cards", this::importCards);
+
         if (hasCards) {
-            addButton(buttonPanel, "Modify Card Count", () -> collector.getCollection().modifyCardCount(this));
+            addButton(buttonPanel, "Modify Card Count", this::modifyCardCount);
         }
 
-        if (binders.isEmpty()) {
+        if (service.getBinders().isEmpty()) {
             addButton(buttonPanel, "Create Binder", () ->
-                    BinderGUI.showCreateBinderDialog(this, binders, this::refreshButtonPanel)
+                    BinderGUI.showCreateBinderDialog(this, service, this::refreshButtonPanel)
             );
         } else {
             addButton(buttonPanel, "Manage Binders", () ->
-                    BinderGUI.showBinderMenu(this, binders, collector, this::refreshButtonPanel)
+                    BinderGUI.showBinderMenu(this, service, this::refreshButtonPanel)
             );
         }
 
@@ -112,19 +123,164 @@ public class MainGUI extends JFrame {
             addButton(buttonPanel, "Sell Card", this::sellCardFromCollection);
         }
 
-        addButton(buttonPanel, "View Collection", () -> collector.getCollection().showCollection(this));
+        addButton(buttonPanel, "View Collection", this::showCollection);
 
         addButton(buttonPanel, "View Money", () -> {
-            double money = collector.getMoney();
-            JOptionPane.showMessageDialog(this, String.format("You have $%.2f", money), "Money", JOptionPane.INFORMATION_MESSAGE);
+            long money = service.getMoneyCents();
+            JOptionPane.showMessageDialog(this, "You have $" + Money.format(money), "Money", JOptionPane.INFORMATION_MESSAGE);
         });
 
-        addButton(buttonPanel, "Exit", () -> System.exit(0));
+        addButton(buttonPanel, "Exit", this::saveAndExit);
 
         buttonPanel.revalidate();
         buttonPanel.repaint();
     }
 
+    /**
+     * Saves the collector, binders and decks on a background worker, so the next
+     * session starts where this one ended, then closes the window and exits.
+     */
+    private void saveAndExit() {
+        BackgroundTask.<OperationResult>run(this, "Saving inventory", false, task -> {
+            OperationResult saved = service.save();
+            OperationResult closed = service.close();
+            return saved.isSuccess() ? closed : saved;
+        }, result -> {
+            if (!result.isSuccess()) {
+                JOptionPane.showMessageDialog(this, result.getMessage());
+            }
+            dispose();
+            System.exit(0);
+        });
+    }
+
+    /**
+     * Adds a new card to the collection using GUI prompts.
+     */
+    private void addCardToCollection() {
+        String name = JOptionPane.showInputDialog(this, "Enter card name:");
+        if (name == null || name.trim().isEmpty()) return;
+        name = name.trim();
+
+        if (service.findCard(name) != null) {
+            int option = JOptionPane.showConfirmDialog(
+                    this,
+                    "Card already exists. Increase count by 1?",
+                    "Duplicate Card",
+                    JOptionPane.YES_NO_OPTION
+            );
+            if (option == JOptionPane.YES_OPTION) {
+                JOptionPane.showMessageDialog(this, service.addCopy(name).getMessage());
+            }
+            return;
+        }
+
+        String[] rarities = {"common", "uncommon", "rare", "legendary"};
+        String rarity = (String) JOptionPane.showInputDialog(
+                this,
+                "Select card rarity:",
+                "Card Rarity",
+                JOptionPane.QUESTION_MESSAGE,
+                null,
+                rarities,
+                rarities[0]
+        );
+
+        if (rarity == null) return;
+
+        String variant = "normal";
+        if (rarity.equals("rare") || rarity.equals("legendary")) {
+            String[] variants = {"normal", "extended-art", "full-art", "alt-art"};
+            variant = (String) JOptionPane.showInputDialog(
+                    this,
+                    "Select card variant:",
+                    "Card Variant",
+                    JOptionPane.QUESTION_MESSAGE,
+                    null,
+                    variants,
+                    variants[0]
+            );
+
+            if (variant == null) return; // user cancelled
+        }
+
+        long baseValue = 0;
+        boolean validValue = false;
+        while (!validValue) {
+            String valueStr = JOptionPane.showInputDialog(this, "Enter base value in dollars:");
+            if (valueStr == null) return;
+            try {
+                baseValue = Money.parse(valueStr);
+                validValue = true;
+            } catch (NumberFormatException e) {
+                JOptionPane.showMessageDialog(this, "Invalid number. Try again.");
+            }
+        }
+
+        JOptionPane.showMessageDialog(this, service.addCard(name, rarity, variant, baseValue).getMessage());
+    }
+
+    /**
+     * Lets the user pick a CSV or TSV file and bulk-imports its cards on a background thread.
+     */
+    private void importCards() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Cards");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        Path file = chooser.getSelectedFile().toPath();
+        BackgroundTask.<OperationResult>run(this, "Importing cards", true,
+                task -> service.importCards(file, task::progress, task::isCancelRequested),
+                result -> {
+                    JOptionPane.showMessageDialog(this, result.getMessage(), "Import Cards",
+                            result.isSuccess() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.ERROR_MESSAGE);
+                    refreshButtonPanel();
+                });
+    }
+
+    /**
+     * Lets the user pick a card and type its new count.
+     */
+    private void modifyCardCount() {
+        CardStore store = service.getCollection().getStore();
+        if (store.size() == 0) {
+            JOptionPane.showMessageDialog(this, "No cards in collection.");
+            return;
+        }
+
+        String[] cardNames = new String[store.size()];
+        for (int i = 0; i < cardNames.length; i++) {
+            cardNames[i] = store.getName(i);
+        }
+        String selected = (String) JOptionPane.showInputDialog(this, "Select card:",
+                "Modify Card Count", JOptionPane.PLAIN_MESSAGE, null, cardNames, cardNames[0]);
+
+        if (selected == null) return;
+
+        Card card = service.findCard(selected);
+        if (card == null) return;
+
+        String countStr = JOptionPane.showInputDialog(this, "Current count: " + card.getCount() + "\nEnter new count:");
+        if (countStr == null) return;
+
+        try {
+            service.setCardCount(selected, Integer.parseInt(countStr.trim()));
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "Invalid number.");
+        }
+    }
+
+    /**
+     * Opens the collection browser; it reads the store in place, so it opens at once at any size.
+     */
+    private void showCollection() {
+        if (service.getCollection().isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Collection is empty.");
+            return;
+        }
+        new CollectionBrowser(this, service.getCollection());
+    }
+
     /**
      * A method that displays the Decks Menu through a JOptionPane and organizes
      * the deck's functionalities.
@@ -153,7 +309,7 @@ public class MainGUI extends JFrame {
         String deckName = JOptionPane.showInputDialog(this, "Enter deck name:");
         if (deckName == null || deckName.trim().isEmpty()) return;
 
-        if (findDeckByName(deckName) != null) {
+        if (service.findDeck(deckName) != null) {
             JOptionPane.showMessageDialog(this, "Deck with that name already exists.");
             return;
         }
@@ -163,24 +319,16 @@ public class MainGUI extends JFrame {
                 JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE,
                 null, types, types[0]);
 
-        Deck newDeck;
-        if (choice == 0) {
-            newDeck = new NormalDeck(deckName);
-        } else if (choice == 1) {
-            newDeck = new SellableDeck(deckName);
-        } else {
-            return;
-        }
+        if (choice < 0) return;
 
-        decks.add(newDeck);
-        JOptionPane.showMessageDialog(this, newDeck.getClass().getSimpleName() + " \"" + deckName + "\" created.");
+        JOptionPane.showMessageDialog(this, service.createDeck(deckName, InventoryService.DECK_TYPES[choice]).getMessage());
     }
 
     /**
      * A method allowing the user to manage a deck through JOptionPane
      */
     private void manageDeck() {
-        if (decks.isEmpty()) {
+        if (service.getDecks().isEmpty()) {
             JOptionPane.showMessageDialog(this, "No decks available.");
             return;
         }
@@ -188,14 +336,14 @@ public class MainGUI extends JFrame {
         Deck selected = selectDeck("Manage");
         if (selected == null) return;
 
-        selected.viewDeckGUI(this, collector.getCollection().getCards());
+        new ManageDeckGUI(this, service, selected);
     }
 
     /**
      * A method allowing the user to delete a deck through a JOptionPane
      */
     private void deleteDeck() {
-        if (decks.isEmpty()) {
+        if (service.getDecks().isEmpty()) {
             JOptionPane.showMessageDialog(this, "No decks to delete.");
             return;
         }
@@ -203,9 +351,7 @@ public class MainGUI extends JFrame {
         Deck selected = selectDeck("Delete");
         if (selected == null) return;
 
-        decks.remove(selected);
-        selected.returnAllCardsToCollection(collector.getCollection().getCards());
-        JOptionPane.showMessageDialog(this, "Deck \"" + selected.getName() + "\" deleted.");
+        JOptionPane.showMessageDialog(this, service.deleteDeck(selected.getName()).getMessage());
     }
 
     /**
@@ -213,8 +359,8 @@ public class MainGUI extends JFrame {
      */
     private void sellDeck() {
         ArrayList<Deck> sellableDecks = new ArrayList<>();
-        for (Deck d : decks) {
-            if (d instanceof SellableDeck) {
+        for (Deck d : service.getDecks()) {
+            if (d.canBeSold()) {
                 sellableDecks.add(d);
             }
         }
@@ -230,47 +376,25 @@ public class MainGUI extends JFrame {
 
         if (selectedName == null) return;
 
-        Deck selected = findDeckByName(selectedName);
-        double totalValue = selected.getCards().stream().mapToDouble(Card::getActualValue).sum();
-        collector.addMoney(totalValue);
-        decks.remove(selected);
-        JOptionPane.showMessageDialog(this, "Sold deck \"" + selected.getName() + "\" for $" + String.format("%.2f", totalValue));
+        JOptionPane.showMessageDialog(this, service.sellDeck(selectedName).getMessage());
     }
 
     /**
      * A method allowing the user to sell a card from their collection through a JOptionPane
      */
     private void sellCardFromCollection() {
-        ArrayList<Card> sellableCards = new ArrayList<>();
-        for (Card card : collector.getCollection().getCards()) {
-            if (card.getCount() > 0) {
-                sellableCards.add(card);
-            }
-        }
+        String[] cardNames = service.getCollection().getNamesInStock();
 
-        if (sellableCards.isEmpty()) {
+        if (cardNames.length == 0) {
             JOptionPane.showMessageDialog(this, "No cards available to sell.");
             return;
         }
 
-        String[] cardNames = sellableCards.stream().map(Card::getName).toArray(String[]::new);
         String selectedCardName = (String) JOptionPane.showInputDialog(this, "Select a card to sell:",
                 "Sell Card", JOptionPane.PLAIN_MESSAGE, null, cardNames, cardNames[0]);
 
         if (selectedCardName == null) return;
-        collector.sellCard(selectedCardName);
-    }
-
-    /**
-     * A helper method used to find a deck by its name
-     * @param name the name of the deck to search for
-     * @return
-     */
-    private Deck findDeckByName(String name) {
-        for (Deck deck : decks) {
-            if (deck.getName().equalsIgnoreCase(name)) return deck;
-        }
-        return null;
+        JOptionPane.showMessageDialog(this, service.sellCard(selectedCardName).getMessage());
     }
 
     /**
@@ -280,6 +404,7 @@ public class MainGUI extends JFrame {
      * @return The selected Deck or null if cancelled or not found
      */
     private Deck selectDeck(String action) {
+        List<Deck> decks = service.getDecks();
         if (decks.isEmpty()) return null;
 
         String[] deckNames = decks.stream()
@@ -306,6 +431,9 @@ public class MainGUI extends JFrame {
     }
 
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(MainGUI::new);
+        // Load the snapshot and replay the journal off the event thread, then open the window
+        SwingUtilities.invokeLater(() ->
+                BackgroundTask.run(null, "Loading inventory", false, task -> InventoryService.openDefault(), MainGUI::new)
+        );
     }
 }
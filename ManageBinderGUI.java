@@ -1,25 +1,16 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Comparator;
 
 public class ManageBinderGUI extends JDialog {
 
-    public ManageBinderGUI(BinderGUI parent, Binder binder, ArrayList<Card> collection) {
+    public ManageBinderGUI(BinderGUI parent, InventoryService service, Binder binder) {
         super(parent, "Manage Binder: " + binder.getName(), true);
         setSize(800, 500);
         setLayout(new BorderLayout());
 
-        ArrayList<Card> sortedBinder = new ArrayList<>(binder.getCards());
-        sortedBinder.sort(Comparator.comparing(Card::getName, String.CASE_INSENSITIVE_ORDER));
-
-        DefaultListModel<Card> binderModel = new DefaultListModel<>();
-        for (Card c : sortedBinder) binderModel.addElement(c);
-
-        DefaultListModel<Card> collectionModel = new DefaultListModel<>();
-        for (Card c : collection) {
-            if (c.getCount() > 0) collectionModel.addElement(c);
-        }
+        // Both lists follow inventory events, so each move updates one row of each
+        CardListModel binderModel = CardListModel.of(binder);
+        CardListModel collectionModel = CardListModel.eligibleFor(service.getCollection(), binder);
 
         JList<Card> binderList = new JList<>(binderModel);
         binderList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -32,14 +23,10 @@ public class ManageBinderGUI extends JDialog {
 
         addButton.addActionListener(e -> {
             Card selected = collectionList.getSelectedValue();
-            if (selected != null && selected.getCount() > 0) {
-                if (binder.addCard(selected)) {
-                    selected.decreaseCount();
-                    binderModel.addElement(selected);
-                    collectionModel.removeElement(selected);
-                    if (selected.getCount() > 0) collectionModel.addElement(selected);
-                } else {
-                    JOptionPane.showMessageDialog(this, binder.getRestrictionMessage(selected));
+            if (selected != null) {
+                OperationResult result = service.moveToBinder(selected.getName(), binder.getName());
+                if (!result.isSuccess()) {
+                    JOptionPane.showMessageDialog(this, result.getMessage());
                 }
             }
         });
@@ -47,21 +34,7 @@ public class ManageBinderGUI extends JDialog {
         removeButton.addActionListener(e -> {
             Card selected = binderList.getSelectedValue();
             if (selected != null) {
-                binder.removeCard(selected);
-                Card existing = collection.stream()
-                        .filter(c -> c.getName().equalsIgnoreCase(selected.getName()))
-                        .findFirst().orElse(null);
-                if (existing != null) existing.increaseCount();
-                else {
-                    selected.setCount(1);
-                    collection.add(selected);
-                }
-
-                binderModel.removeElement(selected);
-                collectionModel.removeAllElements();
-                for (Card c : collection) {
-                    if (c.getCount() > 0) collectionModel.addElement(c);
-                }
+                service.returnFromBinder(binder.getName(), selected.getName());
             }
         });
 
@@ -80,5 +53,9 @@ public class ManageBinderGUI extends JDialog {
 
         setLocationRelativeTo(parent);
         setVisible(true);
+
+        // Modal: setVisible returns once the dialog is closed
+        binderModel.dispose();
+        collectionModel.dispose();
     }
 }
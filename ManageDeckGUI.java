@@ -0,0 +1,99 @@
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
+import java.awt.GridLayout;
+import java.awt.Color;
+import java.awt.BorderLayout;
+
+/**
+ * Dialog for managing a deck, moving cards between it and the collection.
+ * Formerly Deck.viewDeckGUI; the moves now go through InventoryService.
+ */
+public class ManageDeckGUI extends JDialog {
+
+    /**
+     * GUI for Managing Deck including addition and removal of cards.
+     * @param parent the JFrame MainGUI
+     * @param service the inventory the deck belongs to
+     * @param deck the deck to manage
+     */
+    public ManageDeckGUI(JFrame parent, InventoryService service, Deck deck) {
+        super(parent, "Manage Deck: " + deck.getName(), true);
+        setSize(800, 500);
+        setLayout(new BorderLayout());
+
+        // Deck and collection card lists; both follow inventory events, so each move updates one row of each
+        CardListModel deckModel = CardListModel.of(deck);
+        CardListModel collectionModel = CardListModel.inStock(service.getCollection());
+
+        JList<Card> deckList = new JList<>(deckModel);
+        deckList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        deckList.setCellRenderer((list, value, index, isSelected, cellHasFocus) -> {
+            JLabel label = new JLabel(value.getName());
+            if (isSelected) label.setBackground(Color.LIGHT_GRAY);
+            label.setOpaque(true);
+            return label;
+        });
+
+        JList<Card> collectionList = new JList<>(collectionModel);
+        collectionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        collectionList.setCellRenderer((list, value, index, isSelected, cellHasFocus) -> {
+            JLabel label = new JLabel(value.getName() + " (x" + value.getCount() + ")");
+            if (isSelected) label.setBackground(Color.CYAN);
+            label.setOpaque(true);
+            return label;
+        });
+
+        // Buttons
+        JButton addBtn = new JButton("Add to Deck →");
+        JButton removeBtn = new JButton("← Remove from Deck");
+        JButton closeBtn = new JButton("Close");
+
+        addBtn.addActionListener(e -> {
+            Card selected = collectionList.getSelectedValue();
+            if (selected != null) {
+                OperationResult result = service.moveToDeck(selected.getName(), deck.getName());
+                if (!result.isSuccess()) {
+                    JOptionPane.showMessageDialog(this, result.getMessage());
+                }
+            }
+        });
+
+        removeBtn.addActionListener(e -> {
+            Card selected = deckList.getSelectedValue();
+            if (selected != null) {
+                service.returnFromDeck(deck.getName(), selected.getName());
+            }
+        });
+
+        closeBtn.addActionListener(e -> dispose());
+
+        // Layout
+        JPanel centerPanel = new JPanel(new GridLayout(1, 3, 10, 10));
+        centerPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        centerPanel.add(new JScrollPane(collectionList));
+        JPanel buttonPanel = new JPanel(new GridLayout(2, 1, 10, 10));
+        buttonPanel.add(addBtn);
+        buttonPanel.add(removeBtn);
+        centerPanel.add(buttonPanel);
+        centerPanel.add(new JScrollPane(deckList));
+
+        add(centerPanel, BorderLayout.CENTER);
+        add(closeBtn, BorderLayout.SOUTH);
+
+        setLocationRelativeTo(parent);
+        setVisible(true);
+
+        // Modal: setVisible returns once the dialog is closed
+        deckModel.dispose();
+        collectionModel.dispose();
+    }
+}
@@ -0,0 +1,91 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money helpers. Amounts are held as a long number of cents so
+ * sums of card values and sales are exact and need no objects.
+ *
+ * Rounding rule: whenever a calculation lands between two cents (a 1.5x
+ * variant on an odd number of cents, or the 10% handling fee), it is rounded
+ * half-up to the nearest cent. The handling fee is applied once to the
+ * binder total, not per card.
+ */
+public final class Money {
+
+    /** Handling fee charged on binder sales, in percent. */
+    public static final int HANDLING_FEE_PERCENT = 10;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a dollar amount to cents, rounding half-up to the nearest cent.
+     * Uses the shortest decimal form of the double, so 19.99 becomes exactly 1999.
+     *
+     * @param dollars amount in dollars.
+     * @return amount in cents.
+     */
+    public static long fromDollars(double dollars) {
+        return BigDecimal.valueOf(dollars).movePointRight(2)
+                .setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Parses a dollar amount typed by the user, e.g. "12.5" or "0.99".
+     *
+     * @param text the amount in dollars.
+     * @return amount in cents.
+     * @throws NumberFormatException if the text is not a number.
+     */
+    public static long parse(String text) {
+        try {
+            return new BigDecimal(text.trim()).movePointRight(2)
+                    .setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    /**
+     * @param cents amount in cents.
+     * @return the same amount in dollars, for display or legacy double APIs.
+     */
+    public static double toDollars(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Multiplies an amount by numerator / denominator, rounding half-up.
+     *
+     * @param cents       amount in cents, not negative.
+     * @param numerator   multiplier numerator.
+     * @param denominator multiplier denominator, positive.
+     * @return the scaled amount in cents.
+     */
+    public static long multiply(long cents, long numerator, long denominator) {
+        long scaled = Math.multiplyExact(cents, numerator);
+        return (scaled * 2 + denominator) / (denominator * 2);
+    }
+
+    /**
+     * Adds the binder handling fee to an amount.
+     *
+     * @param cents amount in cents before the fee.
+     * @return amount in cents including the fee.
+     */
+    public static long withHandlingFee(long cents) {
+        return multiply(cents, 100 + HANDLING_FEE_PERCENT, 100);
+    }
+
+    /**
+     * Formats an amount as dollars with two decimals, without the "$" sign.
+     *
+     * @param cents amount in cents.
+     * @return e.g. "12.05" for 1205.
+     */
+    public static String format(long cents) {
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        return (cents < 0 ? "-" : "") + (abs / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
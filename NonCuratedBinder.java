@@ -24,7 +24,7 @@ public class NonCuratedBinder extends Binder {
     }
 
     @Override
-    public double calculateSellPrice() {
+    public long calculateSellPriceCents() {
         return 0; // Not sellable
     }
 }
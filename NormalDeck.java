@@ -10,7 +10,7 @@ public class NormalDeck extends Deck {
     }
 
     @Override
-    public double calculateSellPrice() {
-        return 0.0;
+    public long calculateSellPriceCents() {
+        return 0;
     }
 }
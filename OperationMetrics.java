@@ -0,0 +1,155 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, failures and a latency histogram for one inventory operation.
+ *
+ * Every field is a LongAdder or LongAccumulator, which spread concurrent
+ * updates over per-thread cells, so recording costs a few uncontended adds.
+ * The histogram has 8 linear sub-buckets per power of two of nanoseconds, so
+ * a percentile is exact to within 12.5%.
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    public OperationMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one call.
+     *
+     * @param nanos how long it took.
+     * @param ok    false if it failed.
+     */
+    public void record(long nanos, boolean ok) {
+        nanos = Math.max(0, nanos);
+        count.increment();
+        if (!ok) failures.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets[bucket(nanos)].increment();
+    }
+
+    /**
+     * Log-linear bucket: values below SUB_BUCKETS get their own bucket, larger
+     * ones are placed by their top bit and the SUB_BITS bits below it.
+     */
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        int top = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (top - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (top - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return the largest value that falls into a bucket.
+     */
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int top = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long low = (1L << top) + ((long) sub << (top - SUB_BITS));
+        return low + (1L << (top - SUB_BITS)) - 1;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1e3 / n;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return percentileMicros(50);
+    }
+
+    @Override
+    public double getP90Micros() {
+        return percentileMicros(90);
+    }
+
+    @Override
+    public double getP99Micros() {
+        return percentileMicros(99);
+    }
+
+    @Override
+    public double getP999Micros() {
+        return percentileMicros(99.9);
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return maxNanos.get() / 1e3;
+    }
+
+    /**
+     * @return the upper bound of the bucket holding the given percentile, in microseconds.
+     */
+    public double percentileMicros(double percent) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets[i].sum();
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(percent / 100 * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), maxNanos.get()) / 1e3;
+            }
+        }
+        return maxNanos.get() / 1e3;
+    }
+
+    /**
+     * Clears every figure. Calls recorded while resetting may be partly kept.
+     */
+    @Override
+    public void reset() {
+        count.reset();
+        failures.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d calls, %d failed, mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us",
+                name, getCount(), getFailures(), getMeanMicros(), getP50Micros(), getP99Micros(), getMaxMicros());
+    }
+}
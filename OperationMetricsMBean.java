@@ -0,0 +1,24 @@
+/**
+ * JMX view of one timed inventory operation; see OperationMetrics.
+ * Latencies are in microseconds and cover every call since start or reset.
+ */
+public interface OperationMetricsMBean {
+
+    long getCount();
+
+    long getFailures();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
@@ -0,0 +1,67 @@
+/**
+ * The outcome of an InventoryService operation: whether it succeeded, a
+ * message to show the user, and the amount of money involved, if any.
+ */
+public class OperationResult {
+
+    /**
+     * OK and FAILED are final. NEEDS_CONFIRMATION means nothing was changed
+     * and the operation must be repeated with confirmation, e.g. an uneven trade.
+     */
+    public enum Status { OK, FAILED, NEEDS_CONFIRMATION }
+
+    private final Status status;
+    private final String message;
+    private final long amountCents;
+
+    private OperationResult(Status status, String message, long amountCents) {
+        this.status = status;
+        this.message = message;
+        this.amountCents = amountCents;
+    }
+
+    public static OperationResult ok(String message) {
+        return new OperationResult(Status.OK, message, 0);
+    }
+
+    public static OperationResult ok(String message, long amountCents) {
+        return new OperationResult(Status.OK, message, amountCents);
+    }
+
+    public static OperationResult failed(String message) {
+        return new OperationResult(Status.FAILED, message, 0);
+    }
+
+    public static OperationResult needsConfirmation(String message, long amountCents) {
+        return new OperationResult(Status.NEEDS_CONFIRMATION, message, amountCents);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.OK;
+    }
+
+    public boolean needsConfirmation() {
+        return status == Status.NEEDS_CONFIRMATION;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return money earned by a sale, or the value difference awaiting
+     *         confirmation, in cents; 0 for other operations.
+     */
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    @Override
+    public String toString() {
+        return message;
+    }
+}
@@ -15,8 +15,12 @@ public class PauperBinder extends Binder {
 
     @Override
     public boolean isCardAllowed(Card card) {
-        String rarity = card.getRarity().toLowerCase();
-        return rarity.equals("common") || rarity.equals("uncommon");
+        return !card.getRarityType().isPremium();
+    }
+
+    @Override
+    public int allowedRarities() {
+        return CardBitmaps.mask(Rarity.COMMON, Rarity.UNCOMMON);
     }
 
     @Override
@@ -25,7 +29,7 @@ public class PauperBinder extends Binder {
     }
 
     @Override
-    public double calculateSellPrice() {
-        return cards.stream().mapToDouble(Card::getActualValue).sum(); // No handling fee
+    public long calculateSellPriceCents() {
+        return getTotalValueCents(); // No handling fee
     }
 }
@@ -15,8 +15,12 @@ public class RaresBinder extends Binder {
 
     @Override
     public boolean isCardAllowed(Card card) {
-        String rarity = card.getRarity().toLowerCase();
-        return rarity.equals("rare") || rarity.equals("legendary");
+        return card.getRarityType().isPremium();
+    }
+
+    @Override
+    public int allowedRarities() {
+        return CardBitmaps.mask(Rarity.RARE, Rarity.LEGENDARY);
     }
 
     @Override
@@ -25,8 +29,7 @@ public class RaresBinder extends Binder {
     }
 
     @Override
-    public double calculateSellPrice() {
-        double total = cards.stream().mapToDouble(Card::getActualValue).sum();
-        return total * 1.10; // 10% handling fee
+    public long calculateSellPriceCents() {
+        return Money.withHandlingFee(getTotalValueCents()); // 10% handling fee
     }
 }
@@ -0,0 +1,58 @@
+/**
+ * The rarity of a card. Stored on each Card instead of the rarity string
+ * so rarity checks are reference comparisons.
+ */
+public enum Rarity {
+    COMMON("common"),
+    UNCOMMON("uncommon"),
+    RARE("rare"),
+    LEGENDARY("legendary");
+
+    private static final Rarity[] VALUES = values();
+
+    private final String label;
+
+    Rarity(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return the lowercase name used in menus and input, e.g. "rare".
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Rare and legendary cards are the only ones that may have a special variant.
+     *
+     * @return true for rare and legendary.
+     */
+    public boolean isPremium() {
+        return this == RARE || this == LEGENDARY;
+    }
+
+    /**
+     * Looks up a rarity by its label, ignoring case.
+     *
+     * @param label the rarity label, e.g. "Common".
+     * @return the matching rarity, or null if the label is not valid.
+     */
+    public static Rarity fromLabel(String label) {
+        if (label == null) return null;
+        for (Rarity r : VALUES) {
+            if (r.label.equalsIgnoreCase(label)) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param ordinal a value previously returned by ordinal().
+     * @return the rarity with that ordinal.
+     */
+    public static Rarity fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,33 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a sale of a card copy, a binder or a deck,
+ * spanning the whole sale. See TradeEvent for how the cost is kept near zero
+ * when no recording is running.
+ */
+@Name("tcis.Sale")
+@Label("Sale")
+@Category("Trading Card Inventory")
+@Description("A card copy, binder or deck sold for money")
+@StackTrace(false)
+public class SaleEvent extends jdk.jfr.Event {
+
+    @Label("Kind")
+    @Description("card, binder or deck")
+    String kind;
+
+    @Label("Name")
+    @Description("Name of the card, binder or deck sold")
+    String cardName;
+
+    @Label("Value Delta (cents)")
+    @Description("Money received, or 0 if nothing was sold")
+    long valueDeltaCents;
+
+    @Label("Sold")
+    boolean sold;
+}
@@ -10,11 +10,7 @@ public class SellableDeck extends Deck {
     }
 
     @Override
-    public double calculateSellPrice() {
-        double total = 0.0;
-        for (Card card : cards) {
-            total += card.getActualValue();
-        }
-        return total;
+    public long calculateSellPriceCents() {
+        return getTotalValueCents();
     }
 }
@@ -0,0 +1,82 @@
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+/**
+ * Cards kept in name order, ignoring case, as they are added and removed, so a
+ * container can be listed alphabetically without sorting it on every view.
+ *
+ * Each card is filed under the collation key of its name, so the tree compares
+ * plain strings; adding or removing a card is one tree lookup, O(log n). Cards with
+ * the same name keep the order they were added in, as a stable sort would.
+ * Not thread-safe: the owning container guards it.
+ */
+public class SortedCards {
+
+    private final TreeMap<String, ArrayList<Card>> byKey = new TreeMap<>();
+    private int size;
+
+    /**
+     * Folds a name so that comparing keys with String.compareTo gives the same
+     * order as String.CASE_INSENSITIVE_ORDER on the names, and names equal under
+     * equalsIgnoreCase get the same key.
+     */
+    public static String collationKey(String name) {
+        char[] key = null;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            char folded = c < 128
+                    ? (c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c)
+                    : Character.toLowerCase(Character.toUpperCase(c));
+            if (folded != c) {
+                if (key == null) key = name.toCharArray();
+                key[i] = folded;
+            }
+        }
+        return key == null ? name : new String(key);
+    }
+
+    public void add(Card card) {
+        byKey.computeIfAbsent(collationKey(card.getName()), k -> new ArrayList<>(1)).add(card);
+        size++;
+    }
+
+    /**
+     * Removes this card object, not just a card with the same name.
+     *
+     * @return true if the card was here.
+     */
+    public boolean remove(Card card) {
+        String key = collationKey(card.getName());
+        ArrayList<Card> same = byKey.get(key);
+        if (same == null) return false;
+        for (int i = 0; i < same.size(); i++) {
+            if (same.get(i) == card) {
+                same.remove(i);
+                if (same.isEmpty()) byKey.remove(key);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        byKey.clear();
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the cards in name order, as a new list.
+     */
+    public ArrayList<Card> toList() {
+        ArrayList<Card> list = new ArrayList<>(size);
+        for (ArrayList<Card> same : byKey.values()) {
+            list.addAll(same);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the name orders kept as cards come and go: collation keys compare
+ * like String.CASE_INSENSITIVE_ORDER, the card store lists names in that
+ * order after random adds and removes, and a binder's getCardsByName matches
+ * sorting its cards. Also checks that Collection.getCards is a snapshot in
+ * both single-thread and concurrent mode. Exits with status 1 if a check fails.
+ *
+ * Usage: java SortedCardsTest
+ */
+public class SortedCardsTest {
+
+    // Includes characters whose case folding is not one to one
+    private static final String ALPHABET = "aAbBzZ_ 1\u00e9\u00c9\u00df\u0131\u0130\u01c5\u01c6\u03c3\u03a3\u03c2";
+
+    private static final Comparator<Card> BY_NAME = Comparator.comparing(Card::getName, String.CASE_INSENSITIVE_ORDER);
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        Random random = new Random(7);
+        collationKeys(random);
+        storeOrder(random);
+        binderOrder(random);
+        snapshots(false);
+        snapshots(true);
+        System.out.println(failures == 0 ? "All sorted order checks passed."
+                : failures + " sorted order checks failed.");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void collationKeys(Random random) {
+        int wrong = 0;
+        for (int i = 0; i < 200_000; i++) {
+            String a = randomName(random);
+            String b = randomName(random);
+            int expected = Integer.signum(String.CASE_INSENSITIVE_ORDER.compare(a, b));
+            int actual = Integer.signum(SortedCards.collationKey(a).compareTo(SortedCards.collationKey(b)));
+            if (expected != actual) wrong++;
+        }
+        check(wrong == 0, wrong + " pairs of names compare differently by collation key");
+    }
+
+    private static void storeOrder(Random random) {
+        Collection collection = new Collection(new ArrayList<>());
+        for (int i = 0; i < 20_000; i++) {
+            String name = "c" + random.nextInt(3_000) + (random.nextBoolean() ? "X" : "x");
+            Card found = collection.findCardByName(name);
+            if (found == null) {
+                collection.addCard(new Card(name, Rarity.COMMON, Variant.NORMAL, 100 + random.nextInt(5_000)));
+            } else if (random.nextInt(3) == 0) {
+                collection.removeCard(found);
+            }
+        }
+        List<Card> expected = new ArrayList<>(collection.getCards());
+        expected.sort(BY_NAME);
+        check(collection.query().sortBy(CardQuery.Sort.NAME).list().equals(expected),
+                "the store lists every card in name order");
+        long withPrefix = expected.stream().filter(card -> card.getName().toLowerCase().startsWith("c12")).count();
+        check(collection.query().namePrefix("C12").count() == withPrefix, "a prefix ignores case");
+    }
+
+    private static void binderOrder(Random random) {
+        Binder binder = new NonCuratedBinder("Sorted");
+        int wrong = 0;
+        for (int i = 0; i < 5_000; i++) {
+            if (binder.isFull() || (binder.getCardCount() > 0 && random.nextInt(3) == 0)) {
+                List<Card> cards = binder.getCards();
+                Card card = cards.get(random.nextInt(cards.size()));
+                if (random.nextBoolean()) binder.removeCard(card);
+                else binder.removeCardByName(card.getName());
+            } else {
+                String name = "n" + random.nextInt(8) + (random.nextBoolean() ? "Q" : "q");
+                binder.addCard(new Card(name, Rarity.COMMON, Variant.NORMAL, 100));
+            }
+            List<Card> expected = binder.getCards();
+            expected.sort(BY_NAME);
+            if (!expected.equals(binder.getCardsByName())) wrong++;
+            if (i % 1_000 == 999) binder.returnAllCards();
+        }
+        check(wrong == 0, "binder name order differs from sorting its cards " + wrong + " times");
+    }
+
+    private static void snapshots(boolean concurrent) {
+        Collection collection = new Collection(new ArrayList<>());
+        if (concurrent) {
+            collection.enableConcurrency();
+        }
+        collection.addCard(new Card("Alpha", Rarity.COMMON, Variant.NORMAL, 100));
+        collection.addCard(new Card("Bravo", Rarity.COMMON, Variant.NORMAL, 100));
+        List<Card> before = collection.getCards();
+        collection.removeCard(collection.findCardByName("Alpha"));
+        collection.addCard(new Card("Charlie", Rarity.COMMON, Variant.NORMAL, 100));
+        String mode = concurrent ? "concurrent" : "single-thread";
+        check(before.size() == 2 && before.get(0).getName().equals("Alpha") && before.get(1).getName().equals("Bravo"),
+                "in " + mode + " mode getCards is not changed by later adds and removes");
+        try {
+            before.clear();
+            check(false, "in " + mode + " mode getCards is read-only");
+        } catch (UnsupportedOperationException e) {
+            check(true, "in " + mode + " mode getCards is read-only");
+        }
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int length = random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            name.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return name.toString();
+    }
+
+    private static void check(boolean ok, String what) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAILED: " + what);
+        }
+    }
+}
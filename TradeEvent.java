@@ -0,0 +1,39 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one trade out of a binder, spanning the checks and
+ * the transaction that swaps the cards. Recorded for every front end, since
+ * TradeManager and TradeGUI both trade through InventoryService.trade.
+ *
+ * Like the other inventory events it is created and begun on every call, but
+ * its fields are only filled in when shouldCommit() says a recording wants it,
+ * so with Flight Recorder off the cost is a check of a constant flag.
+ */
+@Name("tcis.Trade")
+@Label("Trade")
+@Category("Trading Card Inventory")
+@Description("A card in a binder traded for an incoming card")
+@StackTrace(false)
+public class TradeEvent extends jdk.jfr.Event {
+
+    @Label("Binder")
+    String binder;
+
+    @Label("Outgoing Card")
+    String cardName;
+
+    @Label("Incoming Card")
+    String incomingCard;
+
+    @Label("Value Delta (cents)")
+    @Description("Actual value of the incoming card minus that of the outgoing card")
+    long valueDeltaCents;
+
+    @Label("Outcome")
+    @Description("OK, FAILED or NEEDS_CONFIRMATION")
+    String outcome;
+}
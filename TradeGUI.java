@@ -1,10 +1,9 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
 
 public class TradeGUI extends JDialog {
-    public TradeGUI(JFrame parent, Binder binder, ArrayList<Card> collection) {
-        super(parent, "Trade Card - " + binder.getName(), true);
+    public TradeGUI(Window parent, InventoryService service, Binder binder) {
+        super(parent, "Trade Card - " + binder.getName(), ModalityType.APPLICATION_MODAL);
         setSize(600, 400);
         setLayout(new BorderLayout());
 
@@ -36,9 +35,7 @@ public class TradeGUI extends JDialog {
 
         JButton tradeButton = new JButton("Trade");
         tradeButton.addActionListener(e -> {
-            String outgoingName = (String) cardDropdown.getSelectedItem();
-            Card outgoing = binderCards.stream().filter(c -> c.getName().equalsIgnoreCase(outgoingName)).findFirst().orElse(null);
-
+            String outgoing = (String) cardDropdown.getSelectedItem();
             if (outgoing == null) {
                 JOptionPane.showMessageDialog(this, "Card not found in binder.");
                 return;
@@ -47,54 +44,30 @@ public class TradeGUI extends JDialog {
             String name = nameField.getText().trim();
             String rarity = (String) rarityBox.getSelectedItem();
             String variant = (String) variantBox.getSelectedItem();
-            double baseValue;
+            long baseValue;
 
             try {
-                baseValue = Double.parseDouble(baseValueField.getText().trim());
+                baseValue = Money.parse(baseValueField.getText());
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "Invalid base value.");
                 return;
             }
 
-            Card incoming;
-            try {
-                incoming = new Card(name, rarity, variant, baseValue);
-            } catch (IllegalArgumentException ex) {
-                JOptionPane.showMessageDialog(this, "" + ex.getMessage());
-                return;
-            }
-
-            double diff = Math.abs(outgoing.getActualValue() - incoming.getActualValue());
-            if (diff >= 1.0) {
-                int confirm = JOptionPane.showConfirmDialog(this, String.format(
-                        "The value difference is $%.2f. Proceed with trade?", diff),
+            OperationResult result = service.trade(binder.getName(), outgoing, name, rarity, variant, baseValue, false);
+            if (result.needsConfirmation()) {
+                int confirm = JOptionPane.showConfirmDialog(this, result.getMessage(),
                         "Confirm Trade", JOptionPane.YES_NO_OPTION);
                 if (confirm != JOptionPane.YES_OPTION) {
+                    service.cancelTrade();
                     return;
                 }
+                result = service.trade(binder.getName(), outgoing, name, rarity, variant, baseValue, true);
             }
 
-            binder.removeCard(outgoing);
-            boolean added = binder.addCard(incoming);
-
-            if (!added) {
-                JOptionPane.showMessageDialog(this, "Binder is full or incoming card is not allowed. Trade cancelled.");
-                binder.addCard(outgoing);
-                return;
-            }
-
-            Card existing = collection.stream()
-                    .filter(c -> c.getName().equalsIgnoreCase(incoming.getName()))
-                    .findFirst().orElse(null);
-            if (existing == null) {
-                collection.add(new Card(name, rarity, variant, baseValue));
-                collection.stream()
-                        .filter(c -> c.getName().equalsIgnoreCase(name))
-                        .findFirst().ifPresent(c -> c.setCount(0));
+            JOptionPane.showMessageDialog(this, result.getMessage());
+            if (result.isSuccess()) {
+                dispose();
             }
-
-            JOptionPane.showMessageDialog(this, "Trade successful!");
-            dispose();
         });
 
         add(form, BorderLayout.CENTER);
@@ -1,24 +1,27 @@
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Scanner;
 
 /**
  * The TradeManager class handles trading cards between a binder and an external source.
  * It compares values and allows users to cancel trades when the difference is $1.00 or more.
+ * The trade itself is carried out by InventoryService.trade.
  */
 public class TradeManager {
 
     /**
      * Initiates the trade process with a given binder.
      *
-     * @param binder     The binder from which a card will be traded.
-     * @param collection The collection to which new cards are added.
-     * @param scanner    Scanner for user input.
+     * @param service The inventory the binder belongs to.
+     * @param binder  The binder from which a card will be traded.
+     * @param scanner Scanner for user input.
      */
-    public static void initiateTrade(Binder binder, ArrayList<Card> collection, Scanner scanner) {
-        ArrayList<Card> sorted = new ArrayList<>(binder.getCards());
-        Collections.sort(sorted, Comparator.comparing(Card::getName, String.CASE_INSENSITIVE_ORDER));
+    public static void initiateTrade(InventoryService service, Binder binder, Scanner scanner) {
+        ArrayList<Card> sorted = binder.getCardsByName();
+
+        if (sorted.isEmpty()) {
+            System.out.println("Binder has no cards to trade.");
+            return;
+        }
 
         System.out.println("\n--- Select a Card to Trade Away ---");
         for (int i = 0; i < sorted.size(); i++) {
@@ -43,12 +46,6 @@ public class TradeManager {
 
         Card outgoing = sorted.get(index - 1);
 
-        boolean removed = binder.removeCard(outgoing);
-        if (!removed) {
-            System.out.println("Error: Could not locate card in binder.");
-            return;
-        }
-
         System.out.println("\n--- Enter Incoming Card Details ---");
         System.out.print("Card Name: ");
         String name = scanner.nextLine().trim();
@@ -78,60 +75,24 @@ public class TradeManager {
         }
 
         System.out.print("Base value: ");
-        double baseValue;
+        long baseValue;
         try {
-            baseValue = Double.parseDouble(scanner.nextLine().trim());
+            baseValue = Money.parse(scanner.nextLine());
         } catch (NumberFormatException e) {
             System.out.println("Invalid value. Trade cancelled.");
-            binder.addCard(outgoing);
             return;
         }
 
-        Card incoming = new Card(name, rarity, variant, baseValue);
-
-        double diff = Math.abs(outgoing.getActualValue() - incoming.getActualValue());
-        if (diff >= 1.0) {
-            System.out.printf("Value difference is $%.2f. Proceed with trade? (yes/no): ", diff);
+        OperationResult result = service.trade(binder.getName(), outgoing.getName(), name, rarity, variant, baseValue, false);
+        if (result.needsConfirmation()) {
+            System.out.print(result.getMessage() + " (yes/no): ");
             String confirm = scanner.nextLine().trim().toLowerCase();
             if (!confirm.equals("yes") && !confirm.equals("y")) {
-                System.out.println("Trade cancelled. Returning outgoing card to binder.");
-                binder.addCard(outgoing);
+                System.out.println(service.cancelTrade());
                 return;
             }
+            result = service.trade(binder.getName(), outgoing.getName(), name, rarity, variant, baseValue, true);
         }
-
-        boolean addedToBinder = binder.addCard(incoming);
-        if (addedToBinder) {
-            System.out.println("Trade complete. Incoming card added to binder.");
-        } else {
-            System.out.println("Binder is full. Trade failed. Returning outgoing card.");
-            binder.addCard(outgoing);
-            return;
-        }
-
-        Card existing = findCard(collection, incoming.getName());
-        if (existing == null) {
-            collection.add(new Card(name, rarity, variant, baseValue));
-            Card added = findCard(collection, name);
-            if (added != null) {
-                added.setCount(0);
-            }
-        }
-    }
-
-    /**
-     * Searches for a card in the collection by name.
-     *
-     * @param collection The user's card collection.
-     * @param name       The name of the card.
-     * @return Card if found, else null.
-     */
-    private static Card findCard(ArrayList<Card> collection, String name) {
-        for (Card c : collection) {
-            if (c.getName().equalsIgnoreCase(name)) {
-                return c;
-            }
-        }
-        return null;
+        System.out.println(result);
     }
 }
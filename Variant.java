@@ -0,0 +1,69 @@
+/**
+ * The art variant of a card. Each variant carries the multiplier applied to
+ * the card's base value, so valuation is a field read instead of a string switch.
+ * Multipliers are stored in halves so values in cents stay exact.
+ */
+public enum Variant {
+    NORMAL("normal", 2),
+    EXTENDED_ART("extended-art", 3),
+    FULL_ART("full-art", 4),
+    ALT_ART("alt-art", 6);
+
+    private static final Variant[] VALUES = values();
+
+    private final String label;
+    private final int multiplierHalves;
+
+    Variant(String label, int multiplierHalves) {
+        this.label = label;
+        this.multiplierHalves = multiplierHalves;
+    }
+
+    /**
+     * @return the lowercase name used in menus and input, e.g. "full-art".
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return the factor applied to a card's base value to get its actual value.
+     */
+    public double getMultiplier() {
+        return multiplierHalves / 2.0;
+    }
+
+    /**
+     * Applies this variant's multiplier to a base value, rounding half-up to the cent.
+     *
+     * @param baseValueCents base value in cents.
+     * @return actual value in cents.
+     */
+    public long applyTo(long baseValueCents) {
+        return Money.multiply(baseValueCents, multiplierHalves, 2);
+    }
+
+    /**
+     * Looks up a variant by its label, ignoring case.
+     *
+     * @param label the variant label, e.g. "Alt-Art".
+     * @return the matching variant, or null if the label is not valid.
+     */
+    public static Variant fromLabel(String label) {
+        if (label == null) return null;
+        for (Variant v : VALUES) {
+            if (v.label.equalsIgnoreCase(label)) {
+                return v;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param ordinal a value previously returned by ordinal().
+     * @return the variant with that ordinal.
+     */
+    public static Variant fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}